@@ -0,0 +1,8 @@
+package com.shophub.ecommerce.cache;
+
+public interface CacheInvalidationPublisher {
+
+    void publishEvict(String cacheName, String key);
+
+    void publishClear(String cacheName);
+}
@@ -0,0 +1,18 @@
+package com.shophub.ecommerce.cache;
+
+import java.io.IOException;
+
+/**
+ * Encodes cache values to bytes. Each codec has a stable id that is written into the value
+ * header, so a node can read entries written with any registered codec.
+ */
+public interface CacheValueCodec {
+
+    byte id();
+
+    String name();
+
+    byte[] encode(Object value) throws IOException;
+
+    Object decode(byte[] bytes, int offset, int length) throws IOException;
+}
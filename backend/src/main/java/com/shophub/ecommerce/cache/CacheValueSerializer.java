@@ -0,0 +1,122 @@
+package com.shophub.ecommerce.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis value serializer with a small header in front of the encoded payload:
+ * <pre>
+ * [format version][codec id][flags]([uncompressed length, 4 bytes] if LZ4)[payload]
+ * </pre>
+ * Values without the header are treated as the original header-less JSON format, and values
+ * with an unknown version or codec decode to {@code null} (a cache miss), so nodes on
+ * different releases can share Redis during a rolling upgrade.
+ */
+@Slf4j
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    static final byte FORMAT_VERSION = 1;
+    static final byte FLAG_LZ4 = 1;
+    private static final int HEADER_SIZE = 3;
+
+    private final CacheValueCodec writeCodec;
+    private final Map<Byte, CacheValueCodec> codecs = new HashMap<>();
+    private final CacheValueCodec legacyCodec;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    /**
+     * @param writeCodec           codec used for new values
+     * @param readCodecs           every codec this node can decode, including the write codec
+     * @param legacyCodec          decoder for values written without a header
+     * @param compressionThreshold encoded size in bytes above which LZ4 is applied, or a negative
+     *                             value to disable compression
+     */
+    public CacheValueSerializer(CacheValueCodec writeCodec, List<CacheValueCodec> readCodecs,
+            CacheValueCodec legacyCodec, int compressionThreshold) {
+        this.writeCodec = writeCodec;
+        readCodecs.forEach(codec -> codecs.put(codec.id(), codec));
+        codecs.put(writeCodec.id(), writeCodec);
+        this.legacyCodec = legacyCodec;
+        this.compressionThreshold = compressionThreshold;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] payload;
+        try {
+            payload = writeCodec.encode(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode cache value with " + writeCodec.name(), e);
+        }
+
+        if (compressionThreshold >= 0 && payload.length > compressionThreshold) {
+            byte[] compressed = new byte[compressor.maxCompressedLength(payload.length)];
+            int compressedLength = compressor.compress(payload, 0, payload.length, compressed, 0);
+            // Only worth it if it actually saves space
+            if (compressedLength + Integer.BYTES < payload.length) {
+                return ByteBuffer.allocate(HEADER_SIZE + Integer.BYTES + compressedLength)
+                        .put(FORMAT_VERSION)
+                        .put(writeCodec.id())
+                        .put(FLAG_LZ4)
+                        .putInt(payload.length)
+                        .put(compressed, 0, compressedLength)
+                        .array();
+            }
+        }
+
+        return ByteBuffer.allocate(HEADER_SIZE + payload.length)
+                .put(FORMAT_VERSION)
+                .put(writeCodec.id())
+                .put((byte) 0)
+                .put(payload)
+                .array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if (bytes[0] == '{' || bytes[0] == '[' || bytes[0] == '"') {
+                return legacyCodec.decode(bytes, 0, bytes.length);
+            }
+            if (bytes.length < HEADER_SIZE || bytes[0] != FORMAT_VERSION) {
+                log.warn("Ignoring cache value with unknown format version {}", bytes[0]);
+                return null;
+            }
+            CacheValueCodec codec = codecs.get(bytes[1]);
+            if (codec == null) {
+                log.warn("Ignoring cache value with unknown codec id {}", bytes[1]);
+                return null;
+            }
+            if ((bytes[2] & FLAG_LZ4) == 0) {
+                return codec.decode(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+            }
+            int length = ByteBuffer.wrap(bytes, HEADER_SIZE, Integer.BYTES).getInt();
+            byte[] payload = new byte[length];
+            decompressor.decompress(bytes, HEADER_SIZE + Integer.BYTES, payload, 0, length);
+            return codec.decode(payload, 0, length);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not decode cache value", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.shophub.ecommerce.cache;
+
+import com.shophub.ecommerce.event.CatalogReloadEvent;
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Broadcasts local product writes to the other nodes, which replay them into their in-memory
+ * catalog structures; bulk changes are broadcast as a single reload. Delivery is best effort, as
+ * with any Redis pub/sub message.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogChangeBroadcaster implements MessageListener {
+
+    public static final String CHANNEL = "catalog:changes";
+
+    private static final String RELOADED = "RELOADED";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        if (!event.replicated()) {
+            publish(event.type().name(), event.product().getId());
+        }
+    }
+
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        if (!event.replicated()) {
+            publish(RELOADED, "");
+        }
+    }
+
+    private void publish(String type, String productId) {
+        try {
+            // Format: nodeId:type:productId
+            redisTemplate.convertAndSend(CHANNEL, nodeId + ":" + type + ":" + productId);
+        } catch (Exception e) {
+            log.warn("Failed to publish catalog change {} for product {}", type, productId, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        if (RELOADED.equals(parts[1])) {
+            eventPublisher.publishEvent(CatalogReloadEvent.replicatedFromPeer());
+            return;
+        }
+        ProductChangeEvent.Type type;
+        try {
+            type = ProductChangeEvent.Type.valueOf(parts[1]);
+        } catch (IllegalArgumentException e) {
+            // e.g. the older nodeId:version:type:productId format during a rolling deploy
+            log.warn("Ignoring unrecognised catalog change message from node {}", parts[0]);
+            return;
+        }
+        String productId = parts[2];
+        if (type == ProductChangeEvent.Type.DELETED) {
+            eventPublisher.publishEvent(ProductChangeEvent.replicated(type, Product.builder().id(productId).build()));
+        } else {
+            productRepository.findById(productId)
+                    .ifPresent(product -> eventPublisher.publishEvent(ProductChangeEvent.replicated(type, product)));
+        }
+    }
+}
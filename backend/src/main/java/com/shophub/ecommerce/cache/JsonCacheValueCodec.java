@@ -0,0 +1,48 @@
+package com.shophub.ecommerce.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+
+/**
+ * The original cache format: JSON with {@code @class} metadata on every non-final value.
+ * Kept so entries written before the binary codec can still be read.
+ */
+public class JsonCacheValueCodec implements CacheValueCodec {
+
+    public static final byte ID = 1;
+
+    private final ObjectMapper objectMapper;
+
+    public JsonCacheValueCodec() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.activateDefaultTyping(
+                LaissezFaireSubTypeValidator.instance,
+                ObjectMapper.DefaultTyping.NON_FINAL);
+    }
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes, int offset, int length) throws IOException {
+        return objectMapper.readValue(bytes, offset, length, Object.class);
+    }
+}
@@ -0,0 +1,57 @@
+package com.shophub.ecommerce.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Best-effort mutual exclusion across nodes using {@code SET NX PX} with an owner token.
+ */
+@Slf4j
+public class RedisLock {
+
+    /**
+     * Returned when Redis is unreachable: the caller should proceed as if it held the lock.
+     */
+    public static final String UNAVAILABLE = "";
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisLock(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @return an owner token, {@code null} if another owner holds the lock, or {@link #UNAVAILABLE}
+     */
+    public String tryAcquire(String key, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, ttl)) ? token : null;
+        } catch (Exception e) {
+            log.warn("Could not acquire lock {}", key, e);
+            return UNAVAILABLE;
+        }
+    }
+
+    public void release(String key, String token) {
+        if (token == null || UNAVAILABLE.equals(token)) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE, List.of(key), token);
+        } catch (Exception e) {
+            // The lock expires on its own
+            log.warn("Could not release lock {}", key, e);
+        }
+    }
+}
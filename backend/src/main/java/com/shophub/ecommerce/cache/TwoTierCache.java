@@ -0,0 +1,275 @@
+package com.shophub.ecommerce.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded in-process L1 in front of a shared remote (Redis) L2. Writes and evictions go to
+ * both tiers and are broadcast so other nodes drop their L1 copy.
+ * <p>
+ * Misses loaded through {@link #get(Object, Callable)} ({@code @Cacheable(sync = true)}) are
+ * single-flight: one caller per node computes the value while the others wait for it, and a Redis
+ * lock makes the other nodes wait for that node's result as well. Every wait is bounded and
+ * falls back to computing the value directly. A loaded value is only stored if its key was not
+ * written or evicted while the loader ran, so an eviction is never undone by a slower load.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final RedisLock redisLock;
+    private final TwoTierCacheSettings settings;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // Bumped on every write or eviction of a key in the stripe; bounded, at the cost of a load
+    // occasionally skipping its store because a neighbouring key changed
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l1Misses = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+            Cache remote, CacheInvalidationPublisher invalidationPublisher, RedisLock redisLock,
+            TwoTierCacheSettings settings) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+        this.redisLock = redisLock;
+        this.settings = settings;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        l1Misses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            l2Hits.increment();
+            local.put(localKey, wrapper.get());
+        } else {
+            l2Misses.increment();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            return (T) wrapper.get();
+        }
+
+        String localKey = localKey(key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(localKey, mine);
+        if (leader != null) {
+            coalescedLoads.increment();
+            try {
+                return (T) leader.get(settings.lockTtl().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return load(key, localKey, valueLoader);
+            } catch (ExecutionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+
+        try {
+            T value = loadOnce(key, localKey, valueLoader);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e instanceof ValueRetrievalException && e.getCause() != null ? e.getCause() : e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, mine);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T loadOnce(Object key, String localKey, Callable<T> valueLoader) {
+        String lockKey = "lock:" + name + "::" + localKey;
+        String token = redisLock.tryAcquire(lockKey, settings.lockTtl());
+        if (token == null) {
+            // Another node is rebuilding this key: wait for its result to land in Redis
+            long deadline = System.nanoTime() + settings.maxWait().toNanos();
+            while (System.nanoTime() < deadline) {
+                try {
+                    Thread.sleep(settings.pollInterval().toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ValueRetrievalException(key, valueLoader, e);
+                }
+                ValueWrapper wrapper = remote.get(key);
+                if (wrapper != null && wrapper.get() != null) {
+                    local.put(localKey, wrapper.get());
+                    return (T) wrapper.get();
+                }
+            }
+        }
+        try {
+            return load(key, localKey, valueLoader);
+        } finally {
+            redisLock.release(lockKey, token);
+        }
+    }
+
+    private <T> T load(Object key, String localKey, Callable<T> valueLoader) {
+        int stripe = stripe(localKey);
+        long generation = generations.get(stripe);
+        T value;
+        try {
+            loads.increment();
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        // A fresh value for a key nobody holds: no need to broadcast an invalidation
+        if (value != null && generations.get(stripe) == generation) {
+            remote.put(key, value);
+            local.put(localKey, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        bump(localKey(key));
+        remote.put(key, value);
+        if (value != null) {
+            local.put(localKey(key), value);
+        }
+        invalidationPublisher.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null || existing.get() == null) {
+            bump(localKey(key));
+            if (value != null) {
+                local.put(localKey(key), value);
+            }
+            invalidationPublisher.publishEvict(name, localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        bump(localKey(key));
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        invalidationPublisher.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        bump(localKey(key));
+        boolean present = remote.evictIfPresent(key);
+        local.invalidate(localKey(key));
+        invalidationPublisher.publishEvict(name, localKey(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        bumpAll();
+        remote.clear();
+        local.invalidateAll();
+        invalidationPublisher.publishClear(name);
+    }
+
+    /**
+     * Drops L1 entries only; used when another node has invalidated the shared tier.
+     */
+    void evictLocal(String key) {
+        bump(key);
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        bumpAll();
+        local.invalidateAll();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("l1_size", local.estimatedSize());
+        stats.put("l1_hits", l1Hits.sum());
+        stats.put("l1_misses", l1Misses.sum());
+        stats.put("l2_hits", l2Hits.sum());
+        stats.put("l2_misses", l2Misses.sum());
+        stats.put("loads", loads.sum());
+        stats.put("coalesced_loads", coalescedLoads.sum());
+        return stats;
+    }
+
+    private void bump(String localKey) {
+        generations.incrementAndGet(stripe(localKey));
+    }
+
+    private void bumpAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(String localKey) {
+        return Math.floorMod(localKey.hashCode(), GENERATION_STRIPES);
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,104 @@
+package com.shophub.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps the Redis cache manager with a per-node, size- and TTL-bounded Caffeine L1 (W-TinyLFU)
+ * per cache name. L1 invalidations are fanned out to every node over Redis pub/sub.
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, CacheInvalidationPublisher, MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+
+    private static final String CLEAR_ALL = "*";
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisLock redisLock;
+    private final TwoTierCacheSettings settings;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+            TwoTierCacheSettings settings) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.redisLock = new RedisLock(redisTemplate);
+        this.settings = settings;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = remoteCacheManager.getCache(cacheName);
+            com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                    .maximumSize(settings.localMaximumSize())
+                    .expireAfterWrite(settings.localTtl())
+                    .build();
+            return new TwoTierCache(cacheName, local, remote, this, redisLock, settings);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return caches.keySet();
+    }
+
+    @Override
+    public void publishEvict(String cacheName, String key) {
+        publish(cacheName, key);
+    }
+
+    @Override
+    public void publishClear(String cacheName) {
+        publish(cacheName, CLEAR_ALL);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // Format: nodeId \n cacheName \n key
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR_ALL.equals(parts[2])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.getStatistics()));
+        return stats;
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + "\n" + cacheName + "\n" + key);
+        } catch (Exception e) {
+            // Other nodes fall back to L1 expiry
+            log.warn("Failed to publish cache invalidation for {}::{}", cacheName, key, e);
+        }
+    }
+}
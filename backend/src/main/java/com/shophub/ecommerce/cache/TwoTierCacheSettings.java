@@ -0,0 +1,14 @@
+package com.shophub.ecommerce.cache;
+
+import java.time.Duration;
+
+/**
+ * @param localMaximumSize L1 entries per cache name
+ * @param localTtl         L1 time-to-live after write
+ * @param lockTtl          how long a node may hold the rebuild lock for one key
+ * @param maxWait          how long a caller waits for another rebuild before computing itself
+ * @param pollInterval     how often a waiting node checks Redis for the rebuilt value
+ */
+public record TwoTierCacheSettings(long localMaximumSize, Duration localTtl, Duration lockTtl,
+        Duration maxWait, Duration pollInterval) {
+}
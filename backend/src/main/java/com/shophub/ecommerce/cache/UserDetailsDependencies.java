@@ -0,0 +1,87 @@
+package com.shophub.ecommerce.cache;
+
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Records which products each cached user-details entry embeds, so a product change evicts only
+ * the users whose cart or recent orders show that product. The reverse index is one Redis set of
+ * emails per product, expiring shortly after the cache entries it points at.
+ */
+@Slf4j
+@Component
+public class UserDetailsDependencies {
+
+    public static final String CACHE_NAME = "userDetails_v2";
+
+    private static final String KEY_PREFIX = "userDetails:dependents:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheManager cacheManager;
+    private final Duration ttl;
+
+    public UserDetailsDependencies(StringRedisTemplate redisTemplate, CacheManager cacheManager,
+            @Value("${cache.user-details.dependency-ttl:15m}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Call while building the entry, before the products are read, so a change that lands after
+     * the read still finds the user.
+     */
+    public void register(String email, Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        byte[] member = email.getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String productId : productIds) {
+                    byte[] key = (KEY_PREFIX + productId).getBytes(StandardCharsets.UTF_8);
+                    connection.setCommands().sAdd(key, member);
+                    connection.keyCommands().expire(key, ttl.toSeconds());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // The entry then only refreshes on its own TTL
+            log.warn("Could not record product dependencies of user details for {}", email, e);
+        }
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        // The node that made the change evicts; the cache fans the evictions out to the others
+        if (event.replicated()) {
+            return;
+        }
+        String key = KEY_PREFIX + event.product().getId();
+        try {
+            Set<String> emails = redisTemplate.opsForSet().members(key);
+            if (emails == null || emails.isEmpty()) {
+                return;
+            }
+            Cache cache = cacheManager.getCache(CACHE_NAME);
+            if (cache != null) {
+                emails.forEach(cache::evict);
+            }
+            redisTemplate.opsForSet().remove(key, emails.toArray());
+        } catch (Exception e) {
+            log.warn("Could not evict user details depending on product {}", event.product().getId(), e);
+        }
+    }
+}
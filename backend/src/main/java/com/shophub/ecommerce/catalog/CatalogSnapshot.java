@@ -0,0 +1,41 @@
+package com.shophub.ecommerce.catalog;
+
+/**
+ * The encoded {@code get-all-products} response. The byte arrays are shared by every request and
+ * must not be modified.
+ *
+ * @param generation catalog change count the snapshot was built from
+ * @param identity   UTF-8 JSON body
+ * @param gzip       the same body, gzip encoded
+ * @param etag       strong entity tag (quoted) derived from the JSON body
+ * @param gzipEtag   strong entity tag of the gzip body; the encodings differ byte for byte, so
+ *                   they cannot share one
+ */
+public record CatalogSnapshot(long generation, byte[] identity, byte[] gzip, String etag, String gzipEtag) {
+
+    public String etag(boolean gzipped) {
+        return gzipped ? gzipEtag : etag;
+    }
+
+    /**
+     * True if an {@code If-None-Match} header value names this snapshot in the encoding the
+     * response would use. A tag for the other encoding does not match: the client's cached bytes
+     * are not the representation it would be sent.
+     */
+    public boolean matches(String ifNoneMatch, boolean gzipped) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String current = etag(gzipped);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
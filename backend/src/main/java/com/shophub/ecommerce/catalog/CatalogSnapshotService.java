@@ -0,0 +1,111 @@
+package com.shophub.ecommerce.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shophub.ecommerce.dto.ApiResponse;
+import com.shophub.ecommerce.dto.ProductResponse;
+import com.shophub.ecommerce.event.CatalogReloadEvent;
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import com.shophub.ecommerce.mapper.ProductMapper;
+import com.shophub.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the full catalog response encoded and gzipped in memory. Product changes and reloads
+ * (local or replayed from another node) only mark the snapshot stale; the next request rebuilds it once,
+ * so a burst of changes costs a single rebuild and a hit does no serialization at all.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogSnapshotService {
+
+    public static final String MESSAGE = "Products fetched successfully";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CatalogSnapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        current();
+    }
+
+    @EventListener({ ProductChangeEvent.class, CatalogReloadEvent.class })
+    public void onCatalogChange() {
+        generation.incrementAndGet();
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        if (current != null && current.generation() == generation.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long target = generation.get();
+            if (current == null || current.generation() != target) {
+                // Read the generation before loading, so a change racing the load forces another rebuild
+                current = build(target);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private CatalogSnapshot build(long target) {
+        List<ProductResponse> products = productRepository.findAllInListingOrder(BATCH_SIZE).stream()
+                .map(productMapper::toProductResponse)
+                .toList();
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(ApiResponse.success(MESSAGE, products));
+            String tag = digest(identity);
+            CatalogSnapshot built = new CatalogSnapshot(target, identity, gzip(identity), "\"" + tag + "\"",
+                    "\"" + tag + "-gz\"");
+            log.info("Catalog snapshot rebuilt with {} products ({} bytes, {} gzipped)",
+                    products.size(), identity.length, built.gzip().length);
+            return built;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode catalog snapshot", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String digest(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
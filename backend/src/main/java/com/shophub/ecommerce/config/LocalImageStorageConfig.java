@@ -0,0 +1,24 @@
+package com.shophub.ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(name = "image-storage.provider", havingValue = "local")
+public class LocalImageStorageConfig implements WebMvcConfigurer {
+
+    @Value("${image-storage.local.directory:${java.io.tmpdir}/shophub-images}")
+    private String directory;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        String location = Path.of(directory).toAbsolutePath().toUri().toString();
+        registry.addResourceHandler("/local-images/**")
+                .addResourceLocations(location.endsWith("/") ? location : location + "/");
+    }
+}
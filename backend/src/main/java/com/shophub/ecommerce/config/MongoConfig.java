@@ -0,0 +1,21 @@
+package com.shophub.ecommerce.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+@Configuration
+public class MongoConfig {
+
+        /**
+         * Multi-document transactions need a replica set or sharded cluster, so they are opt-in;
+         * without them callers fall back to compensating writes.
+         */
+        @Bean
+        @ConditionalOnProperty(name = "mongo.transactions.enabled", havingValue = "true")
+        public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+                return new MongoTransactionManager(databaseFactory);
+        }
+}
@@ -1,32 +1,66 @@
 package com.shophub.ecommerce.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.shophub.ecommerce.cache.CacheValueCodec;
+import com.shophub.ecommerce.cache.CacheValueSerializer;
+import com.shophub.ecommerce.cache.CatalogChangeBroadcaster;
+import com.shophub.ecommerce.cache.JsonCacheValueCodec;
+import com.shophub.ecommerce.cache.SmileCacheValueCodec;
+import com.shophub.ecommerce.cache.TwoTierCacheManager;
+import com.shophub.ecommerce.cache.TwoTierCacheSettings;
+import com.shophub.ecommerce.security.PrincipalLoader;
+import com.shophub.ecommerce.service.implementation.ImageDeduplicator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
 import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class RedisConfig {
 
-        @Bean
-        public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-                ObjectMapper objectMapper = new ObjectMapper();
-                objectMapper.registerModule(new JavaTimeModule());
-                objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-                objectMapper.activateDefaultTyping(
-                                LaissezFaireSubTypeValidator.instance,
-                                ObjectMapper.DefaultTyping.NON_FINAL);
+        @Value("${cache.l1.maximum-size:10000}")
+        private long l1MaximumSize;
+
+        @Value("${cache.l1.ttl:60s}")
+        private Duration l1Ttl;
+
+        @Value("${cache.single-flight.lock-ttl:10s}")
+        private Duration singleFlightLockTtl;
+
+        @Value("${cache.single-flight.max-wait:3s}")
+        private Duration singleFlightMaxWait;
+
+        @Value("${cache.single-flight.poll-interval:50ms}")
+        private Duration singleFlightPollInterval;
+
+        @Value("${cache.codec:smile}")
+        private String codecName;
+
+        @Value("${cache.compression-threshold:1024}")
+        private int compressionThreshold;
 
-                GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        @Value("${cache.principal-ttl:60s}")
+        private Duration principalTtl;
+
+        @Bean
+        public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                        StringRedisTemplate stringRedisTemplate) {
+                // Every node can read every codec, so cache.codec can be switched one node at a time
+                List<CacheValueCodec> codecs = List.of(new SmileCacheValueCodec(), new JsonCacheValueCodec());
+                CacheValueCodec writeCodec = codecs.stream()
+                                .filter(codec -> codec.name().equalsIgnoreCase(codecName))
+                                .findFirst()
+                                .orElseThrow(() -> new IllegalStateException("Unknown cache codec: " + codecName));
+                CacheValueSerializer serializer = new CacheValueSerializer(writeCodec, codecs,
+                                new JsonCacheValueCodec(), compressionThreshold);
 
                 RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                                 .entryTtl(Duration.ofMinutes(10))
@@ -34,8 +68,26 @@ public class RedisConfig {
                                                 RedisSerializationContext.SerializationPair.fromSerializer(serializer))
                                 .disableCachingNullValues();
 
-                return RedisCacheManager.builder(connectionFactory)
+                RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                                 .cacheDefaults(cacheConfig)
+                                .withCacheConfiguration(PrincipalLoader.CACHE_NAME, cacheConfig.entryTtl(principalTtl))
                                 .build();
+                redisCacheManager.afterPropertiesSet();
+
+                TwoTierCacheSettings settings = new TwoTierCacheSettings(l1MaximumSize, l1Ttl,
+                                singleFlightLockTtl, singleFlightMaxWait, singleFlightPollInterval);
+                return new TwoTierCacheManager(redisCacheManager, stringRedisTemplate, settings);
+        }
+
+        @Bean
+        public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                        TwoTierCacheManager cacheManager, CatalogChangeBroadcaster catalogChangeBroadcaster,
+                        ImageDeduplicator imageDeduplicator) {
+                RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+                container.setConnectionFactory(connectionFactory);
+                container.addMessageListener(cacheManager, new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+                container.addMessageListener(catalogChangeBroadcaster, new ChannelTopic(CatalogChangeBroadcaster.CHANNEL));
+                container.addMessageListener(imageDeduplicator, new ChannelTopic(ImageDeduplicator.CHANNEL));
+                return container;
         }
 }
@@ -1,17 +1,33 @@
 package com.shophub.ecommerce.controller;
 
+import com.shophub.ecommerce.cache.TwoTierCacheManager;
 import com.shophub.ecommerce.dto.ApiResponse;
 import com.shophub.ecommerce.model.Product;
 import com.shophub.ecommerce.enums.ProductStatus;
+import com.shophub.ecommerce.search.ProductSuggestIndex;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.service.IdempotencyService;
+import com.shophub.ecommerce.service.ImageGarbageCollectionService;
+import com.shophub.ecommerce.service.ImageUploadService;
 import com.shophub.ecommerce.service.OrderService;
+import com.shophub.ecommerce.service.OutboxService;
+import com.shophub.ecommerce.service.ProductImportService;
 import com.shophub.ecommerce.service.ProductService;
+import com.shophub.ecommerce.service.StockHoldService;
+import com.shophub.ecommerce.service.StockStore;
 import com.shophub.ecommerce.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/admin")
@@ -21,6 +37,15 @@ public class AdminController {
     private final ProductService productService;
     private final UserService userService;
     private final OrderService orderService;
+    private final TwoTierCacheManager cacheManager;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductImportService productImportService;
+    private final ImageUploadService imageUploadService;
+    private final ImageGarbageCollectionService imageGarbageCollectionService;
+    private final StockStore stockStore;
+    private final StockHoldService stockHoldService;
+    private final IdempotencyService idempotencyService;
+    private final OutboxService outboxService;
 
     @GetMapping("/get-all-users")
     public ResponseEntity<ApiResponse> getAllUsers() {
@@ -34,6 +59,35 @@ public class AdminController {
                 ApiResponse.success("Products fetched", productService.getAllProducts()));
     }
 
+    @GetMapping("/get-products")
+    public ResponseEntity<ApiResponse> listProducts(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(
+                ApiResponse.success("Products fetched", productService.listProducts(cursor, size)));
+    }
+
+    @GetMapping("/filter-products")
+    public ResponseEntity<ApiResponse> filterProducts(
+            @RequestParam(value = "category", required = false) List<String> categories,
+            @RequestParam(value = "status", required = false) List<String> statuses,
+            @RequestParam(value = "min_price", required = false) Double minPrice,
+            @RequestParam(value = "max_price", required = false) Double maxPrice,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(ApiResponse.success("Products fetched",
+                productService.filterProducts(categories, statuses, minPrice, maxPrice, sort, page, size)));
+    }
+
+    @GetMapping("/get-product-changes")
+    public ResponseEntity<ApiResponse> getProductChanges(
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(
+                ApiResponse.success("Product changes fetched", productService.getCatalogChanges(since, size)));
+    }
+
     @PostMapping("/add-product")
     public ResponseEntity<ApiResponse> addProduct(
             @RequestParam("product_name") String productName,
@@ -41,13 +95,39 @@ public class AdminController {
             @RequestParam("price") double price,
             @RequestParam(value = "status", required = false) String status,
             @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "stock", required = false) Integer stock,
             @RequestParam("image") MultipartFile image) throws IOException {
 
         ProductStatus productStatus = status != null ? ProductStatus.valueOf(status) : ProductStatus.IN_STOCK;
 
         Product product = productService.addProduct(
-                productName, productDescription, price, productStatus, category, image);
-        return ResponseEntity.ok(ApiResponse.success("Product added successfully", product));
+                productName, productDescription, price, productStatus, category, stock, image);
+        return ResponseEntity.accepted().body(ApiResponse.success("Product added, image upload queued", product));
+    }
+
+    /**
+     * Streams a CSV (with a header row) or NDJSON body; send the file as the raw request body.
+     */
+    @PostMapping("/import-products")
+    public ResponseEntity<ApiResponse> importProducts(
+            @RequestParam(value = "format", required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            HttpServletRequest request) throws IOException {
+        ProductImportService.Format importFormat;
+        if (format != null) {
+            importFormat = switch (format.toLowerCase()) {
+                case "csv" -> ProductImportService.Format.CSV;
+                case "ndjson", "jsonl" -> ProductImportService.Format.NDJSON;
+                default -> throw new ApiException(HttpStatus.BAD_REQUEST, "Unsupported import format: " + format);
+            };
+        } else if (contentType != null && contentType.toLowerCase().contains("csv")) {
+            importFormat = ProductImportService.Format.CSV;
+        } else {
+            importFormat = ProductImportService.Format.NDJSON;
+        }
+
+        return ResponseEntity.ok(ApiResponse.success("Products imported",
+                productImportService.importProducts(request.getInputStream(), importFormat)));
     }
 
     @PutMapping("/update-product/{id}")
@@ -70,6 +150,15 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success("Product updated successfully", product));
     }
 
+    /**
+     * Sets the stock count; omit {@code stock} to stop tracking stock for the product.
+     */
+    @PutMapping("/update-stock/{id}")
+    public ResponseEntity<ApiResponse> updateStock(@PathVariable String id,
+            @RequestParam(value = "stock", required = false) Integer stock) {
+        return ResponseEntity.ok(ApiResponse.success("Stock updated", productService.updateStock(id, stock)));
+    }
+
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<ApiResponse> deleteProduct(@PathVariable String id) {
         Product deleted = productService.deleteProduct(id);
@@ -87,4 +176,54 @@ public class AdminController {
         return ResponseEntity.ok(
                 ApiResponse.success("Orders fetched", orderService.getAllOrders()));
     }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<ApiResponse> getCacheStats() {
+        return ResponseEntity.ok(
+                ApiResponse.success("Cache statistics fetched", cacheManager.getStatistics()));
+    }
+
+    @GetMapping("/suggest-stats")
+    public ResponseEntity<ApiResponse> getSuggestStats() {
+        return ResponseEntity.ok(
+                ApiResponse.success("Suggest statistics fetched", productSuggestIndex.getStatistics()));
+    }
+
+    @GetMapping("/image-upload-stats")
+    public ResponseEntity<ApiResponse> getImageUploadStats() {
+        return ResponseEntity.ok(
+                ApiResponse.success("Image upload statistics fetched", imageUploadService.getStatistics()));
+    }
+
+    @PostMapping("/run-image-gc")
+    public ResponseEntity<ApiResponse> runImageGc(
+            @RequestParam(value = "dry_run", defaultValue = "false") boolean dryRun) {
+        return ResponseEntity.ok(
+                ApiResponse.success("Image garbage collection finished", imageGarbageCollectionService.run(dryRun)));
+    }
+
+    @GetMapping("/image-gc-stats")
+    public ResponseEntity<ApiResponse> getImageGcStats() {
+        return ResponseEntity.ok(
+                ApiResponse.success("Image garbage collection statistics fetched",
+                        imageGarbageCollectionService.getStatistics()));
+    }
+
+    @GetMapping("/stock-stats")
+    public ResponseEntity<ApiResponse> getStockStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(stockStore.getStatistics());
+        stats.put("holds", stockHoldService.getStatistics());
+        return ResponseEntity.ok(ApiResponse.success("Stock statistics fetched", stats));
+    }
+
+    @GetMapping("/idempotency-stats")
+    public ResponseEntity<ApiResponse> getIdempotencyStats() {
+        return ResponseEntity.ok(ApiResponse.success("Idempotency statistics fetched",
+                idempotencyService.getStatistics()));
+    }
+
+    @GetMapping("/outbox-stats")
+    public ResponseEntity<ApiResponse> getOutboxStats() {
+        return ResponseEntity.ok(ApiResponse.success("Outbox statistics fetched", outboxService.getStatistics()));
+    }
 }
@@ -1,8 +1,8 @@
 package com.shophub.ecommerce.controller;
 
 import com.shophub.ecommerce.dto.ApiResponse;
-import com.shophub.ecommerce.model.User;
 import com.shophub.ecommerce.service.UserService;
+import com.shophub.ecommerce.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
@@ -18,8 +18,8 @@ public class AuthController {
     private final UserService userService;
 
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse> logout(@AuthenticationPrincipal User user) {
-        userService.logoutUser(user);
+    public ResponseEntity<ApiResponse> logout(@AuthenticationPrincipal AuthenticatedUser user) {
+        userService.logoutUser(user.getEmail());
 
         ResponseCookie cookie = ResponseCookie.from("jwtToken", "")
                 .httpOnly(true)
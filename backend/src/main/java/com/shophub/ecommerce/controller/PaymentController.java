@@ -2,22 +2,27 @@ package com.shophub.ecommerce.controller;
 
 import com.shophub.ecommerce.dto.ApiResponse;
 import com.shophub.ecommerce.dto.PaymentVerifyRequest;
-import com.shophub.ecommerce.model.User;
 import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.service.IdempotencyService;
 import com.shophub.ecommerce.service.OrderService;
 import com.shophub.ecommerce.service.ProductService;
 import com.shophub.ecommerce.service.RazorpayService;
+import com.shophub.ecommerce.service.StockHoldService;
+import com.shophub.ecommerce.service.StockStore;
 import com.shophub.ecommerce.enums.PaymentStatus;
 import com.razorpay.Order;
 import com.razorpay.RazorpayException;
+import com.shophub.ecommerce.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
@@ -27,13 +32,18 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class PaymentController {
 
+    private static final String NOTE_PRODUCT_ID = "product_id";
+    private static final String NOTE_QUANTITY = "quantity";
+
     private final RazorpayService razorpayService;
     private final ProductService productService;
     private final OrderService orderService;
+    private final StockHoldService stockHoldService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping("/create-order")
     public ResponseEntity<ApiResponse> createRazorpayOrder(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody Map<String, Object> request) {
 
         String productId = (String) request.get("product_id");
@@ -42,12 +52,27 @@ public class PaymentController {
             quantity = ((Number) request.get("quantity")).intValue();
         }
 
+        if (quantity < 1) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Quantity must be at least 1");
+        }
+
         var product = productService.getProductById(productId);
+        if (product.getStock() != null && product.getStock() < quantity) {
+            throw new ApiException(HttpStatus.CONFLICT, "Not enough stock for product: " + productId);
+        }
         double totalAmount = product.getPrice() * quantity;
 
         try {
+            // Verification builds the order from these, not from what the client sends back
             Order razorpayOrder = razorpayService.createOrder(
-                    totalAmount, "INR", "receipt_" + System.currentTimeMillis());
+                    totalAmount, "INR", "receipt_" + System.currentTimeMillis(),
+                    Map.of(NOTE_PRODUCT_ID, productId, NOTE_QUANTITY, quantity));
+
+            // Hold the stock until the payment is verified or the hold expires
+            if (product.getStock() != null) {
+                stockHoldService.place(razorpayOrder.get("id"), user.getEmail(),
+                        List.of(new StockStore.StockLine(productId, quantity)));
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("order_id", razorpayOrder.get("id"));
@@ -64,9 +89,15 @@ public class PaymentController {
 
     @PostMapping("/verify")
     public ResponseEntity<ApiResponse> verifyPayment(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody PaymentVerifyRequest request) {
 
+        // A Razorpay order is paid once, so a retried or double-submitted verify replays the first result
+        return idempotencyService.execute("payment-verify", user.getId(), request.getRazorpay_order_id(),
+                request, () -> verifyAndCreateOrder(user, request));
+    }
+
+    private ResponseEntity<ApiResponse> verifyAndCreateOrder(AuthenticatedUser user, PaymentVerifyRequest request) {
         try {
             boolean isValid = razorpayService.verifyPaymentSignature(
                     request.getRazorpay_order_id(),
@@ -77,19 +108,38 @@ public class PaymentController {
                 throw new ApiException(HttpStatus.BAD_REQUEST, "Payment verification failed");
             }
 
-            // Create order with verified payment
+            // Create order with verified payment, for what was actually paid for
+            JSONObject notes = razorpayService.fetchOrder(request.getRazorpay_order_id()).toJson()
+                    .optJSONObject("notes");
+            String productId = request.getProduct_id();
+            int quantity = request.getQuantity() > 0 ? request.getQuantity() : 1;
+            if (notes != null && notes.has(NOTE_PRODUCT_ID)) {
+                String paidProductId = notes.getString(NOTE_PRODUCT_ID);
+                int paidQuantity = notes.optInt(NOTE_QUANTITY, 1);
+                if ((productId != null && !productId.equals(paidProductId))
+                        || (request.getQuantity() > 0 && request.getQuantity() != paidQuantity)) {
+                    throw new ApiException(HttpStatus.BAD_REQUEST,
+                            "Order does not match the items paid for in " + request.getRazorpay_order_id());
+                }
+                productId = paidProductId;
+                quantity = paidQuantity;
+            }
+
             var order = orderService.createOrder(
                     user.getEmail(),
-                    request.getProduct_id(),
+                    productId,
                     PaymentStatus.SUCCESS,
                     "ONLINE",
                     request.getAddress_id(),
-                    request.getQuantity() > 0 ? request.getQuantity() : 1,
+                    quantity,
                     request.getRazorpay_order_id(),
                     request.getRazorpay_payment_id(),
                     request.getRazorpay_signature());
 
-            return ResponseEntity.ok(ApiResponse.success("Payment verified and order created", order));
+            String message = order.isBackordered()
+                    ? "Payment verified; the item sold out, so the order is backordered"
+                    : "Payment verified and order created";
+            return ResponseEntity.ok(ApiResponse.success(message, order));
         } catch (RazorpayException e) {
             log.error("Payment verification failed", e);
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Payment verification error");
@@ -1,17 +1,23 @@
 package com.shophub.ecommerce.controller;
 
+import com.shophub.ecommerce.catalog.CatalogSnapshot;
+import com.shophub.ecommerce.catalog.CatalogSnapshotService;
 import com.shophub.ecommerce.dto.ApiResponse;
 import com.shophub.ecommerce.dto.LoginRequest;
 import com.shophub.ecommerce.dto.RegisterRequest;
 import com.shophub.ecommerce.service.ProductService;
 import com.shophub.ecommerce.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,6 +27,7 @@ public class PublicController {
 
         private final UserService userService;
         private final ProductService productService;
+        private final CatalogSnapshotService catalogSnapshotService;
 
         @PostMapping("/register")
         public ResponseEntity<ApiResponse> register(@RequestBody RegisterRequest request) {
@@ -71,9 +78,59 @@ public class PublicController {
         }
 
         @GetMapping("/get-all-products")
-        public ResponseEntity<ApiResponse> getAllProducts() {
-                return ResponseEntity.ok(
-                                ApiResponse.success("Products fetched successfully", productService.getAllProducts()));
+        public ResponseEntity<byte[]> getAllProducts(
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+                CatalogSnapshot snapshot = catalogSnapshotService.current();
+                boolean gzip = acceptsGzip(acceptEncoding);
+                String etag = snapshot.etag(gzip);
+                if (snapshot.matches(ifNoneMatch, gzip)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                        .eTag(etag)
+                                        .cacheControl(CacheControl.noCache())
+                                        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                                        .build();
+                }
+
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .eTag(etag)
+                                .cacheControl(CacheControl.noCache())
+                                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+                if (gzip) {
+                        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+                }
+                return response.body(snapshot.identity());
+        }
+
+        @GetMapping("/get-products")
+        public ResponseEntity<ApiResponse> listProducts(
+                        @RequestParam(value = "cursor", required = false) String cursor,
+                        @RequestParam(value = "size", required = false) Integer size) {
+                return ResponseEntity.ok(ApiResponse.success("Products fetched successfully",
+                                productService.listProducts(cursor, size)));
+        }
+
+        @GetMapping("/filter-products")
+        public ResponseEntity<ApiResponse> filterProducts(
+                        @RequestParam(value = "category", required = false) List<String> categories,
+                        @RequestParam(value = "status", required = false) List<String> statuses,
+                        @RequestParam(value = "min_price", required = false) Double minPrice,
+                        @RequestParam(value = "max_price", required = false) Double maxPrice,
+                        @RequestParam(value = "sort", required = false) String sort,
+                        @RequestParam(value = "page", required = false) Integer page,
+                        @RequestParam(value = "size", required = false) Integer size) {
+                return ResponseEntity.ok(ApiResponse.success("Products fetched successfully",
+                                productService.filterProducts(categories, statuses, minPrice, maxPrice, sort, page,
+                                                size)));
+        }
+
+        @GetMapping("/get-product-changes")
+        public ResponseEntity<ApiResponse> getProductChanges(
+                        @RequestParam(value = "since", required = false) String since,
+                        @RequestParam(value = "size", required = false) Integer size) {
+                return ResponseEntity.ok(ApiResponse.success("Product changes fetched successfully",
+                                productService.getCatalogChanges(since, size)));
         }
 
         @GetMapping("/search")
@@ -81,4 +138,24 @@ public class PublicController {
                 return ResponseEntity.ok(ApiResponse.success("Search results fetched successfully",
                                 productService.searchProducts(keyword)));
         }
+
+        @GetMapping("/suggest")
+        public ResponseEntity<ApiResponse> suggest(@RequestParam String prefix,
+                        @RequestParam(value = "limit", required = false) Integer limit) {
+                return ResponseEntity.ok(ApiResponse.success("Suggestions fetched successfully",
+                                productService.suggest(prefix, limit)));
+        }
+
+        private static boolean acceptsGzip(String acceptEncoding) {
+                if (acceptEncoding == null) {
+                        return false;
+                }
+                for (String coding : acceptEncoding.split(",")) {
+                        String[] parts = coding.trim().split(";");
+                        if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                        }
+                }
+                return false;
+        }
 }
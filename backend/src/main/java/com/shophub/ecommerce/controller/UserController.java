@@ -3,11 +3,11 @@ package com.shophub.ecommerce.controller;
 import com.shophub.ecommerce.dto.*;
 import com.shophub.ecommerce.model.Address;
 import com.shophub.ecommerce.model.Order;
-import com.shophub.ecommerce.model.User;
 import com.shophub.ecommerce.service.AddressService;
-import com.shophub.ecommerce.service.CloudinaryService;
+import com.shophub.ecommerce.service.IdempotencyService;
 import com.shophub.ecommerce.service.OrderService;
 import com.shophub.ecommerce.service.UserService;
+import com.shophub.ecommerce.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -25,23 +26,38 @@ public class UserController {
     private final UserService userService;
     private final OrderService orderService;
     private final AddressService addressService;
-    private final CloudinaryService cloudinaryService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping("/user-details")
-    public ResponseEntity<ApiResponse> getUserDetails(@AuthenticationPrincipal User user) {
+    public ResponseEntity<ApiResponse> getUserDetails(@AuthenticationPrincipal AuthenticatedUser user) {
         Map<String, Object> details = userService.getUserDetails(user.getEmail());
         return ResponseEntity.ok(ApiResponse.success("User details fetched", details));
     }
 
+    @GetMapping("/orders")
+    public ResponseEntity<ApiResponse> getOrderHistory(@AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(ApiResponse.success("Orders fetched",
+                orderService.getOrderHistory(user.getId(), cursor, size)));
+    }
+
+    @GetMapping("/orders/{id}")
+    public ResponseEntity<ApiResponse> getOrderDetails(@AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id) {
+        return ResponseEntity.ok(ApiResponse.success("Order fetched",
+                orderService.getOrderDetails(user.getId(), id)));
+    }
+
     @PostMapping("/add-to-cart/{id}")
-    public ResponseEntity<ApiResponse> addToCart(@AuthenticationPrincipal User user,
+    public ResponseEntity<ApiResponse> addToCart(@AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable String id) {
         Map<String, Object> result = userService.addToCart(user.getEmail(), id);
         return ResponseEntity.ok(ApiResponse.success("Successfully add to cart", result));
     }
 
     @PutMapping("/update-cart/{id}")
-    public ResponseEntity<ApiResponse> updateCartQuantity(@AuthenticationPrincipal User user,
+    public ResponseEntity<ApiResponse> updateCartQuantity(@AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable String id,
             @RequestBody CartUpdateRequest request) {
         Map<String, Object> result = userService.updateCartQuantity(
@@ -50,41 +66,48 @@ public class UserController {
     }
 
     @PostMapping("/delete-cart/{id}")
-    public ResponseEntity<ApiResponse> deleteCartItem(@AuthenticationPrincipal User user,
+    public ResponseEntity<ApiResponse> deleteCartItem(@AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable String id) {
         userService.deleteCartItem(user.getEmail(), id);
         return ResponseEntity.ok(ApiResponse.success("Item removed from cart"));
     }
 
     @PostMapping("/create-order/{id}")
-    public ResponseEntity<ApiResponse> createOrder(@AuthenticationPrincipal User user,
+    public ResponseEntity<ApiResponse> createOrder(@AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable String id,
-            @RequestBody OrderRequest request) {
-        Order order = orderService.createOrder(
-                user.getEmail(),
-                id,
-                request.getPayment_status(),
-                request.getPayment_mode(),
-                request.getAddress(),
-                request.getQuantity(),
-                null, null, null);
-        return ResponseEntity.ok(ApiResponse.success("Order created successfully", order));
+            @RequestBody OrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        // The product id is part of what the key stands for, not only the body
+        return idempotencyService.execute("create-order", user.getId(), idempotencyKey, List.of(id, request), () -> {
+            Order order = orderService.createOrder(
+                    user.getEmail(),
+                    id,
+                    request.getPayment_status(),
+                    request.getPayment_mode(),
+                    request.getAddress(),
+                    request.getQuantity(),
+                    null, null, null);
+            return ResponseEntity.ok(ApiResponse.success("Order created successfully", order));
+        });
     }
 
     @PostMapping("/create-order/cart")
-    public ResponseEntity<ApiResponse> createOrderFromCart(@AuthenticationPrincipal User user,
-            @RequestBody OrderRequest request) {
-        Order order = orderService.createOrderFromCart(
-                user.getEmail(),
-                request.getPayment_status(),
-                request.getPayment_mode(),
-                request.getAddress(),
-                null, null, null);
-        return ResponseEntity.ok(ApiResponse.success("Order created from cart successfully", order));
+    public ResponseEntity<ApiResponse> createOrderFromCart(@AuthenticationPrincipal AuthenticatedUser user,
+            @RequestBody OrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("create-order-cart", user.getId(), idempotencyKey, request, () -> {
+            Order order = orderService.createOrderFromCart(
+                    user.getEmail(),
+                    request.getPayment_status(),
+                    request.getPayment_mode(),
+                    request.getAddress(),
+                    null, null, null);
+            return ResponseEntity.ok(ApiResponse.success("Order created from cart successfully", order));
+        });
     }
 
     @PostMapping("/add-address")
-    public ResponseEntity<ApiResponse> addAddress(@AuthenticationPrincipal User user,
+    public ResponseEntity<ApiResponse> addAddress(@AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody AddressRequest request) {
         Address address = addressService.addAddress(
                 user.getEmail(),
@@ -101,7 +124,7 @@ public class UserController {
     }
 
     @PutMapping("/update-profile")
-    public ResponseEntity<ApiResponse> updateProfile(@AuthenticationPrincipal User user,
+    public ResponseEntity<ApiResponse> updateProfile(@AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody ProfileUpdateRequest request) {
         Map<String, Object> updated = userService.updateProfile(
                 user.getEmail(),
@@ -112,11 +135,9 @@ public class UserController {
     }
 
     @PostMapping("/upload-profile-image")
-    public ResponseEntity<ApiResponse> uploadProfileImage(@AuthenticationPrincipal User user,
+    public ResponseEntity<ApiResponse> uploadProfileImage(@AuthenticationPrincipal AuthenticatedUser user,
             @RequestParam("image") MultipartFile image) throws IOException {
-        String imageUrl = cloudinaryService.uploadImage(image, "profiles");
-        Map<String, Object> updated = userService.updateProfile(
-                user.getEmail(), null, null, imageUrl);
-        return ResponseEntity.ok(ApiResponse.success("Profile image uploaded", updated));
+        Map<String, Object> updated = userService.uploadProfileImage(user.getEmail(), image);
+        return ResponseEntity.accepted().body(ApiResponse.success("Profile image upload queued", updated));
     }
 }
@@ -0,0 +1,32 @@
+package com.shophub.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogDeltaResponse {
+
+    // Client must discard its local copy before applying this page
+    @JsonProperty("full_resync")
+    private boolean fullResync;
+
+    @JsonProperty("products")
+    private List<ProductResponse> products;
+
+    @JsonProperty("deleted_ids")
+    private List<String> deletedIds;
+
+    @JsonProperty("next_since")
+    private String nextSince;
+
+    @JsonProperty("has_more")
+    private boolean hasMore;
+}
@@ -0,0 +1,33 @@
+package com.shophub.ecommerce.dto;
+
+import com.shophub.ecommerce.exception.ApiException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque position in the catalog change feed: the last (updatedAt, id) the client has seen and
+ * the time from which it still needs delete tombstones. Encoded as URL-safe base64.
+ */
+public record CatalogSyncToken(Instant updatedAt, String id, Instant deletedSince) {
+
+    public String encode() {
+        String raw = updatedAt.toEpochMilli() + ":" + deletedSince.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CatalogSyncToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 3);
+            return new CatalogSyncToken(Instant.ofEpochMilli(Long.parseLong(parts[0])), parts[2],
+                    Instant.ofEpochMilli(Long.parseLong(parts[1])));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.shophub.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCount {
+
+    @JsonProperty("value")
+    private String value;
+
+    @JsonProperty("count")
+    private int count;
+}
@@ -0,0 +1,33 @@
+package com.shophub.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterResponse {
+
+    @JsonProperty("items")
+    private List<ProductSummaryResponse> items;
+
+    @JsonProperty("total")
+    private int total;
+
+    @JsonProperty("page")
+    private int page;
+
+    @JsonProperty("size")
+    private int size;
+
+    // Dimension name (category, status, price) -> counts under every other active filter
+    @JsonProperty("facets")
+    private Map<String, List<FacetCount>> facets;
+}
@@ -0,0 +1,47 @@
+package com.shophub.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportReport {
+
+    @JsonProperty("rows_read")
+    private long rowsRead;
+
+    @JsonProperty("imported")
+    private long imported;
+
+    @JsonProperty("failed")
+    private long failed;
+
+    // Capped; "failed" has the full count
+    @JsonProperty("errors")
+    private List<RowError> errors;
+
+    @JsonProperty("duration_ms")
+    private long durationMs;
+
+    @JsonProperty("rows_per_second")
+    private double rowsPerSecond;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        @JsonProperty("row")
+        private long row;
+
+        @JsonProperty("message")
+        private String message;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.shophub.ecommerce.enums.ImageStatus;
 import com.shophub.ecommerce.enums.ProductStatus;
 
 import java.time.Instant;
@@ -30,6 +31,10 @@ public class ProductResponse {
     @JsonProperty("image")
     private String image;
 
+    @JsonProperty("image_status")
+    private ImageStatus imageStatus;
+
+    // Only the status: these responses are cached and snapshotted, and only status flips refresh them
     @JsonProperty("status")
     @Builder.Default
     private ProductStatus status = ProductStatus.IN_STOCK;
@@ -0,0 +1,41 @@
+package com.shophub.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.shophub.ecommerce.enums.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Listing projection of a product, without the description.
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryResponse {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("product_name")
+    private String productName;
+
+    @JsonProperty("price")
+    private double price;
+
+    @JsonProperty("image")
+    private String image;
+
+    @JsonProperty("status")
+    private ProductStatus status;
+
+    @JsonProperty("category")
+    private String category;
+
+    @JsonProperty("create_at")
+    private Instant createdAt;
+}
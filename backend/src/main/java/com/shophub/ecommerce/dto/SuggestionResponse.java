@@ -0,0 +1,21 @@
+package com.shophub.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+
+    @JsonProperty("text")
+    private String text;
+
+    // PRODUCT or CATEGORY
+    @JsonProperty("type")
+    private String type;
+}
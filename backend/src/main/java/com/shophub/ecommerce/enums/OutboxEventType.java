@@ -0,0 +1,5 @@
+package com.shophub.ecommerce.enums;
+
+public enum OutboxEventType {
+    ORDER_CREATED
+}
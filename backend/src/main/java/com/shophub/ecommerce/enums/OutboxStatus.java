@@ -0,0 +1,7 @@
+package com.shophub.ecommerce.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    DISPATCHED,
+    FAILED
+}
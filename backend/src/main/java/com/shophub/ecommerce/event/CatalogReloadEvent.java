@@ -0,0 +1,17 @@
+package com.shophub.ecommerce.event;
+
+/**
+ * Published after a bulk catalog change (such as an import) in place of one
+ * {@link ProductChangeEvent} per product; in-memory catalog structures rebuild from Mongo.
+ * {@code replicated} is set when the change was made on another node.
+ */
+public record CatalogReloadEvent(boolean replicated) {
+
+    public static CatalogReloadEvent local() {
+        return new CatalogReloadEvent(false);
+    }
+
+    public static CatalogReloadEvent replicatedFromPeer() {
+        return new CatalogReloadEvent(true);
+    }
+}
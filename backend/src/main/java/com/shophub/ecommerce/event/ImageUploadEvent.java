@@ -0,0 +1,16 @@
+package com.shophub.ecommerce.event;
+
+import com.shophub.ecommerce.enums.ImageStatus;
+
+/**
+ * Published when a background image upload finishes. {@code url} is null unless the status is
+ * {@link ImageStatus#READY}. For {@link Target#USER_PROFILE} the owner is the user's email. The
+ * result applies only while the owner is still waiting on {@code uploadToken}.
+ */
+public record ImageUploadEvent(Target target, String ownerId, String uploadToken, String url, ImageStatus status) {
+
+    public enum Target {
+        PRODUCT,
+        USER_PROFILE
+    }
+}
@@ -0,0 +1,28 @@
+package com.shophub.ecommerce.event;
+
+import com.shophub.ecommerce.model.Product;
+
+/**
+ * Published after a product is created, updated or deleted so in-memory catalog structures can
+ * update incrementally. {@code replicated} is set when the change was made on another node and
+ * is being replayed locally.
+ */
+public record ProductChangeEvent(Type type, Product product, boolean replicated) {
+
+    public enum Type {
+        SAVED,
+        DELETED
+    }
+
+    public static ProductChangeEvent saved(Product product) {
+        return new ProductChangeEvent(Type.SAVED, product, false);
+    }
+
+    public static ProductChangeEvent deleted(Product product) {
+        return new ProductChangeEvent(Type.DELETED, product, false);
+    }
+
+    public static ProductChangeEvent replicated(Type type, Product product) {
+        return new ProductChangeEvent(type, product, true);
+    }
+}
@@ -0,0 +1,10 @@
+package com.shophub.ecommerce.event;
+
+import com.shophub.ecommerce.model.Product;
+
+/**
+ * Published when a stock change moves a product between IN_STOCK and OUT_OF_STOCK. Changes that
+ * leave the status alone are not published, so a busy product does not churn the catalog caches.
+ */
+public record StockStatusEvent(Product product) {
+}
@@ -0,0 +1,125 @@
+package com.shophub.ecommerce.mapper;
+
+import com.shophub.ecommerce.model.Address;
+import com.shophub.ecommerce.model.Order;
+import com.shophub.ecommerce.model.OrderItem;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.AddressRepository;
+import com.shophub.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Builds the order view used by the storefront, resolving products and addresses in batch.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderDetailsMapper {
+
+    private final ProductRepository productRepository;
+    private final AddressRepository addressRepository;
+
+    public List<Map<String, Object>> toOrderDetails(List<Order> orders) {
+        Set<String> productIds = new HashSet<>();
+        Set<String> addressIds = new HashSet<>();
+        collectReferences(orders, productIds, addressIds);
+        return toOrderDetails(orders,
+                indexById(productRepository.findAllById(productIds), Product::getId),
+                indexById(addressRepository.findAllById(addressIds), Address::getId));
+    }
+
+    /**
+     * Adds the product and address IDs the given orders point at, so callers can fold them into
+     * their own batch lookups.
+     */
+    public static void collectReferences(List<Order> orders, Set<String> productIds, Set<String> addressIds) {
+        for (Order order : orders) {
+            if (order.getAddress() != null) {
+                addressIds.add(order.getAddress());
+            }
+            if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
+                order.getOrderItems().forEach(item -> productIds.add(item.getProductId()));
+            } else if (order.getProduct() != null) {
+                productIds.add(order.getProduct());
+            }
+        }
+    }
+
+    public List<Map<String, Object>> toOrderDetails(List<Order> orders, Map<String, Product> productsById,
+            Map<String, Address> addressesById) {
+        List<Map<String, Object>> orderDetails = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            Map<String, Object> orderMap = new LinkedHashMap<>();
+            orderMap.put("id", order.getId());
+            orderMap.put("payment_status", order.getPaymentStatus());
+            orderMap.put("payment_mode", order.getPaymentMode());
+            orderMap.put("backordered", order.isBackordered());
+            orderMap.put("quantity", order.getQuantity());
+            orderMap.put("createdAt", order.getCreatedAt());
+
+            // Resolve product details for the order (Support both single and multi-item)
+            List<Map<String, Object>> itemsDetails = new ArrayList<>();
+            if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
+                for (OrderItem item : order.getOrderItems()) {
+                    Product product = productsById.get(item.getProductId());
+                    if (product != null) {
+                        Map<String, Object> prodMap = new HashMap<>();
+                        prodMap.put("product_id", product.getId());
+                        prodMap.put("product_name", product.getProductName());
+                        prodMap.put("product_description", product.getProductDescription());
+                        prodMap.put("price", item.getPrice()); // Use price from order time
+                        prodMap.put("current_price", product.getPrice());
+                        prodMap.put("image", product.getImage());
+                        prodMap.put("status", product.getStatus());
+                        prodMap.put("category", product.getCategory());
+                        prodMap.put("quantity", item.getQuantity());
+                        itemsDetails.add(prodMap);
+                    }
+                }
+            } else if (order.getProduct() != null) {
+                // Fallback for legacy orders
+                Product product = productsById.get(order.getProduct());
+                if (product != null) {
+                    Map<String, Object> prodMap = new HashMap<>();
+                    prodMap.put("product_id", product.getId());
+                    prodMap.put("product_name", product.getProductName());
+                    prodMap.put("product_description", product.getProductDescription());
+                    prodMap.put("price", product.getPrice());
+                    prodMap.put("image", product.getImage());
+                    prodMap.put("status", product.getStatus());
+                    prodMap.put("category", product.getCategory());
+                    prodMap.put("quantity", order.getQuantity());
+                    itemsDetails.add(prodMap);
+                }
+            }
+
+            // For backward compatibility for frontend that expects flat product structure
+            if (!itemsDetails.isEmpty()) {
+                Map<String, Object> firstItem = itemsDetails.get(0);
+                orderMap.putAll(firstItem); // Flatten first item details into orderMap
+                orderMap.put("items", itemsDetails); // Also provide full list
+            }
+
+            // Resolve address details for the order
+            if (order.getAddress() != null) {
+                Address addr = addressesById.get(order.getAddress());
+                if (addr != null) {
+                    orderMap.put("address_name", addr.getName());
+                    orderMap.put("address_city", addr.getCity());
+                }
+            }
+
+            orderDetails.add(orderMap);
+        }
+        return orderDetails;
+    }
+
+    public static <T> Map<String, T> indexById(Iterable<T> items, Function<T, String> idGetter) {
+        Map<String, T> byId = new HashMap<>();
+        items.forEach(item -> byId.put(idGetter.apply(item), item));
+        return byId;
+    }
+}
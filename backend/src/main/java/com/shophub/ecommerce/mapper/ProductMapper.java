@@ -1,6 +1,7 @@
 package com.shophub.ecommerce.mapper;
 
 import com.shophub.ecommerce.dto.ProductResponse;
+import com.shophub.ecommerce.dto.ProductSummaryResponse;
 import com.shophub.ecommerce.model.Product;
 import org.springframework.stereotype.Component;
 
@@ -14,9 +15,22 @@ public class ProductMapper {
                 .status(product.getStatus())
                 .category(product.getCategory())
                 .image(product.getImage())
+                .imageStatus(product.getImageStatus())
+                .price(product.getPrice())
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt())
+                .build();
+    }
+
+    public ProductSummaryResponse toProductSummaryResponse(Product product) {
+        return ProductSummaryResponse.builder()
+                .id(product.getId())
+                .productName(product.getProductName())
+                .status(product.getStatus())
+                .category(product.getCategory())
+                .image(product.getImage())
                 .price(product.getPrice())
                 .createdAt(product.getCreatedAt())
-                .updatedAt(product.getCreatedAt())
                 .build();
     }
 }
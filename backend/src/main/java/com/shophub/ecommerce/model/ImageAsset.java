@@ -0,0 +1,45 @@
+package com.shophub.ecommerce.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * An image already in the image store, keyed by the SHA-256 of its content so an identical
+ * upload can reuse the stored URL.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "image_assets")
+public class ImageAsset {
+
+    // Lowercase hex SHA-256 of the file content
+    @Id
+    private String hash;
+
+    @Indexed(name = "url_idx")
+    private String url;
+
+    @Field("public_id")
+    private String publicId;
+
+    private String folder;
+
+    private long size;
+
+    @Field("created_at")
+    private Instant createdAt;
+
+    // Stamped on every reuse; the garbage collector keeps assets used since its cutoff
+    @Field("last_used_at")
+    private Instant lastUsedAt;
+}
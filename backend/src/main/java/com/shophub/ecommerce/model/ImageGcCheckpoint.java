@@ -0,0 +1,43 @@
+package com.shophub.ecommerce.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * Progress of the orphaned-image sweep. While a run is in progress {@code folder} and
+ * {@code cursor} say where to resume; both are null once it completes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "image_gc_checkpoints")
+public class ImageGcCheckpoint {
+
+    @Id
+    private String id;
+
+    private String folder;
+
+    private String cursor;
+
+    @Field("run_started_at")
+    private Instant runStartedAt;
+
+    private long scanned;
+
+    private long deleted;
+
+    @Field("updated_at")
+    private Instant updatedAt;
+
+    @Field("last_completed_at")
+    private Instant lastCompletedAt;
+}
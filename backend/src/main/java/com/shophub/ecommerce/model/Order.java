@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -21,6 +22,7 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "orders")
+@CompoundIndex(name = "user_created_at_idx", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
 public class Order implements Serializable {
 
     @Id
@@ -63,6 +65,10 @@ public class Order implements Serializable {
     @Field("order_items")
     private List<OrderItem> orderItems;
 
+    // Paid for after its stock hold expired and the stock sold out: restock it or refund it
+    @Field("backordered")
+    private boolean backordered;
+
     @Field("razorpay_order_id")
     private String razorpayOrderId;
 
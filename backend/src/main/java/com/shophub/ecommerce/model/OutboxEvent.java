@@ -0,0 +1,68 @@
+package com.shophub.ecommerce.model;
+
+import com.shophub.ecommerce.enums.OutboxEventType;
+import com.shophub.ecommerce.enums.OutboxStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A side effect of a write, stored with the write and delivered later by the outbox dispatcher.
+ * {@code completed_handlers} records which handlers already ran, so a redelivery only repeats the
+ * ones that failed. Dispatched events are removed by Mongo after a week.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "outbox_events")
+@CompoundIndex(name = "status_next_attempt_idx", def = "{'status': 1, 'next_attempt_at': 1}")
+public class OutboxEvent {
+
+    @Id
+    private String id;
+
+    private OutboxEventType type;
+
+    @Field("aggregate_id")
+    private String aggregateId;
+
+    private String email;
+
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Field("next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Field("claimed_by")
+    private String claimedBy;
+
+    @Field("claimed_until")
+    private Instant claimedUntil;
+
+    @Builder.Default
+    @Field("completed_handlers")
+    private List<String> completedHandlers = new ArrayList<>();
+
+    @Field("last_error")
+    private String lastError;
+
+    @Field("created_at")
+    private Instant createdAt;
+
+    @Field("dispatched_at")
+    @Indexed(name = "dispatched_at_ttl_idx", expireAfter = "7d")
+    private Instant dispatchedAt;
+}
@@ -1,5 +1,6 @@
 package com.shophub.ecommerce.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,9 +9,11 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
+import com.shophub.ecommerce.enums.ImageStatus;
 import com.shophub.ecommerce.enums.ProductStatus;
 
 import java.io.Serializable;
@@ -21,6 +24,8 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "products")
+@CompoundIndex(name = "created_at_id_idx", def = "{'createdAt': -1, '_id': -1}")
+@CompoundIndex(name = "updated_at_id_idx", def = "{'updatedAt': 1, '_id': 1}")
 public class Product implements Serializable {
 
     @Id
@@ -38,6 +43,23 @@ public class Product implements Serializable {
 
     private String image;
 
+    // Null for products created before background uploads, which always have their image
+    @Field("image_status")
+    @JsonProperty("image_status")
+    private ImageStatus imageStatus;
+
+    // Identifies the upload the PENDING status waits for; only that upload's result is applied
+    @Field("image_upload_token")
+    @JsonIgnore
+    private String imageUploadToken;
+
+    @Field("image_upload_started_at")
+    @JsonIgnore
+    private Instant imageUploadStartedAt;
+
+    // Units available; null when the product does not track stock and the status is set by hand
+    private Integer stock;
+
     @Builder.Default
     private ProductStatus status = ProductStatus.IN_STOCK;
 
@@ -0,0 +1,34 @@
+package com.shophub.ecommerce.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Records a deleted product so delta-sync clients learn about the delete. Mongo removes
+ * tombstones once they are older than {@link #RETENTION}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "product_tombstones")
+public class ProductTombstone {
+
+    public static final Duration RETENTION = Duration.ofDays(30);
+
+    @Id
+    private String productId;
+
+    @Field("deleted_at")
+    @Indexed(name = "deleted_at_ttl_idx", expireAfter = "30d")
+    private Instant deletedAt;
+}
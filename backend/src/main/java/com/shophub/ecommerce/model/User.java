@@ -1,5 +1,7 @@
 package com.shophub.ecommerce.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.shophub.ecommerce.enums.ImageStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -39,6 +41,18 @@ public class User implements Serializable {
     @Builder.Default
     private String profileImage = "";
 
+    @Field("profile_image_status")
+    private ImageStatus profileImageStatus;
+
+    // Identifies the upload the PENDING status waits for; only that upload's result is applied
+    @Field("profile_image_upload_token")
+    @JsonIgnore
+    private String profileImageUploadToken;
+
+    @Field("profile_image_upload_started_at")
+    @JsonIgnore
+    private Instant profileImageUploadStartedAt;
+
     @Builder.Default
     private List<String> roles = new ArrayList<>(List.of("USER"));
 
@@ -0,0 +1,12 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.model.ImageAsset;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ImageAssetRepository extends MongoRepository<ImageAsset, String> {
+
+    List<ImageAsset> findByUrlIn(Collection<String> urls);
+}
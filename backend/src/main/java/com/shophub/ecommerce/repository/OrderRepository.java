@@ -4,6 +4,6 @@ import com.shophub.ecommerce.model.Order;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 
-public interface OrderRepository extends MongoRepository<Order, String> {
+public interface OrderRepository extends MongoRepository<Order, String>, OrderRepositoryCustom {
     List<Order> findByUserId(String userId);
 }
@@ -0,0 +1,21 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.model.Order;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Returns up to {@code limit} of the user's orders, newest first, starting strictly after the
+     * given (createdAt, id) position.
+     */
+    List<Order> findHistoryPage(String userId, Instant afterCreatedAt, String afterId, int limit);
+
+    /**
+     * Total units ordered per product ID, across itemized and legacy single-product orders.
+     */
+    Map<String, Long> countUnitsOrderedByProduct();
+}
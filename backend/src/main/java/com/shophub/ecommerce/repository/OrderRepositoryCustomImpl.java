@@ -0,0 +1,63 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.model.Order;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Order> findHistoryPage(String userId, Instant afterCreatedAt, String afterId, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (afterCreatedAt != null && afterId != null) {
+            criteria.orOperator(
+                    Criteria.where("createdAt").lt(afterCreatedAt),
+                    Criteria.where("createdAt").is(afterCreatedAt).and("id").lt(afterId));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    @Override
+    public Map<String, Long> countUnitsOrderedByProduct() {
+        Map<String, Long> units = new HashMap<>();
+
+        Aggregation itemized = Aggregation.newAggregation(
+                Aggregation.unwind("orderItems"),
+                Aggregation.group("orderItems.productId").sum("orderItems.quantity").as("units"));
+        accumulate(mongoTemplate.aggregate(itemized, Order.class, Document.class), units);
+
+        Aggregation legacy = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("product").ne(null).and("orderItems").exists(false)),
+                Aggregation.group("product").sum("quantity").as("units"));
+        accumulate(mongoTemplate.aggregate(legacy, Order.class, Document.class), units);
+
+        return units;
+    }
+
+    private static void accumulate(AggregationResults<Document> results, Map<String, Long> units) {
+        for (Document row : results) {
+            Object productId = row.get("_id");
+            Number count = row.get("units", Number.class);
+            if (productId != null && count != null) {
+                units.merge(productId.toString(), count.longValue(), Long::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.enums.OutboxStatus;
+import com.shophub.ecommerce.model.OutboxEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Optional;
+
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String> {
+
+    long countByStatus(OutboxStatus status);
+
+    Optional<OutboxEvent> findFirstByStatusOrderByCreatedAtAsc(OutboxStatus status);
+}
@@ -0,0 +1,89 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.enums.ImageStatus;
+import com.shophub.ecommerce.model.Product;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Returns up to {@code limit} products ordered by (createdAt desc, _id desc), starting strictly
+     * after the given position. The description field is not loaded.
+     */
+    List<Product> findListingPage(Instant afterCreatedAt, String afterId, int limit);
+
+    /**
+     * Returns every product, descriptions included, in listing order. Reads the same keyset pages
+     * as {@link #findListingPage}, {@code batchSize} documents at a time.
+     */
+    List<Product> findAllInListingOrder(int batchSize);
+
+    /**
+     * Sets createdAt from the {@code _id} timestamp on products saved before it was recorded, so
+     * they take their place in the listing order. Returns how many were updated.
+     */
+    long backfillCreatedAt();
+
+    /**
+     * Stamps updatedAt with the current time on products saved before it was recorded, so the
+     * change feed reports each of them once more as an upsert. Returns how many were updated.
+     */
+    long backfillUpdatedAt();
+
+    /**
+     * Returns up to {@code limit} products updated no later than {@code upTo}, ordered by
+     * (updatedAt asc, _id asc), starting strictly after the given position, or from the beginning
+     * when it is null.
+     */
+    List<Product> findChangedSince(Instant afterUpdatedAt, String afterId, Instant upTo, int limit);
+
+    /**
+     * Applies the result of the upload identified by {@code uploadToken}: sets the image status,
+     * and the image URL when {@code url} is not null. Returns the updated product, or null if it no
+     * longer exists or is no longer waiting for that upload.
+     */
+    Product setImage(String id, String uploadToken, String url, ImageStatus status);
+
+    /**
+     * Returns the id and upload token of products whose image upload has been pending since
+     * before {@code startedBefore}.
+     */
+    List<Product> findStaleImageUploads(Instant startedBefore);
+
+    /**
+     * Sets the given fields (Mongo field names) and leaves the rest of the document alone. Returns
+     * the updated product, or null if it does not exist.
+     */
+    Product updateFields(String id, Map<String, Object> fields);
+
+    /**
+     * Atomically adds {@code delta} to the product's stock and sets its status to match the new
+     * count. With {@code requireAvailable} a decrement only applies if enough stock is left.
+     * Products that do not track stock are never matched. Returns the updated product, or null if
+     * nothing was changed.
+     */
+    Product adjustStock(String id, int delta, boolean requireAvailable);
+
+    /**
+     * Sets the stock count, or stops tracking it when {@code stock} is null. A tracked count also
+     * sets the status. Returns the updated product, or null if it no longer exists.
+     */
+    Product setStock(String id, Integer stock);
+
+    /**
+     * The listing sort key of a product: its createdAt, or the {@code _id} timestamp for a legacy
+     * product that has not been backfilled yet.
+     */
+    static Instant createdAtOf(Product product) {
+        if (product.getCreatedAt() != null) {
+            return product.getCreatedAt();
+        }
+        return ObjectId.isValid(product.getId())
+                ? new ObjectId(product.getId()).getDate().toInstant()
+                : Instant.EPOCH;
+    }
+}
@@ -0,0 +1,162 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.enums.ImageStatus;
+import com.shophub.ecommerce.enums.ProductStatus;
+import com.shophub.ecommerce.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String STOCK = "stock";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Product> findListingPage(Instant afterCreatedAt, String afterId, int limit) {
+        Query query = listingQuery(afterCreatedAt, afterId, limit);
+        query.fields().exclude("product_description");
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public List<Product> findAllInListingOrder(int batchSize) {
+        List<Product> all = new ArrayList<>();
+        List<Product> page = mongoTemplate.find(listingQuery(null, null, batchSize), Product.class);
+        all.addAll(page);
+        while (page.size() == batchSize) {
+            Product last = page.get(page.size() - 1);
+            page = mongoTemplate.find(
+                    listingQuery(ProductRepositoryCustom.createdAtOf(last), last.getId(), batchSize), Product.class);
+            all.addAll(page);
+        }
+        return all;
+    }
+
+    @Override
+    public long backfillCreatedAt() {
+        Query missing = Query.query(Criteria.where("createdAt").is(null));
+        missing.fields().include("id");
+        List<Product> legacy = mongoTemplate.find(missing, Product.class);
+        if (legacy.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (Product product : legacy) {
+            bulk.updateOne(Query.query(Criteria.where("id").is(product.getId()).and("createdAt").is(null)),
+                    new Update().set("createdAt", ProductRepositoryCustom.createdAtOf(product)));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public long backfillUpdatedAt() {
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("updatedAt").is(null)),
+                new Update().set("updatedAt", Instant.now()), Product.class).getModifiedCount();
+    }
+
+    private static Query listingQuery(Instant afterCreatedAt, String afterId, int limit) {
+        Query query = new Query();
+        if (afterCreatedAt != null && afterId != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(afterCreatedAt),
+                    Criteria.where("createdAt").is(afterCreatedAt).and("id").lt(afterId)));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        query.limit(limit);
+        return query;
+    }
+
+    @Override
+    public List<Product> findChangedSince(Instant afterUpdatedAt, String afterId, Instant upTo, int limit) {
+        Query query = Query.query(Criteria.where("updatedAt").lte(upTo));
+        if (afterUpdatedAt != null && afterId != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("updatedAt").gt(afterUpdatedAt),
+                    Criteria.where("updatedAt").is(afterUpdatedAt).and("id").gt(afterId)));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "updatedAt", "id"));
+        query.limit(limit);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public Product setImage(String id, String uploadToken, String url, ImageStatus status) {
+        Update update = new Update()
+                .set("image_status", status)
+                .unset("image_upload_token")
+                .unset("image_upload_started_at")
+                .currentDate("updatedAt");
+        if (url != null) {
+            update.set("image", url);
+        }
+        Query query = Query.query(Criteria.where("id").is(id)
+                .and("image_status").is(ImageStatus.PENDING)
+                .and("image_upload_token").is(uploadToken));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                Product.class);
+    }
+
+    @Override
+    public List<Product> findStaleImageUploads(Instant startedBefore) {
+        // Also matches PENDING records from before upload tokens, which have no start time
+        Query query = Query.query(Criteria.where("image_status").is(ImageStatus.PENDING)
+                .and("image_upload_started_at").not().gte(startedBefore));
+        query.fields().include("id", "image_upload_token");
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public Product updateFields(String id, Map<String, Object> fields) {
+        Update update = new Update().currentDate("updatedAt");
+        fields.forEach(update::set);
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(id)), update,
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    @Override
+    public Product adjustStock(String id, int delta, boolean requireAvailable) {
+        Criteria criteria = Criteria.where("id").is(id);
+        criteria = requireAvailable && delta < 0 ? criteria.and(STOCK).gte(-delta) : criteria.and(STOCK).ne(null);
+        // A pipeline update so the status is derived from the new count in the same write
+        Document newStock = new Document("$add", List.of("$" + STOCK, delta));
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$set", new Document()
+                .append(STOCK, newStock)
+                .append("status", statusFor(newStock))
+                .append("updatedAt", "$$NOW"))));
+        return mongoTemplate.findAndModify(Query.query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    @Override
+    public Product setStock(String id, Integer stock) {
+        Update update = new Update().currentDate("updatedAt");
+        if (stock == null) {
+            update.unset(STOCK);
+        } else {
+            update.set(STOCK, stock)
+                    .set("status", stock > 0 ? ProductStatus.IN_STOCK : ProductStatus.OUT_OF_STOCK);
+        }
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(id)), update,
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    private static Document statusFor(Document stock) {
+        return new Document("$cond", List.of(new Document("$gt", List.of(stock, 0)),
+                ProductStatus.IN_STOCK.name(), ProductStatus.OUT_OF_STOCK.name()));
+    }
+}
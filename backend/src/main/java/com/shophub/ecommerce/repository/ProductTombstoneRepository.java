@@ -0,0 +1,12 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.model.ProductTombstone;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ProductTombstoneRepository extends MongoRepository<ProductTombstone, String> {
+
+    List<ProductTombstone> findByDeletedAtGreaterThanEqual(Instant since);
+}
@@ -2,9 +2,17 @@ package com.shophub.ecommerce.repository;
 
 import com.shophub.ecommerce.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
 import java.util.Optional;
 
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'email': 1, 'first_name': 1, 'last_name': 1, 'roles': 1 }")
+    Optional<User> findPrincipalByEmail(String email);
+
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'cart_items': 1 }")
+    Optional<User> findCartByEmail(String email);
 }
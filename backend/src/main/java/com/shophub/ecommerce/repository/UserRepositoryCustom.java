@@ -0,0 +1,70 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.enums.ImageStatus;
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.User;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single-command updates on the user document. Each cart method returns the user with only
+ * {@code cart_items} populated, or empty if nothing matched.
+ */
+public interface UserRepositoryCustom {
+
+    Optional<User> pushCartItemIfAbsent(String email, CartItem item);
+
+    Optional<User> setCartItemQuantity(String email, String productId, int quantity);
+
+    Optional<User> pullCartItems(String email, Collection<String> productIds);
+
+    /**
+     * Overwrites {@code cart_items} for each email with one unordered bulk write.
+     */
+    void replaceCarts(Map<String, List<CartItem>> cartsByEmail);
+
+    /**
+     * Appends the order, records the purchased products and removes them from the cart.
+     */
+    boolean recordOrder(String email, String orderId, Collection<String> productIds);
+
+    /**
+     * Sets the session token, or clears it when {@code jwtToken} is null.
+     */
+    boolean setJwtToken(String email, String jwtToken);
+
+    boolean pushAddress(String email, String addressId);
+
+    /**
+     * Sets the given profile fields, skipping null ones, and returns the updated user.
+     */
+    Optional<User> setProfileFields(String email, String firstName, String lastName, String profileImage);
+
+    /**
+     * Sets the profile image only if the user has none yet.
+     */
+    boolean setProfileImageIfMissing(String email, String url);
+
+    /**
+     * Marks the profile image PENDING on the upload identified by {@code uploadToken}, replacing
+     * any upload still in progress.
+     */
+    boolean startProfileImageUpload(String email, String uploadToken);
+
+    /**
+     * Applies the result of the upload identified by {@code uploadToken}: sets the profile image
+     * status, and the image URL when {@code url} is not null. Returns false if the user no longer
+     * exists or is no longer waiting for that upload.
+     */
+    boolean setProfileImage(String email, String uploadToken, String url, ImageStatus status);
+
+    /**
+     * Returns the email and upload token of users whose profile image upload has been pending
+     * since before {@code startedBefore}.
+     */
+    List<User> findStaleProfileImageUploads(Instant startedBefore);
+}
@@ -0,0 +1,147 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.enums.ImageStatus;
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.User;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String CART_ITEMS = "cart_items";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<User> pushCartItemIfAbsent(String email, CartItem item) {
+        Query query = Query.query(Criteria.where("email").is(email)
+                .and(CART_ITEMS + ".productId").ne(item.getProductId()));
+        return modifyCart(query, new Update().push(CART_ITEMS, item));
+    }
+
+    @Override
+    public Optional<User> setCartItemQuantity(String email, String productId, int quantity) {
+        Query query = Query.query(Criteria.where("email").is(email)
+                .and(CART_ITEMS + ".productId").is(productId));
+        return modifyCart(query, new Update().set(CART_ITEMS + ".$.quantity", quantity));
+    }
+
+    @Override
+    public Optional<User> pullCartItems(String email, Collection<String> productIds) {
+        Query query = Query.query(Criteria.where("email").is(email));
+        Update update = new Update().pull(CART_ITEMS, new Document("productId", new Document("$in", productIds)));
+        return modifyCart(query, update);
+    }
+
+    @Override
+    public void replaceCarts(Map<String, List<CartItem>> cartsByEmail) {
+        if (cartsByEmail.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        cartsByEmail.forEach((email, items) -> bulk.updateOne(
+                Query.query(Criteria.where("email").is(email)),
+                new Update().set(CART_ITEMS, items)));
+        bulk.execute();
+    }
+
+    @Override
+    public boolean recordOrder(String email, String orderId, Collection<String> productIds) {
+        Update update = new Update()
+                .push("orders", orderId)
+                .addToSet("buying_products").each(productIds.toArray())
+                .pull(CART_ITEMS, new Document("productId", new Document("$in", productIds)));
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("email").is(email)), update, User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean setJwtToken(String email, String jwtToken) {
+        Update update = jwtToken != null ? new Update().set("jwtToken", jwtToken) : new Update().unset("jwtToken");
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("email").is(email)), update, User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean pushAddress(String email, String addressId) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("email").is(email)),
+                new Update().push("address", addressId), User.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Optional<User> setProfileFields(String email, String firstName, String lastName, String profileImage) {
+        Update update = new Update().currentDate("updatedAt");
+        if (firstName != null) {
+            update.set("first_name", firstName);
+        }
+        if (lastName != null) {
+            update.set("last_name", lastName);
+        }
+        if (profileImage != null) {
+            update.set("profile_image", profileImage);
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(Query.query(Criteria.where("email").is(email)),
+                update, FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+
+    @Override
+    public boolean setProfileImageIfMissing(String email, String url) {
+        Query query = Query.query(Criteria.where("email").is(email)
+                .orOperator(Criteria.where("profile_image").is(null), Criteria.where("profile_image").is("")));
+        return mongoTemplate.updateFirst(query, new Update().set("profile_image", url), User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean startProfileImageUpload(String email, String uploadToken) {
+        Update update = new Update()
+                .set("profile_image_status", ImageStatus.PENDING)
+                .set("profile_image_upload_token", uploadToken)
+                .currentDate("profile_image_upload_started_at");
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("email").is(email)), update, User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean setProfileImage(String email, String uploadToken, String url, ImageStatus status) {
+        Update update = new Update()
+                .set("profile_image_status", status)
+                .unset("profile_image_upload_token")
+                .unset("profile_image_upload_started_at");
+        if (url != null) {
+            update.set("profile_image", url);
+        }
+        Query query = Query.query(Criteria.where("email").is(email)
+                .and("profile_image_status").is(ImageStatus.PENDING)
+                .and("profile_image_upload_token").is(uploadToken));
+        return mongoTemplate.updateFirst(query, update, User.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public List<User> findStaleProfileImageUploads(Instant startedBefore) {
+        // Also matches PENDING records from before upload tokens, which have no start time
+        Query query = Query.query(Criteria.where("profile_image_status").is(ImageStatus.PENDING)
+                .and("profile_image_upload_started_at").not().gte(startedBefore));
+        query.fields().include("email", "profile_image_upload_token");
+        return mongoTemplate.find(query, User.class);
+    }
+
+    private Optional<User> modifyCart(Query query, Update update) {
+        query.fields().include(CART_ITEMS);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+}
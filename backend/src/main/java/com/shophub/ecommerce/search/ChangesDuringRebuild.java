@@ -0,0 +1,36 @@
+package com.shophub.ecommerce.search;
+
+import com.shophub.ecommerce.event.ProductChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Product changes that arrive while an index reloads from the database. The reload reads the
+ * catalog outside the index lock, so a change applied between that read and the swap would be
+ * overwritten; replaying these after the swap brings it back. Guarded by the owning index's
+ * write lock.
+ */
+final class ChangesDuringRebuild {
+
+    private List<ProductChangeEvent> events;
+
+    void start() {
+        events = new ArrayList<>();
+    }
+
+    void record(ProductChangeEvent event) {
+        if (events != null) {
+            events.add(event);
+        }
+    }
+
+    /**
+     * Stops recording and returns what was seen since {@link #start()}, oldest first.
+     */
+    List<ProductChangeEvent> finish() {
+        List<ProductChangeEvent> seen = events == null ? List.of() : events;
+        events = null;
+        return seen;
+    }
+}
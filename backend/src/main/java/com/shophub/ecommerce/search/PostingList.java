@@ -0,0 +1,53 @@
+package com.shophub.ecommerce.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted doc-id postings with parallel weighted term frequencies, stored in primitive arrays.
+ */
+final class PostingList {
+
+    private int[] docIds = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    void put(int docId, int frequency) {
+        int index = Arrays.binarySearch(docIds, 0, size, docId);
+        if (index >= 0) {
+            frequencies[index] = frequency;
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == docIds.length) {
+            docIds = Arrays.copyOf(docIds, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+        System.arraycopy(docIds, insertAt, docIds, insertAt + 1, size - insertAt);
+        System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+        docIds[insertAt] = docId;
+        frequencies[insertAt] = frequency;
+        size++;
+    }
+
+    void remove(int docId) {
+        int index = Arrays.binarySearch(docIds, 0, size, docId);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(docIds, index + 1, docIds, index, size - index - 1);
+        System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int docId(int index) {
+        return docIds[index];
+    }
+
+    int frequency(int index) {
+        return frequencies[index];
+    }
+}
@@ -0,0 +1,355 @@
+package com.shophub.ecommerce.search;
+
+import com.shophub.ecommerce.enums.ProductStatus;
+import com.shophub.ecommerce.event.CatalogReloadEvent;
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory bitmap indexes over category, status and price bucket. Filters are answered by
+ * intersecting bitsets, and each dimension's facet counts are taken under every other active
+ * filter, so selecting a category still shows how many products the other categories have.
+ * Results are paged by walking a presorted doc order and testing membership.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+
+    public static final String CATEGORY_FACET = "category";
+    public static final String STATUS_FACET = "status";
+    public static final String PRICE_FACET = "price";
+
+    // Upper bounds (exclusive) of every bucket but the last, which is open-ended
+    private static final double[] PRICE_BUCKET_BOUNDS = { 500, 1000, 2500, 5000, 10000 };
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docIdsByProductId = new HashMap<>();
+    private final List<Product> products = new ArrayList<>();
+    private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, BitSet> byCategory = new HashMap<>();
+    private final Map<String, String> categoryLabels = new HashMap<>();
+    private final Map<ProductStatus, BitSet> byStatus = new EnumMap<>(ProductStatus.class);
+    private final BitSet[] byPriceBucket = Arrays.stream(new BitSet[PRICE_BUCKET_BOUNDS.length + 1])
+            .map(empty -> new BitSet())
+            .toArray(BitSet[]::new);
+
+    // Doc ids sorted by price and by recency, rebuilt lazily after writes
+    private int[] priceOrder = new int[0];
+    private int[] recencyOrder = new int[0];
+    private boolean ordersDirty;
+    private final ChangesDuringRebuild changesDuringRebuild = new ChangesDuringRebuild();
+
+    public record Result(List<Product> products, int total, Map<String, Map<String, Integer>> facets) {
+    }
+
+    @EventListener({ ApplicationReadyEvent.class, CatalogReloadEvent.class })
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Product> all;
+        try {
+            all = productRepository.findAll();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild.finish();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            docIdsByProductId.clear();
+            products.clear();
+            freeDocIds.clear();
+            live.clear();
+            byCategory.clear();
+            categoryLabels.clear();
+            byStatus.clear();
+            for (BitSet bucket : byPriceBucket) {
+                bucket.clear();
+            }
+            all.forEach(this::indexLocked);
+            changesDuringRebuild.finish().forEach(this::applyLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product facet index built with {} products and {} categories", all.size(), byCategory.size());
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.record(event);
+            applyLocked(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(ProductChangeEvent event) {
+        if (event.type() == ProductChangeEvent.Type.DELETED) {
+            removeLocked(event.product().getId());
+        } else {
+            indexLocked(event.product());
+        }
+    }
+
+    public Result query(ProductFilter filter) {
+        lock.readLock().lock();
+        try {
+            while (ordersDirty) {
+                lock.readLock().unlock();
+                lock.writeLock().lock();
+                try {
+                    if (ordersDirty) {
+                        sortLocked();
+                    }
+                    // Downgrade: take the read lock before giving up the write lock
+                    lock.readLock().lock();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            return queryLocked(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Result queryLocked(ProductFilter filter) {
+        BitSet categoryMask = categoryMask(filter.categories());
+        BitSet statusMask = statusMask(filter.statuses());
+        BitSet priceMask = priceMask(filter.minPrice(), filter.maxPrice());
+
+        BitSet matches = intersect(live, categoryMask, statusMask, priceMask);
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        BitSet withoutCategory = intersect(live, statusMask, priceMask);
+        Map<String, Integer> categoryCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        byCategory.forEach((key, bits) -> {
+            int count = intersectCount(withoutCategory, bits);
+            if (count > 0) {
+                categoryCounts.put(categoryLabels.get(key), count);
+            }
+        });
+        facets.put(CATEGORY_FACET, categoryCounts);
+
+        BitSet withoutStatus = intersect(live, categoryMask, priceMask);
+        Map<String, Integer> statusCounts = new LinkedHashMap<>();
+        for (ProductStatus status : ProductStatus.values()) {
+            BitSet bits = byStatus.get(status);
+            statusCounts.put(status.name(), bits == null ? 0 : intersectCount(withoutStatus, bits));
+        }
+        facets.put(STATUS_FACET, statusCounts);
+
+        BitSet withoutPrice = intersect(live, categoryMask, statusMask);
+        Map<String, Integer> priceCounts = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < byPriceBucket.length; bucket++) {
+            priceCounts.put(bucketLabel(bucket), intersectCount(withoutPrice, byPriceBucket[bucket]));
+        }
+        facets.put(PRICE_FACET, priceCounts);
+
+        int[] order = filter.sort() == ProductFilter.Sort.NEWEST ? recencyOrder : priceOrder;
+        boolean reverse = filter.sort() == ProductFilter.Sort.PRICE_DESC;
+        List<Product> page = new ArrayList<>(filter.limit());
+        int seen = 0;
+        for (int i = 0; i < order.length && page.size() < filter.limit(); i++) {
+            int docId = order[reverse ? order.length - 1 - i : i];
+            if (matches.get(docId) && seen++ >= filter.offset()) {
+                page.add(products.get(docId));
+            }
+        }
+        return new Result(page, matches.cardinality(), facets);
+    }
+
+    private BitSet categoryMask(Set<String> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return null;
+        }
+        BitSet mask = new BitSet();
+        for (String category : categories) {
+            BitSet bits = byCategory.get(categoryKey(category));
+            if (bits != null) {
+                mask.or(bits);
+            }
+        }
+        return mask;
+    }
+
+    private BitSet statusMask(Set<ProductStatus> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return null;
+        }
+        BitSet mask = new BitSet();
+        for (ProductStatus status : statuses) {
+            BitSet bits = byStatus.get(status);
+            if (bits != null) {
+                mask.or(bits);
+            }
+        }
+        return mask;
+    }
+
+    private BitSet priceMask(Double minPrice, Double maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return null;
+        }
+        double min = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+        double max = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+        BitSet mask = new BitSet();
+        for (int bucket = 0; bucket < byPriceBucket.length; bucket++) {
+            double low = bucket == 0 ? Double.NEGATIVE_INFINITY : PRICE_BUCKET_BOUNDS[bucket - 1];
+            double high = bucket == PRICE_BUCKET_BOUNDS.length ? Double.POSITIVE_INFINITY : PRICE_BUCKET_BOUNDS[bucket];
+            if (low >= min && high <= max) {
+                mask.or(byPriceBucket[bucket]);
+            } else if (low <= max && high > min) {
+                // Bucket straddles a bound: check the exact price of its members
+                BitSet bits = byPriceBucket[bucket];
+                for (int docId = bits.nextSetBit(0); docId >= 0; docId = bits.nextSetBit(docId + 1)) {
+                    double price = products.get(docId).getPrice();
+                    if (price >= min && price <= max) {
+                        mask.set(docId);
+                    }
+                }
+            }
+        }
+        return mask;
+    }
+
+    private void indexLocked(Product product) {
+        Integer existing = docIdsByProductId.get(product.getId());
+        int docId;
+        if (existing != null) {
+            docId = existing;
+            unindexLocked(docId);
+            products.set(docId, product);
+        } else if (!freeDocIds.isEmpty()) {
+            docId = freeDocIds.pop();
+            products.set(docId, product);
+        } else {
+            docId = products.size();
+            products.add(product);
+        }
+        docIdsByProductId.put(product.getId(), docId);
+
+        live.set(docId);
+        if (product.getCategory() != null && !product.getCategory().isBlank()) {
+            String key = categoryKey(product.getCategory());
+            byCategory.computeIfAbsent(key, k -> new BitSet()).set(docId);
+            categoryLabels.put(key, product.getCategory().trim());
+        }
+        if (product.getStatus() != null) {
+            byStatus.computeIfAbsent(product.getStatus(), s -> new BitSet()).set(docId);
+        }
+        byPriceBucket[bucketOf(product.getPrice())].set(docId);
+        ordersDirty = true;
+    }
+
+    private void removeLocked(String productId) {
+        Integer docId = docIdsByProductId.remove(productId);
+        if (docId != null) {
+            unindexLocked(docId);
+            products.set(docId, null);
+            freeDocIds.push(docId);
+            ordersDirty = true;
+        }
+    }
+
+    private void unindexLocked(int docId) {
+        Product product = products.get(docId);
+        live.clear(docId);
+        if (product.getCategory() != null && !product.getCategory().isBlank()) {
+            String key = categoryKey(product.getCategory());
+            BitSet bits = byCategory.get(key);
+            if (bits != null) {
+                bits.clear(docId);
+                if (bits.isEmpty()) {
+                    byCategory.remove(key);
+                    categoryLabels.remove(key);
+                }
+            }
+        }
+        if (product.getStatus() != null) {
+            BitSet bits = byStatus.get(product.getStatus());
+            if (bits != null) {
+                bits.clear(docId);
+            }
+        }
+        byPriceBucket[bucketOf(product.getPrice())].clear(docId);
+    }
+
+    private void sortLocked() {
+        Integer[] docIds = live.stream().boxed().toArray(Integer[]::new);
+
+        Comparator<Integer> byId = Comparator.comparing(docId -> products.get(docId).getId());
+        Arrays.sort(docIds, Comparator.<Integer>comparingDouble(docId -> products.get(docId).getPrice())
+                .thenComparing(byId));
+        priceOrder = Arrays.stream(docIds).mapToInt(Integer::intValue).toArray();
+
+        Comparator<Integer> byCreatedAt = Comparator.comparing(
+                docId -> Objects.requireNonNullElse(products.get(docId).getCreatedAt(), Instant.EPOCH));
+        Arrays.sort(docIds, byCreatedAt.thenComparing(byId).reversed());
+        recencyOrder = Arrays.stream(docIds).mapToInt(Integer::intValue).toArray();
+
+        ordersDirty = false;
+    }
+
+    private static BitSet intersect(BitSet base, BitSet... masks) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet mask : masks) {
+            if (mask != null) {
+                result.and(mask);
+            }
+        }
+        return result;
+    }
+
+    private static int intersectCount(BitSet a, BitSet b) {
+        BitSet copy = (BitSet) a.clone();
+        copy.and(b);
+        return copy.cardinality();
+    }
+
+    private static String categoryKey(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int bucketOf(double price) {
+        for (int bucket = 0; bucket < PRICE_BUCKET_BOUNDS.length; bucket++) {
+            if (price < PRICE_BUCKET_BOUNDS[bucket]) {
+                return bucket;
+            }
+        }
+        return PRICE_BUCKET_BOUNDS.length;
+    }
+
+    private static String bucketLabel(int bucket) {
+        if (bucket == PRICE_BUCKET_BOUNDS.length) {
+            return (long) PRICE_BUCKET_BOUNDS[bucket - 1] + "+";
+        }
+        long low = bucket == 0 ? 0 : (long) PRICE_BUCKET_BOUNDS[bucket - 1];
+        return low + "-" + (long) PRICE_BUCKET_BOUNDS[bucket];
+    }
+}
@@ -0,0 +1,19 @@
+package com.shophub.ecommerce.search;
+
+import com.shophub.ecommerce.enums.ProductStatus;
+
+import java.util.Set;
+
+/**
+ * A catalog filter. Empty sets and null bounds mean "no restriction" on that dimension; the
+ * price range is inclusive.
+ */
+public record ProductFilter(Set<String> categories, Set<ProductStatus> statuses, Double minPrice,
+        Double maxPrice, Sort sort, int offset, int limit) {
+
+    public enum Sort {
+        NEWEST,
+        PRICE_ASC,
+        PRICE_DESC
+    }
+}
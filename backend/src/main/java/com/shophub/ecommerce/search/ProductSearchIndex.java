@@ -0,0 +1,290 @@
+package com.shophub.ecommerce.search;
+
+import com.shophub.ecommerce.event.CatalogReloadEvent;
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, category and description, ranked with BM25.
+ * Each query token also matches the indexed terms it is a prefix of, at a reduced weight.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_MATCH_WEIGHT = 0.5;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<String, Integer> docIdsByProductId = new HashMap<>();
+    private final List<Product> products = new ArrayList<>();
+    private final List<String[]> termsByDoc = new ArrayList<>();
+    private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+    private int[] docLengths = new int[64];
+    private long totalLength;
+    private final ChangesDuringRebuild changesDuringRebuild = new ChangesDuringRebuild();
+
+    @EventListener({ ApplicationReadyEvent.class, CatalogReloadEvent.class })
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Product> all;
+        try {
+            all = productRepository.findAll();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild.finish();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docIdsByProductId.clear();
+            products.clear();
+            termsByDoc.clear();
+            freeDocIds.clear();
+            totalLength = 0;
+            all.forEach(this::indexLocked);
+            changesDuringRebuild.finish().forEach(this::applyLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built with {} products and {} terms", all.size(), postings.size());
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.record(event);
+            applyLocked(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(ProductChangeEvent event) {
+        if (event.type() == ProductChangeEvent.Type.DELETED) {
+            removeLocked(event.product().getId());
+        } else {
+            indexLocked(event.product());
+        }
+    }
+
+    private void removeLocked(String productId) {
+        Integer docId = docIdsByProductId.remove(productId);
+        if (docId != null) {
+            unindexLocked(docId);
+            products.set(docId, null);
+            freeDocIds.push(docId);
+        }
+    }
+
+    /**
+     * Returns products matching every query token, best match first.
+     */
+    public List<Product> search(String query, int limit) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = docIdsByProductId.size();
+            if (docCount == 0) {
+                return List.of();
+            }
+            double avgLength = (double) totalLength / docCount;
+
+            float[] scores = new float[products.size()];
+            int[] lastMatchedToken = new int[products.size()];
+            Arrays.fill(lastMatchedToken, -1);
+
+            for (int t = 0; t < tokens.size(); t++) {
+                String token = tokens.get(t);
+                PostingList exact = postings.get(token);
+                if (exact != null) {
+                    accumulate(exact, 1.0, t, docCount, avgLength, scores, lastMatchedToken);
+                }
+                for (PostingList prefixed : prefixExpansions(token)) {
+                    accumulate(prefixed, PREFIX_MATCH_WEIGHT, t, docCount, avgLength, scores, lastMatchedToken);
+                }
+            }
+
+            // A document is a hit only if it matched the last token and, transitively, every earlier one
+            int lastToken = tokens.size() - 1;
+            PriorityQueue<Integer> top = new PriorityQueue<>(Comparator.comparingDouble(docId -> scores[docId]));
+            for (int docId = 0; docId < lastMatchedToken.length; docId++) {
+                if (lastMatchedToken[docId] == lastToken) {
+                    top.offer(docId);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+
+            List<Product> results = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                results.add(products.get(top.poll()));
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdsByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The posting lists of the terms {@code token} is a proper prefix of. Past the cap, the terms
+     * found in the most documents are kept, so a short prefix still reaches the common words.
+     */
+    private Collection<PostingList> prefixExpansions(String token) {
+        Collection<PostingList> all = postings.subMap(token, false, token + Character.MAX_VALUE, false).values();
+        if (all.size() <= MAX_PREFIX_EXPANSIONS) {
+            return all;
+        }
+        PriorityQueue<PostingList> largest = new PriorityQueue<>(MAX_PREFIX_EXPANSIONS + 1,
+                Comparator.comparingInt(PostingList::size));
+        for (PostingList list : all) {
+            if (largest.size() < MAX_PREFIX_EXPANSIONS) {
+                largest.offer(list);
+            } else if (list.size() > largest.peek().size()) {
+                largest.poll();
+                largest.offer(list);
+            }
+        }
+        return largest;
+    }
+
+    private void accumulate(PostingList list, double weight, int tokenIndex, int docCount, double avgLength,
+            float[] scores, int[] lastMatchedToken) {
+        double idf = Math.log(1 + (docCount - list.size() + 0.5) / (list.size() + 0.5));
+        for (int i = 0; i < list.size(); i++) {
+            int docId = list.docId(i);
+            // Only documents that matched every previous token stay in the running
+            if (lastMatchedToken[docId] < tokenIndex - 1) {
+                continue;
+            }
+            int tf = list.frequency(i);
+            double norm = K1 * (1 - B + B * docLengths[docId] / avgLength);
+            scores[docId] += (float) (weight * idf * tf * (K1 + 1) / (tf + norm));
+            lastMatchedToken[docId] = tokenIndex;
+        }
+    }
+
+    private void indexLocked(Product product) {
+        Integer existing = docIdsByProductId.get(product.getId());
+        int docId;
+        if (existing != null) {
+            docId = existing;
+            unindexLocked(docId);
+            products.set(docId, product);
+        } else if (!freeDocIds.isEmpty()) {
+            docId = freeDocIds.pop();
+            products.set(docId, product);
+        } else {
+            docId = products.size();
+            products.add(product);
+            termsByDoc.add(null);
+        }
+        docIdsByProductId.put(product.getId(), docId);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        addField(frequencies, product.getProductName(), NAME_WEIGHT);
+        addField(frequencies, product.getCategory(), CATEGORY_WEIGHT);
+        addField(frequencies, product.getProductDescription(), DESCRIPTION_WEIGHT);
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new PostingList()).put(docId, entry.getValue());
+            length += entry.getValue();
+        }
+
+        if (docId >= docLengths.length) {
+            docLengths = Arrays.copyOf(docLengths, Math.max(docLengths.length * 2, docId + 1));
+        }
+        docLengths[docId] = length;
+        totalLength += length;
+        termsByDoc.set(docId, frequencies.keySet().toArray(String[]::new));
+    }
+
+    private void unindexLocked(int docId) {
+        String[] terms = termsByDoc.get(docId);
+        if (terms != null) {
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null) {
+                    list.remove(docId);
+                    if (list.size() == 0) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            termsByDoc.set(docId, null);
+        }
+        totalLength -= docLengths[docId];
+        docLengths[docId] = 0;
+    }
+
+    private static void addField(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : TextAnalyzer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.shophub.ecommerce.search;
+
+import com.shophub.ecommerce.event.CatalogReloadEvent;
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.OrderRepository;
+import com.shophub.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead over product names and categories. Each suggestion is weighted by the popularity of
+ * the products behind it (one plus the units ordered), and is reachable from the start of the
+ * text and from the start of its next few words, so "pro" finds "iPhone 15 Pro".
+ * <p>
+ * Catalog changes are applied incrementally; popularity is reloaded from the orders collection
+ * on a fixed delay.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSuggestIndex {
+
+    public enum Type {
+        PRODUCT,
+        CATEGORY
+    }
+
+    public record Suggestion(String text, Type type) {
+    }
+
+    private static final int TOP_K = 10;
+    private static final int MAX_WORD_STARTS = 4;
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Deque<Integer> freeEntryIds = new ArrayDeque<>();
+    private final Map<String, Integer> entryIdsByKey = new HashMap<>();
+    private final Map<String, Contribution> contributions = new HashMap<>();
+    private Map<String, Long> unitsOrdered = Map.of();
+    private SuggestionTrie trie = newTrie();
+    private final ChangesDuringRebuild changesDuringRebuild = new ChangesDuringRebuild();
+
+    private static final class Entry {
+        final String text;
+        final Type type;
+        final List<String> keys;
+        long weight;
+        int products;
+
+        Entry(String text, Type type, List<String> keys) {
+            this.text = text;
+            this.type = type;
+            this.keys = keys;
+        }
+    }
+
+    // What one product adds to the name and category entries
+    private record Contribution(int nameEntry, int categoryEntry, long weight) {
+    }
+
+    @EventListener({ ApplicationReadyEvent.class, CatalogReloadEvent.class })
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<String, Long> units;
+        List<Product> all;
+        try {
+            units = orderRepository.countUnitsOrderedByProduct();
+            all = productRepository.findAll();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild.finish();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            freeEntryIds.clear();
+            entryIdsByKey.clear();
+            contributions.clear();
+            unitsOrdered = units;
+            // Bulk load: fill the trie first and rank once at the end
+            trie = newTrie();
+            for (Product product : all) {
+                addLocked(product, false);
+            }
+            trie.refreshAll();
+            changesDuringRebuild.finish().forEach(this::applyLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Suggest index built with {} products and {} suggestions", all.size(), entryIdsByKey.size());
+    }
+
+    @Scheduled(initialDelayString = "${suggest.popularity-refresh-ms:900000}",
+            fixedDelayString = "${suggest.popularity-refresh-ms:900000}")
+    public void refreshPopularity() {
+        Map<String, Long> units = orderRepository.countUnitsOrderedByProduct();
+
+        lock.writeLock().lock();
+        try {
+            unitsOrdered = units;
+            for (Map.Entry<String, Contribution> entry : contributions.entrySet()) {
+                Contribution old = entry.getValue();
+                long weight = weightOf(entry.getKey());
+                if (weight != old.weight()) {
+                    adjust(old.nameEntry(), weight - old.weight());
+                    adjust(old.categoryEntry(), weight - old.weight());
+                    entry.setValue(new Contribution(old.nameEntry(), old.categoryEntry(), weight));
+                }
+            }
+            trie.refreshAll();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.record(event);
+            applyLocked(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(ProductChangeEvent event) {
+        removeLocked(event.product().getId());
+        if (event.type() == ProductChangeEvent.Type.SAVED) {
+            addLocked(event.product(), true);
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = String.join(" ", TextAnalyzer.tokenize(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        // Keep a trailing space so "red " only completes whole words
+        if (Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+            key += " ";
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] ids = trie.complete(key, Math.min(limit, TOP_K));
+            List<Suggestion> suggestions = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                Entry entry = entries.get(id);
+                suggestions.add(new Suggestion(entry.text, entry.type));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        lock.readLock().lock();
+        try {
+            long[] footprint = trie.footprint();
+            long keys = entryIdsByKey.keySet().stream().mapToLong(key -> 40 + key.length()).sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("products", contributions.size());
+            stats.put("suggestions", entryIdsByKey.size());
+            stats.put("trie_nodes", footprint[0]);
+            stats.put("estimated_trie_bytes", footprint[1]);
+            stats.put("estimated_entry_bytes", keys * 2 + entries.size() * 48L);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(Product product, boolean rank) {
+        long weight = weightOf(product.getId());
+        int nameEntry = acquire(product.getProductName(), Type.PRODUCT, weight, rank);
+        int categoryEntry = acquire(product.getCategory(), Type.CATEGORY, weight, rank);
+        contributions.put(product.getId(), new Contribution(nameEntry, categoryEntry, weight));
+    }
+
+    private void removeLocked(String productId) {
+        Contribution old = contributions.remove(productId);
+        if (old != null) {
+            release(old.nameEntry(), old.weight());
+            release(old.categoryEntry(), old.weight());
+        }
+    }
+
+    private int acquire(String text, Type type, long weight, boolean rank) {
+        if (text == null || text.isBlank()) {
+            return -1;
+        }
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return -1;
+        }
+        String identity = type + ":" + String.join(" ", tokens);
+        Integer id = entryIdsByKey.get(identity);
+        if (id == null) {
+            List<String> keys = new ArrayList<>();
+            for (int start = 0; start < Math.min(tokens.size(), MAX_WORD_STARTS); start++) {
+                keys.add(String.join(" ", tokens.subList(start, tokens.size())));
+            }
+            Entry entry = new Entry(text.trim(), type, keys);
+            id = freeEntryIds.isEmpty() ? entries.size() : freeEntryIds.pop();
+            if (id == entries.size()) {
+                entries.add(entry);
+            } else {
+                entries.set(id, entry);
+            }
+            entryIdsByKey.put(identity, id);
+            entry.weight = weight;
+            entry.products = 1;
+            for (String key : keys) {
+                if (rank) {
+                    trie.insert(key, id);
+                } else {
+                    trie.insertUnranked(key, id);
+                }
+            }
+            return id;
+        }
+
+        Entry entry = entries.get(id);
+        entry.products++;
+        entry.weight += weight;
+        if (rank) {
+            entry.keys.forEach(trie::refresh);
+        }
+        return id;
+    }
+
+    private void release(int id, long weight) {
+        if (id < 0) {
+            return;
+        }
+        Entry entry = entries.get(id);
+        entry.weight -= weight;
+        if (--entry.products > 0) {
+            entry.keys.forEach(trie::refresh);
+            return;
+        }
+        for (String key : entry.keys) {
+            trie.remove(key, id);
+        }
+        entryIdsByKey.remove(entry.type + ":" + entry.keys.get(0));
+        entries.set(id, null);
+        freeEntryIds.push(id);
+    }
+
+    private void adjust(int id, long delta) {
+        if (id >= 0) {
+            entries.get(id).weight += delta;
+        }
+    }
+
+    private long weightOf(String productId) {
+        return 1 + unitsOrdered.getOrDefault(productId, 0L);
+    }
+
+    private SuggestionTrie newTrie() {
+        return new SuggestionTrie(TOP_K, (a, b) -> {
+            Entry left = entries.get(a);
+            Entry right = entries.get(b);
+            int byWeight = Long.compare(right.weight, left.weight);
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            int byLength = Integer.compare(left.text.length(), right.text.length());
+            return byLength != 0 ? byLength : left.text.compareToIgnoreCase(right.text);
+        });
+    }
+}
@@ -0,0 +1,340 @@
+package com.shophub.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Radix trie from normalized keys to entry ids. Every node caches the best {@code topK} entry ids
+ * in its subtree under the supplied ranking, so a prefix lookup is a walk down the edges plus an
+ * array copy. Inserts and removals recompute the cached lists along the touched path only.
+ * <p>
+ * Not thread-safe; callers guard it with their own lock.
+ */
+final class SuggestionTrie {
+
+    /**
+     * Orders entry ids, best first.
+     */
+    @FunctionalInterface
+    interface Ranking {
+        int compare(int a, int b);
+    }
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final int[] NO_IDS = new int[0];
+
+    private final int topK;
+    private final Ranking ranking;
+    private final Node root = new Node("");
+
+    SuggestionTrie(int topK, Ranking ranking) {
+        this.topK = topK;
+        this.ranking = ranking;
+    }
+
+    void insert(String key, int id) {
+        insert(key, id, true);
+    }
+
+    /**
+     * Inserts without ranking; call {@link #refreshAll()} once the bulk load is done.
+     */
+    void insertUnranked(String key, int id) {
+        insert(key, id, false);
+    }
+
+    private void insert(String key, int id, boolean rank) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            int index = childIndex(node, key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i));
+                addChild(node, leaf);
+                node = leaf;
+                path.add(node);
+                i = key.length();
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge at the point where the key diverges
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.keys = new char[] { child.label.charAt(0) };
+                middle.children = new Node[] { child };
+                middle.top = child.top;
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+        node.terminals = addId(node.terminals, id);
+        if (rank) {
+            recompute(path);
+        }
+    }
+
+    void remove(String key, int id) {
+        List<Node> path = findPath(key);
+        if (path == null) {
+            return;
+        }
+        Node node = path.get(path.size() - 1);
+        node.terminals = removeId(node.terminals, id);
+
+        // Prune empty leaves and merge pass-through nodes back into their only child
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node current = path.get(depth);
+            Node parent = path.get(depth - 1);
+            if (current.terminals.length > 0) {
+                break;
+            }
+            if (current.children.length == 0) {
+                removeChild(parent, current);
+            } else if (current.children.length == 1) {
+                Node only = current.children[0];
+                only.label = current.label + only.label;
+                parent.children[childIndex(parent, only.label.charAt(0))] = only;
+                path.set(depth, only);
+                break;
+            } else {
+                break;
+            }
+        }
+        recompute(path);
+    }
+
+    /**
+     * Recomputes the cached lists along {@code key}'s path after an entry's rank changed.
+     */
+    void refresh(String key) {
+        List<Node> path = findPath(key);
+        if (path != null) {
+            recompute(path);
+        }
+    }
+
+    /**
+     * Recomputes every cached list, for when many entries changed rank at once.
+     */
+    void refreshAll() {
+        refreshSubtree(root);
+    }
+
+    int[] complete(String prefix, int limit) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = childIndex(node, prefix.charAt(i));
+            if (index < 0) {
+                return NO_IDS;
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                // Prefix ends on or inside this edge: everything below it matches
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return NO_IDS;
+            }
+            node = child;
+            i += common;
+        }
+        return Arrays.copyOf(node.top, Math.min(limit, node.top.length));
+    }
+
+    /**
+     * Node count and an estimate of retained heap, using 16-byte object and array headers and
+     * 4-byte compressed references.
+     */
+    long[] footprint() {
+        long[] totals = new long[2];
+        footprint(root, totals);
+        return totals;
+    }
+
+    private void footprint(Node node, long[] totals) {
+        totals[0]++;
+        totals[1] += 40 + 40 + node.label.length()
+                + arrayBytes(node.keys.length, 2)
+                + arrayBytes(node.children.length, 4)
+                + arrayBytes(node.terminals.length, 4)
+                + (node.top == node.terminals ? 0 : arrayBytes(node.top.length, 4));
+        for (Node child : node.children) {
+            footprint(child, totals);
+        }
+    }
+
+    private static long arrayBytes(int length, int elementSize) {
+        // Empty arrays are shared constants
+        return length == 0 ? 0 : 16 + (long) length * elementSize;
+    }
+
+    private List<Node> findPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            int index = childIndex(node, key.charAt(i));
+            if (index < 0 || !key.startsWith(node.children[index].label, i)) {
+                return null;
+            }
+            node = node.children[index];
+            path.add(node);
+            i += node.label.length();
+        }
+        return path;
+    }
+
+    private void recompute(List<Node> path) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            recompute(path.get(depth));
+        }
+    }
+
+    private void refreshSubtree(Node node) {
+        for (Node child : node.children) {
+            refreshSubtree(child);
+        }
+        recompute(node);
+    }
+
+    private void recompute(Node node) {
+        if (node.children.length == 0 && node.terminals.length == 1) {
+            // Most nodes are single-entry leaves: share the array instead of allocating another
+            node.top = node.terminals;
+            return;
+        }
+        // Every child's list is already ranked, so merging their heads is enough; sorting every
+        // candidate made one catalog change cost milliseconds near the root
+        int[][] lists = new int[node.children.length + 1][];
+        lists[0] = ranked(node.terminals);
+        for (int c = 0; c < node.children.length; c++) {
+            lists[c + 1] = node.children[c].top;
+        }
+        int[] cursors = new int[lists.length];
+        int[] top = new int[topK];
+        int size = 0;
+        while (size < topK) {
+            int best = -1;
+            for (int l = 0; l < lists.length; l++) {
+                if (cursors[l] < lists[l].length && (best < 0
+                        || ranking.compare(lists[l][cursors[l]], lists[best][cursors[best]]) < 0)) {
+                    best = l;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            int id = lists[best][cursors[best]++];
+            // An entry indexed under several keys can reach this node through more than one child
+            if (!contains(top, size, id)) {
+                top[size++] = id;
+            }
+        }
+        node.top = size == 0 ? NO_IDS : size == topK ? top : Arrays.copyOf(top, size);
+    }
+
+    private int[] ranked(int[] ids) {
+        if (ids.length < 2) {
+            return ids;
+        }
+        Integer[] boxed = Arrays.stream(ids).boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, (a, b) -> ranking.compare(a, b));
+        return Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean contains(int[] ids, int size, int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int childIndex(Node node, char c) {
+        return Arrays.binarySearch(node.keys, c);
+    }
+
+    private static void addChild(Node parent, Node child) {
+        int insertAt = -childIndex(parent, child.label.charAt(0)) - 1;
+        char[] keys = new char[parent.keys.length + 1];
+        Node[] children = new Node[parent.children.length + 1];
+        System.arraycopy(parent.keys, 0, keys, 0, insertAt);
+        System.arraycopy(parent.children, 0, children, 0, insertAt);
+        keys[insertAt] = child.label.charAt(0);
+        children[insertAt] = child;
+        System.arraycopy(parent.keys, insertAt, keys, insertAt + 1, parent.keys.length - insertAt);
+        System.arraycopy(parent.children, insertAt, children, insertAt + 1, parent.children.length - insertAt);
+        parent.keys = keys;
+        parent.children = children;
+    }
+
+    private static void removeChild(Node parent, Node child) {
+        int index = childIndex(parent, child.label.charAt(0));
+        char[] keys = new char[parent.keys.length - 1];
+        Node[] children = new Node[parent.children.length - 1];
+        System.arraycopy(parent.keys, 0, keys, 0, index);
+        System.arraycopy(parent.children, 0, children, 0, index);
+        System.arraycopy(parent.keys, index + 1, keys, index, keys.length - index);
+        System.arraycopy(parent.children, index + 1, children, index, children.length - index);
+        parent.keys = keys.length == 0 ? NO_CHARS : keys;
+        parent.children = children.length == 0 ? NO_NODES : children;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int[] addId(int[] ids, int id) {
+        for (int existing : ids) {
+            if (existing == id) {
+                return ids;
+            }
+        }
+        int[] grown = Arrays.copyOf(ids, ids.length + 1);
+        grown[ids.length] = id;
+        return grown;
+    }
+
+    private static int[] removeId(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                int[] shrunk = new int[ids.length - 1];
+                System.arraycopy(ids, 0, shrunk, 0, i);
+                System.arraycopy(ids, i + 1, shrunk, i, shrunk.length - i);
+                return shrunk.length == 0 ? NO_IDS : shrunk;
+            }
+        }
+        return ids;
+    }
+
+    private static final class Node {
+        String label;
+        char[] keys = NO_CHARS;
+        Node[] children = NO_NODES;
+        int[] terminals = NO_IDS;
+        int[] top = NO_IDS;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.shophub.ecommerce.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request principal: just enough of the user to authorize a call. Load the full {@code User}
+ * only where it is actually needed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthenticatedUser implements Serializable {
+
+    private String id;
+
+    private String email;
+
+    private String firstName;
+
+    private String lastName;
+
+    @Builder.Default
+    private List<String> roles = new ArrayList<>();
+}
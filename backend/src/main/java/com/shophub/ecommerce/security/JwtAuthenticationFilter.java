@@ -1,7 +1,5 @@
 package com.shophub.ecommerce.security;
 
-import com.shophub.ecommerce.model.User;
-import com.shophub.ecommerce.repository.UserRepository;
 import com.shophub.ecommerce.service.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,7 +15,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Component
@@ -25,7 +22,7 @@ import java.util.stream.Collectors;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalLoader principalLoader;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,22 +33,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                if (jwtService.isTokenValid(token)) {
-                    String email = jwtService.extractEmail(token);
-                    Optional<User> userOpt = userRepository.findByEmail(email);
+                String email = jwtService.verify(token).getSubject();
+                AuthenticatedUser user = principalLoader.load(email);
 
-                    if (userOpt.isPresent()) {
-                        User user = userOpt.get();
-                        var authorities = user.getRoles().stream()
-                                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                                .collect(Collectors.toList());
+                if (user != null) {
+                    var authorities = user.getRoles().stream()
+                            .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                            .collect(Collectors.toList());
 
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(user,
-                                null, authorities);
-                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(user,
+                            null, authorities);
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                    }
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             } catch (Exception ignored) {
                 // Invalid token — continue without authentication
@@ -56,8 +56,7 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
             user = existingUser.get();
             // Update profile image if available
             if (picture != null && (user.getProfileImage() == null || user.getProfileImage().isEmpty())) {
-                user.setProfileImage(picture);
-                userRepository.save(user);
+                userRepository.setProfileImageIfMissing(email, picture);
             }
         } else {
             // Create new user for Google OAuth login
@@ -80,8 +79,7 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
         String jwtToken = jwtService.generateToken(
                 user.getId(), user.getEmail(), user.getFirstName(), user.getLastName());
 
-        user.setJwtToken(jwtToken);
-        userRepository.save(user);
+        userRepository.setJwtToken(email, jwtToken);
 
         // Redirect to frontend with token
         String redirectUrl = getFrontendUrl() + "/oauth2/redirect?token=" + jwtToken;
@@ -0,0 +1,35 @@
+package com.shophub.ecommerce.security;
+
+import com.shophub.ecommerce.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+
+@Component
+@RequiredArgsConstructor
+public class PrincipalLoader {
+
+    public static final String CACHE_NAME = "authPrincipal";
+
+    private final UserRepository userRepository;
+
+    @Cacheable(value = CACHE_NAME, key = "#email", unless = "#result == null")
+    public AuthenticatedUser load(String email) {
+        return userRepository.findPrincipalByEmail(email)
+                .map(user -> AuthenticatedUser.builder()
+                        .id(user.getId())
+                        .email(user.getEmail())
+                        .firstName(user.getFirstName())
+                        .lastName(user.getLastName())
+                        .roles(new ArrayList<>(user.getRoles()))
+                        .build())
+                .orElse(null);
+    }
+
+    @CacheEvict(value = CACHE_NAME, key = "#email")
+    public void evict(String email) {
+    }
+}
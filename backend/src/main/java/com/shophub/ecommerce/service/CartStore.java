@@ -0,0 +1,27 @@
+package com.shophub.ecommerce.service;
+
+import com.shophub.ecommerce.model.CartItem;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Per-user cart storage keyed by email. Implementations load a cart from the user document on
+ * first access and may persist changes back asynchronously.
+ */
+public interface CartStore {
+
+    List<CartItem> getCart(String email);
+
+    /**
+     * @return false if the product is already in the cart
+     */
+    boolean addItem(String email, String productId, int quantity);
+
+    /**
+     * @return false if the product is not in the cart
+     */
+    boolean setQuantity(String email, String productId, int quantity);
+
+    void removeItems(String email, Collection<String> productIds);
+}
@@ -1,10 +1,42 @@
 package com.shophub.ecommerce.service;
 
-import org.springframework.web.multipart.MultipartFile;
-
+import java.io.File;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
 
 public interface CloudinaryService {
-    String uploadImage(MultipartFile file, String folder) throws IOException;
-}
 
+    record StoredImage(String publicId, String url, Instant createdAt) {
+    }
+
+    /**
+     * One page of a folder listing; {@code nextCursor} is null on the last page.
+     */
+    record StoredImagePage(List<StoredImage> images, String nextCursor) {
+    }
+
+    /**
+     * Uploads a file from disk and returns the hosted URL.
+     */
+    String uploadImage(File file, String folder) throws IOException;
+
+    /**
+     * Has Cloudinary fetch a remote image and returns the hosted URL.
+     */
+    String uploadImageFromUrl(String url, String folder) throws IOException;
+
+    void deleteImage(String publicId) throws IOException;
+
+    void deleteImages(List<String> publicIds) throws IOException;
+
+    /**
+     * Lists stored images in {@code folder}, resuming after {@code cursor} when it is not null.
+     */
+    StoredImagePage listImages(String folder, String cursor, int limit) throws IOException;
+
+    /**
+     * The public id behind a URL served by this store, or null for any other URL.
+     */
+    String publicIdOf(String url);
+}
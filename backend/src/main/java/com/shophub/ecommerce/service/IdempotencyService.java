@@ -0,0 +1,30 @@
+package com.shophub.ecommerce.service;
+
+import com.shophub.ecommerce.dto.ApiResponse;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per idempotency key. A retry with the same key gets the stored
+ * response of the first run instead of running again.
+ */
+public interface IdempotencyService {
+
+    String HEADER = "Idempotency-Key";
+    String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Runs {@code action} unless a request with the same scope, owner and key already completed,
+     * in which case its response is returned. A duplicate that arrives while the first is still
+     * running waits briefly for its result, then gets a 409. Reusing a key for a different
+     * {@code request} (its JSON form is fingerprinted; include path variables) gets a 422. Failed
+     * runs are not stored, so the client can retry them. A null {@code key} runs the action without
+     * any of this.
+     */
+    ResponseEntity<ApiResponse> execute(String scope, String owner, String key, Object request,
+            Supplier<ResponseEntity<ApiResponse>> action);
+
+    Map<String, Object> getStatistics();
+}
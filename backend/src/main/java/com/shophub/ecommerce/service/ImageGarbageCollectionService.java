@@ -0,0 +1,17 @@
+package com.shophub.ecommerce.service;
+
+import java.util.Map;
+
+/**
+ * Deletes stored images that no product or user references any more.
+ */
+public interface ImageGarbageCollectionService {
+
+    /**
+     * Runs a collection now, resuming an interrupted run if there is one. A dry run only reports
+     * what would be deleted and leaves the checkpoint untouched.
+     */
+    Map<String, Object> run(boolean dryRun);
+
+    Map<String, Object> getStatistics();
+}
@@ -0,0 +1,39 @@
+package com.shophub.ecommerce.service;
+
+import com.shophub.ecommerce.event.ImageUploadEvent;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Uploads images in the background. The request thread only spools the file to disk; the
+ * result is published as an {@link ImageUploadEvent}.
+ */
+public interface ImageUploadService {
+
+    /**
+     * An accepted upload that holds a queue slot and a spooled file until it is started or
+     * discarded.
+     */
+    interface PendingUpload {
+
+        /**
+         * Identifies this upload; store it with the PENDING status so only this upload's result is
+         * applied.
+         */
+        String token();
+
+        void start(ImageUploadEvent.Target target, String ownerId);
+
+        void discard();
+    }
+
+    /**
+     * Reserves a queue slot and spools the file. Throws a 503 {@code ApiException} when the queue
+     * is full.
+     */
+    PendingUpload accept(MultipartFile file, String folder) throws IOException;
+
+    Map<String, Object> getStatistics();
+}
@@ -8,6 +8,12 @@ public interface JwtService {
 
     String generateToken(String userId, String email, String firstName, String lastName);
 
+    /**
+     * Verifies the token once and returns its claims; throws a {@code JwtException} if the token
+     * is malformed, tampered with or expired.
+     */
+    Claims verify(String token);
+
     String extractEmail(String token);
 
     String extractUserId(String token);
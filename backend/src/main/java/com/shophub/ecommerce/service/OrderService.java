@@ -1,9 +1,11 @@
 package com.shophub.ecommerce.service;
 
+import com.shophub.ecommerce.dto.CursorPage;
 import com.shophub.ecommerce.enums.PaymentStatus;
 import com.shophub.ecommerce.model.Order;
 
 import java.util.List;
+import java.util.Map;
 
 public interface OrderService {
 
@@ -17,6 +19,10 @@ public interface OrderService {
 
     Order getOrderById(String id);
 
+    CursorPage<Map<String, Object>> getOrderHistory(String userId, String cursor, Integer size);
+
+    Map<String, Object> getOrderDetails(String userId, String orderId);
+
     Order updatePaymentStatus(String orderId, String razorpayPaymentId, String razorpaySignature);
 
     Order createOrderFromCart(String email,
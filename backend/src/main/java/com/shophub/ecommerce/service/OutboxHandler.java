@@ -0,0 +1,26 @@
+package com.shophub.ecommerce.service;
+
+import com.shophub.ecommerce.enums.OutboxEventType;
+import com.shophub.ecommerce.model.OutboxEvent;
+
+import java.util.Map;
+
+/**
+ * One side effect of an outbox event. Delivery is at least once, so {@link #handle} may see the
+ * same event again after a crash or a failure in another handler; throwing schedules a retry.
+ */
+public interface OutboxHandler {
+
+    /**
+     * Recorded on the event once the handler succeeds; keep it stable.
+     */
+    String name();
+
+    boolean supports(OutboxEventType type);
+
+    void handle(OutboxEvent event);
+
+    default Map<String, Object> getStatistics() {
+        return Map.of();
+    }
+}
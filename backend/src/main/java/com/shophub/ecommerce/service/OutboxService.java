@@ -0,0 +1,26 @@
+package com.shophub.ecommerce.service;
+
+import com.shophub.ecommerce.enums.OutboxEventType;
+import com.shophub.ecommerce.model.OutboxEvent;
+
+import java.util.Map;
+
+/**
+ * Transactional outbox: side effects of a write are recorded next to it and delivered to the
+ * {@link OutboxHandler}s in the background, at least once.
+ */
+public interface OutboxService {
+
+    /**
+     * Inserts a pending event. Call it inside the transaction that makes the write, so the event
+     * exists exactly when the write does.
+     */
+    OutboxEvent record(OutboxEventType type, String aggregateId, String email);
+
+    /**
+     * Removes an event whose write was rolled back by hand.
+     */
+    void discard(String eventId);
+
+    Map<String, Object> getStatistics();
+}
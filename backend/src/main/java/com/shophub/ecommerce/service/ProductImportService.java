@@ -0,0 +1,20 @@
+package com.shophub.ecommerce.service;
+
+import com.shophub.ecommerce.dto.ProductImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * Reads products from the stream row by row and inserts the valid ones in batches. Invalid
+     * rows are reported, not fatal.
+     */
+    ProductImportReport importProducts(InputStream input, Format format) throws IOException;
+}
@@ -1,6 +1,11 @@
 package com.shophub.ecommerce.service;
 
+import com.shophub.ecommerce.dto.CatalogDeltaResponse;
+import com.shophub.ecommerce.dto.CursorPage;
+import com.shophub.ecommerce.dto.ProductFilterResponse;
 import com.shophub.ecommerce.dto.ProductResponse;
+import com.shophub.ecommerce.dto.ProductSummaryResponse;
+import com.shophub.ecommerce.dto.SuggestionResponse;
 import com.shophub.ecommerce.enums.ProductStatus;
 import com.shophub.ecommerce.model.Product;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,16 +17,33 @@ public interface ProductService {
 
     List<ProductResponse> getAllProducts();
 
+    CursorPage<ProductSummaryResponse> listProducts(String cursor, Integer size);
+
+    ProductFilterResponse filterProducts(List<String> categories, List<String> statuses,
+            Double minPrice, Double maxPrice, String sort, Integer page, Integer size);
+
+    CatalogDeltaResponse getCatalogChanges(String since, Integer size);
+
     Product getProductById(String id);
 
+    /**
+     * {@code stock} may be null for a product whose availability is managed through its status.
+     */
     Product addProduct(String productName, String productDescription,
-            double price, ProductStatus status, String category,
+            double price, ProductStatus status, String category, Integer stock,
             MultipartFile image) throws IOException;
 
+    /**
+     * Sets the stock count, or stops tracking stock when {@code stock} is null.
+     */
+    Product updateStock(String id, Integer stock);
+
     Product updateProduct(String id, String productName, String productDescription,
             Double price, String image, ProductStatus status, String category);
 
     Product deleteProduct(String id);
 
     List<ProductResponse> searchProducts(String keyword);
+
+    List<SuggestionResponse> suggest(String prefix, Integer limit);
 }
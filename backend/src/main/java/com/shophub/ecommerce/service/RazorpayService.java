@@ -3,9 +3,14 @@ package com.shophub.ecommerce.service;
 import com.razorpay.Order;
 import com.razorpay.RazorpayException;
 
+import java.util.Map;
+
 public interface RazorpayService {
 
-    Order createOrder(double amount, String currency, String receipt) throws RazorpayException;
+    Order createOrder(double amount, String currency, String receipt, Map<String, Object> notes)
+            throws RazorpayException;
+
+    Order fetchOrder(String orderId) throws RazorpayException;
 
     boolean verifyPaymentSignature(String orderId, String paymentId, String signature) throws RazorpayException;
 
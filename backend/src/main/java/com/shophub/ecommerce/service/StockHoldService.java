@@ -0,0 +1,26 @@
+package com.shophub.ecommerce.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock set aside while a buyer pays. A hold takes the stock up front and gives it back unless it
+ * is converted into an order before it expires.
+ */
+public interface StockHoldService {
+
+    /**
+     * Reserves the lines and holds them under {@code holdId}. Throws a 409 {@code ApiException}
+     * when there is not enough stock.
+     */
+    void place(String holdId, String email, List<StockStore.StockLine> lines);
+
+    /**
+     * Claims the hold for an order of exactly {@code lines}, whose stock then belongs to the caller.
+     * Returns false if there is no live hold for this user (never placed, already used or expired),
+     * and throws a 400 {@code ApiException}, leaving the hold in place, if it holds other lines.
+     */
+    boolean convert(String holdId, String email, List<StockStore.StockLine> lines);
+
+    Map<String, Object> getStatistics();
+}
@@ -0,0 +1,35 @@
+package com.shophub.ecommerce.service;
+
+import com.shophub.ecommerce.model.Product;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-product stock counts. Reservations are conditional decrements, never a read followed by a
+ * write, so concurrent checkouts of the same product do not serialize on a lock.
+ */
+public interface StockStore {
+
+    record StockLine(String productId, int quantity) {
+    }
+
+    /**
+     * Takes stock for every line or for none. Lines must be for products that track stock.
+     * Throws a 409 {@code ApiException} naming the product that ran out.
+     */
+    void reserve(List<StockLine> lines);
+
+    /**
+     * Puts back stock taken by {@link #reserve}, for example when the order could not be saved.
+     */
+    void release(List<StockLine> lines);
+
+    /**
+     * Sets the stock count, or stops tracking it when {@code stock} is null. Returns the updated
+     * product, or null if it does not exist.
+     */
+    Product setStock(String productId, Integer stock);
+
+    Map<String, Object> getStatistics();
+}
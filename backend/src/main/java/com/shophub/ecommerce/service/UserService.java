@@ -1,7 +1,8 @@
 package com.shophub.ecommerce.service;
 
-import com.shophub.ecommerce.model.User;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -13,7 +14,7 @@ public interface UserService {
 
     Map<String, Object> adminLogin(String email, String password);
 
-    void logoutUser(User user);
+    void logoutUser(String email);
 
     Map<String, Object> getUserDetails(String email);
 
@@ -25,6 +26,12 @@ public interface UserService {
 
     Map<String, Object> updateProfile(String email, String firstName, String lastName, String profileImage);
 
+    /**
+     * Queues the upload and returns the profile with {@code profile_image_status} PENDING; the
+     * image URL is set once the background upload finishes.
+     */
+    Map<String, Object> uploadProfileImage(String email, MultipartFile image) throws IOException;
+
     List<Map<String, Object>> getAllUsers();
 
     void deleteUser(String id);
@@ -23,7 +23,7 @@ public class AddressServiceImpl implements AddressService {
     private final AddressMapper addressMapper;
 
     @Override
-    @CacheEvict(value = "userDetails_v2", allEntries = true)
+    @CacheEvict(value = "userDetails_v2", key = "#email")
     public Address addAddress(String email, String name, String phoneNumber, String country,
                               String pinCode, String houseNo, String area, String landmark,
                               String city, String state) {
@@ -41,8 +41,10 @@ public class AddressServiceImpl implements AddressService {
 
         address = addressRepository.save(address);
 
-        user.getAddress().add(address.getId());
-        userRepository.save(user);
+        if (!userRepository.pushAddress(email, address.getId())) {
+            addressRepository.delete(address);
+            throw new ApiException(HttpStatus.NOT_FOUND, "User not found");
+        }
 
         log.info("Address added for user: {}", email);
         return address;
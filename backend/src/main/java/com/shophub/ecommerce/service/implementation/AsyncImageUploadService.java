@@ -0,0 +1,264 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.enums.ImageStatus;
+import com.shophub.ecommerce.event.ImageUploadEvent;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.service.CloudinaryService;
+import com.shophub.ecommerce.service.ImageUploadService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spools uploads to disk and pushes them to the image store on a small worker pool. A semaphore
+ * sized to workers plus queue capacity bounds the uploads (and spooled files) in flight; when it
+ * is exhausted new uploads are refused with 503 instead of piling up. Failed attempts are retried
+ * with exponential backoff by rescheduling, so a waiting retry does not hold a worker.
+ * <p>
+ * Jobs live only in memory, so a restart drops the queued ones. A periodic sweep, whose first run
+ * comes shortly after startup, fails records left PENDING for longer than {@code stale-after}
+ * through the normal result event, so their owners can upload again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AsyncImageUploadService implements ImageUploadService {
+
+    private final CloudinaryService cloudinaryService;
+    private final ImageDeduplicator imageDeduplicator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+
+    @Value("${image-upload.workers:4}")
+    private int workers;
+
+    @Value("${image-upload.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${image-upload.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${image-upload.retry-backoff:1s}")
+    private Duration retryBackoff;
+
+    // Well above the longest a job can take with all its retries
+    @Value("${image-upload.stale-after:30m}")
+    private Duration staleAfter;
+
+    @Value("${image-upload.spool-directory:${java.io.tmpdir}/shophub-uploads}")
+    private String spoolDirectory;
+
+    private ScheduledThreadPoolExecutor executor;
+    private Semaphore capacity;
+    private Path spoolDir;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    @PostConstruct
+    void init() throws IOException {
+        spoolDir = Files.createDirectories(Path.of(spoolDirectory));
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(workers, runnable -> {
+            Thread thread = new Thread(runnable, "image-upload-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        capacity = new Semaphore(workers + queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Image uploads still running at shutdown: {}", executor.shutdownNow().size());
+        }
+    }
+
+    @Override
+    public PendingUpload accept(MultipartFile file, String folder) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Image file is required");
+        }
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Image upload queue is full, please retry shortly");
+        }
+
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile(spoolDir, "upload-", extensionOf(file.getOriginalFilename()));
+            // Moves or copies the container's temp file; the bytes are never loaded into the heap
+            file.transferTo(spooled);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(spooled);
+            capacity.release();
+            throw e;
+        }
+        return new Job(spooled, folder, UUID.randomUUID().toString());
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", workers);
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("free_slots", capacity.availablePermits());
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("succeeded", succeeded.sum());
+        stats.put("failed", failed.sum());
+        stats.put("retries", retries.sum());
+        stats.put("abandoned", abandoned.sum());
+        stats.put("dedup", imageDeduplicator.getStatistics());
+        return stats;
+    }
+
+    @Scheduled(initialDelayString = "${image-upload.stale-sweep-initial-delay-ms:30000}",
+            fixedDelayString = "${image-upload.stale-sweep-interval-ms:600000}")
+    public void failStaleUploads() {
+        Instant startedBefore = Instant.now().minus(staleAfter);
+        try {
+            for (Product product : productRepository.findStaleImageUploads(startedBefore)) {
+                abandon(ImageUploadEvent.Target.PRODUCT, product.getId(), product.getImageUploadToken());
+            }
+            for (User user : userRepository.findStaleProfileImageUploads(startedBefore)) {
+                abandon(ImageUploadEvent.Target.USER_PROFILE, user.getEmail(), user.getProfileImageUploadToken());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to sweep stale image uploads", e);
+        }
+    }
+
+    private void abandon(ImageUploadEvent.Target target, String ownerId, String token) {
+        log.warn("Image upload for {} {} was lost, marking it failed", target, ownerId);
+        abandoned.increment();
+        eventPublisher.publishEvent(new ImageUploadEvent(target, ownerId, token, null, ImageStatus.FAILED));
+    }
+
+    private final class Job implements PendingUpload {
+
+        private final Path file;
+        private final String folder;
+        private final String token;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private ImageUploadEvent.Target target;
+        private String ownerId;
+
+        Job(Path file, String folder, String token) {
+            this.file = file;
+            this.folder = folder;
+            this.token = token;
+        }
+
+        @Override
+        public String token() {
+            return token;
+        }
+
+        @Override
+        public void start(ImageUploadEvent.Target target, String ownerId) {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            this.target = target;
+            this.ownerId = ownerId;
+            accepted.increment();
+            executor.execute(() -> attempt(1));
+        }
+
+        @Override
+        public void discard() {
+            if (claimed.compareAndSet(false, true)) {
+                release();
+            }
+        }
+
+        private void attempt(int attempt) {
+            String url;
+            try {
+                url = cloudinaryService.uploadImage(file.toFile(), folder);
+            } catch (Exception e) {
+                if (attempt < maxAttempts && !executor.isShutdown()) {
+                    long delay = retryBackoff.toMillis() << (attempt - 1);
+                    log.warn("Image upload for {} {} failed (attempt {}), retrying in {} ms: {}",
+                            target, ownerId, attempt, delay, e.getMessage());
+                    retries.increment();
+                    executor.schedule(() -> attempt(attempt + 1), delay, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                log.error("Image upload for {} {} failed after {} attempts", target, ownerId, attempt, e);
+                failed.increment();
+                finish(null, ImageStatus.FAILED);
+                return;
+            }
+            succeeded.increment();
+            finish(url, ImageStatus.READY);
+        }
+
+        private void finish(String url, ImageStatus status) {
+            release();
+            try {
+                eventPublisher.publishEvent(new ImageUploadEvent(target, ownerId, token, url, status));
+            } catch (RuntimeException e) {
+                log.error("Could not record image upload result for {} {}", target, ownerId, e);
+            }
+        }
+
+        private void release() {
+            deleteQuietly(file);
+            capacity.release();
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}", path, e);
+        }
+    }
+
+    private static String extensionOf(String name) {
+        int dot = name == null ? -1 : name.lastIndexOf('.');
+        if (dot < 0 || name.length() - dot > 6) {
+            return ".tmp";
+        }
+        return name.substring(dot).toLowerCase();
+    }
+}
@@ -5,27 +5,53 @@ import com.cloudinary.utils.ObjectUtils;
 import com.shophub.ecommerce.service.CloudinaryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "image-storage.provider", havingValue = "cloudinary", matchIfMissing = true)
 public class CloudinaryServiceImpl implements CloudinaryService {
 
+    private static final int DELETE_BATCH = 100;
+    private static final Pattern VERSION_SEGMENT = Pattern.compile("v\\d+/");
+
     private final Cloudinary cloudinary;
+    private final ImageDeduplicator imageDeduplicator;
+
+    @SuppressWarnings("unchecked")
+    public String uploadImage(File file, String folder) throws IOException {
+        return imageDeduplicator.upload(file, folder, () -> {
+            // Passing the File lets the client stream it instead of holding the bytes on the heap
+            Map<String, Object> uploadResult = cloudinary.uploader().upload(file,
+                    ObjectUtils.asMap(
+                            "folder", folder,
+                            "resource_type", "auto"));
+            String secureUrl = (String) uploadResult.get("secure_url");
+            log.info("Image uploaded to Cloudinary: {}", secureUrl);
+            return new ImageDeduplicator.Stored(secureUrl, (String) uploadResult.get("public_id"));
+        });
+    }
 
     @SuppressWarnings("unchecked")
-    public String uploadImage(MultipartFile file, String folder) throws IOException {
-        Map<String, Object> uploadResult = cloudinary.uploader().upload(file.getBytes(),
+    public String uploadImageFromUrl(String url, String folder) throws IOException {
+        // Cloudinary downloads the file itself, so the bytes never pass through this node
+        Map<String, Object> uploadResult = cloudinary.uploader().upload(url,
                 ObjectUtils.asMap(
                         "folder", folder,
-                        "resource_type", "auto"));
+                        "resource_type", "image"));
         String secureUrl = (String) uploadResult.get("secure_url");
-        log.info("Image uploaded to Cloudinary: {}", secureUrl);
+        log.info("Image fetched into Cloudinary: {}", secureUrl);
         return secureUrl;
     }
 
@@ -33,4 +59,70 @@ public class CloudinaryServiceImpl implements CloudinaryService {
         cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
         log.info("Image deleted from Cloudinary: {}", publicId);
     }
+
+    public void deleteImages(List<String> publicIds) throws IOException {
+        // The Admin API accepts up to 100 public ids per call
+        for (int from = 0; from < publicIds.size(); from += DELETE_BATCH) {
+            List<String> chunk = publicIds.subList(from, Math.min(from + DELETE_BATCH, publicIds.size()));
+            try {
+                cloudinary.api().deleteResources(chunk, ObjectUtils.emptyMap());
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Cloudinary delete failed: " + e.getMessage(), e);
+            }
+            log.info("Deleted {} images from Cloudinary", chunk.size());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public StoredImagePage listImages(String folder, String cursor, int limit) throws IOException {
+        Map<String, Object> options = ObjectUtils.asMap(
+                "type", "upload",
+                "prefix", folder + "/",
+                "max_results", Math.min(limit, 500));
+        if (cursor != null) {
+            options.put("next_cursor", cursor);
+        }
+        Map<String, Object> response;
+        try {
+            response = cloudinary.api().resources(options);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Cloudinary listing failed: " + e.getMessage(), e);
+        }
+
+        List<Map<String, Object>> resources = (List<Map<String, Object>>) response.getOrDefault("resources", List.of());
+        List<StoredImage> images = new ArrayList<>(resources.size());
+        for (Map<String, Object> resource : resources) {
+            Object createdAt = resource.get("created_at");
+            images.add(new StoredImage(
+                    (String) resource.get("public_id"),
+                    (String) resource.get("secure_url"),
+                    createdAt != null ? Instant.parse(createdAt.toString()) : Instant.EPOCH));
+        }
+        return new StoredImagePage(images, (String) response.get("next_cursor"));
+    }
+
+    public String publicIdOf(String url) {
+        // https://res.cloudinary.com/<cloud>/image/upload/v<version>/<public id>.<ext>
+        String prefix = "res.cloudinary.com/" + cloudinary.config.cloudName + "/";
+        int start = url == null ? -1 : url.indexOf(prefix);
+        int upload = start < 0 ? -1 : url.indexOf("/upload/", start);
+        if (upload < 0) {
+            return null;
+        }
+        String path = url.substring(upload + "/upload/".length());
+        Matcher version = VERSION_SEGMENT.matcher(path);
+        if (version.lookingAt()) {
+            path = path.substring(version.end());
+        }
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') ? path.substring(0, dot) : path;
+    }
 }
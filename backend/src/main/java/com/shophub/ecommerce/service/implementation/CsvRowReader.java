@@ -0,0 +1,111 @@
+package com.shophub.ecommerce.service.implementation;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, double-quoted fields may contain commas,
+ * line breaks and doubled quotes. Reads one record at a time. Field and record lengths are capped,
+ * so an unterminated quote cannot pull the rest of the input into memory as one field.
+ */
+final class CsvRowReader {
+
+    /**
+     * A field or record ran past its cap. The reader cannot tell where the next record starts, so
+     * it should not be used afterwards.
+     */
+    static final class LimitExceededException extends IOException {
+        LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    private final Reader reader;
+    private final int maxFieldLength;
+    private final int maxRecordLength;
+    private int pushedBack = -2;
+
+    CsvRowReader(Reader reader, int maxFieldLength, int maxRecordLength) {
+        this.reader = reader;
+        this.maxFieldLength = maxFieldLength;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Returns the next record's fields, or null at end of input. Blank lines are skipped. Throws
+     * {@link LimitExceededException} when a field or the record is too long.
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean sawAnything = false;
+        int recordLength = 0;
+
+        int c;
+        while ((c = read()) != -1) {
+            sawAnything = true;
+            if (++recordLength > maxRecordLength) {
+                throw new LimitExceededException("Record longer than " + maxRecordLength + " characters"
+                        + (quoted ? " (unterminated quote?)" : ""));
+            }
+            if (field.length() >= maxFieldLength) {
+                throw new LimitExceededException("Field longer than " + maxFieldLength + " characters"
+                        + (quoted ? " (unterminated quote?)" : ""));
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                if (fields.isEmpty() && field.isEmpty()) {
+                    sawAnything = false;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (!sawAnything) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
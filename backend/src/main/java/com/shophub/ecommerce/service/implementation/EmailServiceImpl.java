@@ -9,6 +9,7 @@ import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -50,8 +51,8 @@ public class EmailServiceImpl implements EmailService {
         }
     }
 
+    // Runs on the outbox dispatcher, which retries on failure, so errors are thrown rather than logged
     @Override
-    @Async
     public void sendOrderConfirmationEmail(String to, String userName, Order order,
                                            Product product, Address address) {
         try {
@@ -82,7 +83,7 @@ public class EmailServiceImpl implements EmailService {
             mailSender.send(message);
             log.info("Order confirmation email sent to: {} for order: {}", to, order.getId());
         } catch (MessagingException e) {
-            log.error("Failed to send order confirmation email for order: {}", order.getId(), e);
+            throw new MailPreparationException("Failed to build order confirmation email for order: " + order.getId(), e);
         }
     }
 }
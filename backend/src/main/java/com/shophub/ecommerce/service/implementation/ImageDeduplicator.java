@@ -0,0 +1,227 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shophub.ecommerce.model.ImageAsset;
+import com.shophub.ecommerce.repository.ImageAssetRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-hash deduplication in front of the image store. The file is hashed as a stream; a hash
+ * seen before, in the local cache or the {@code image_assets} collection, returns the stored URL
+ * without uploading again.
+ * <p>
+ * Every reuse stamps the asset's {@code last_used_at} (at most once per {@code touch-interval}),
+ * and the garbage collector only forgets assets unused since its cutoff, so a URL handed out here
+ * is not deleted before the caller saves a reference to it. A stamp that finds the record gone
+ * counts as a miss. Forgotten hashes are broadcast so other nodes drop them from their caches.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageDeduplicator implements MessageListener {
+
+    public static final String CHANNEL = "images:forgotten";
+
+    /**
+     * The actual upload, run only when the content is new.
+     */
+    @FunctionalInterface
+    public interface Upload {
+        Stored run() throws IOException;
+    }
+
+    public record Stored(String url, String publicId) {
+    }
+
+    // A stored URL and when this node last stamped it as used
+    private record Known(String url, Instant touchedAt) {
+    }
+
+    private final ImageAssetRepository imageAssetRepository;
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${image-dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${image-dedup.cache-size:10000}")
+    private long cacheSize;
+
+    @Value("${image-dedup.cache-ttl:10m}")
+    private Duration cacheTtl;
+
+    // Must stay well below image-gc.min-age, which is what keeps a reused URL from being deleted
+    @Value("${image-dedup.touch-interval:1h}")
+    private Duration touchInterval;
+
+    // Hash -> content already in the store
+    private Cache<String, Known> knownUrls;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder bytesUploaded = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        knownUrls = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    public String upload(File file, String folder, Upload upload) throws IOException {
+        if (!enabled) {
+            return upload.run().url();
+        }
+        lookups.increment();
+        String hash = sha256(file);
+        long size = file.length();
+
+        String url = reuse(hash);
+        if (url != null) {
+            hits.increment();
+            bytesSaved.add(size);
+            log.debug("Reusing stored image {} for hash {}", url, hash);
+            return url;
+        }
+
+        Stored stored = upload.run();
+        bytesUploaded.add(size);
+        try {
+            imageAssetRepository.insert(ImageAsset.builder()
+                    .hash(hash)
+                    .url(stored.url())
+                    .publicId(stored.publicId())
+                    .folder(folder)
+                    .size(size)
+                    .createdAt(Instant.now())
+                    .lastUsedAt(Instant.now())
+                    .build());
+        } catch (DuplicateKeyException e) {
+            // A concurrent upload of the same content won; use its URL and leave ours unreferenced
+            String winner = reuse(hash);
+            return winner != null ? winner : stored.url();
+        }
+        knownUrls.put(hash, new Known(stored.url(), Instant.now()));
+        return stored.url();
+    }
+
+    /**
+     * Drops the records for images about to be deleted so their content is uploaded again next
+     * time, except those reused since {@code unusedSince}. Returns the URLs of the records kept;
+     * those images must not be deleted.
+     */
+    public Set<String> forget(Collection<String> urls, Instant unusedSince) {
+        Set<String> kept = new HashSet<>();
+        List<String> forgotten = new ArrayList<>();
+        for (ImageAsset asset : imageAssetRepository.findByUrlIn(urls)) {
+            // Conditional, so a reuse stamped after the lookup still wins
+            Query unused = Query.query(Criteria.where("_id").is(asset.getHash())
+                    .and("last_used_at").not().gte(unusedSince));
+            if (mongoTemplate.remove(unused, ImageAsset.class).getDeletedCount() > 0) {
+                forgotten.add(asset.getHash());
+            } else {
+                kept.add(asset.getUrl());
+            }
+        }
+        forgotten.forEach(knownUrls::invalidate);
+        if (!forgotten.isEmpty()) {
+            try {
+                redisTemplate.convertAndSend(CHANNEL, String.join(",", forgotten));
+            } catch (RuntimeException e) {
+                // Peers fall back to cache-ttl, and their next stamp finds the record gone
+                log.warn("Failed to broadcast {} forgotten images", forgotten.size(), e);
+            }
+        }
+        return kept;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        for (String hash : new String(message.getBody(), StandardCharsets.UTF_8).split(",")) {
+            knownUrls.invalidate(hash);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        long lookupCount = lookups.sum();
+        long hitCount = hits.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("lookups", lookupCount);
+        stats.put("hits", hitCount);
+        stats.put("local_hits", localHits.sum());
+        stats.put("hit_rate", lookupCount == 0 ? 0.0 : (double) hitCount / lookupCount);
+        stats.put("bytes_saved", bytesSaved.sum());
+        stats.put("bytes_uploaded", bytesUploaded.sum());
+        stats.put("cached_hashes", knownUrls.estimatedSize());
+        return stats;
+    }
+
+    /**
+     * The stored URL for the hash, stamping the asset as used, or null if the content is not
+     * stored or its record was just forgotten.
+     */
+    private String reuse(String hash) {
+        Instant now = Instant.now();
+        Known known = knownUrls.getIfPresent(hash);
+        if (known != null && known.touchedAt().isAfter(now.minus(touchInterval))) {
+            localHits.increment();
+            return known.url();
+        }
+        Query query = Query.query(Criteria.where("_id").is(hash));
+        ImageAsset asset = mongoTemplate.findAndModify(query, new Update().set("last_used_at", now),
+                FindAndModifyOptions.options().returnNew(true), ImageAsset.class);
+        if (asset == null) {
+            knownUrls.invalidate(hash);
+            return null;
+        }
+        knownUrls.put(hash, new Known(asset.getUrl(), now));
+        return asset.getUrl();
+    }
+
+    private static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,300 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.cache.RedisLock;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.model.ImageGcCheckpoint;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.service.CloudinaryService;
+import com.shophub.ecommerce.service.ImageGarbageCollectionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Mark and sweep over the image store. The mark phase streams every product and profile image
+ * reference into a set of public ids; the sweep pages through each folder of the store and deletes
+ * unreferenced images older than {@code min-age}, one page per batch with a pause in between. The
+ * listing cursor is checkpointed after every batch, so a run cut short by a restart resumes where
+ * it stopped. A Redis lock keeps runs on different nodes from overlapping.
+ * <p>
+ * Scheduled runs get their own thread: a sweep sleeps between pages and can take hours, which
+ * would stall every other job on Spring's single-threaded scheduler.
+ */
+@Slf4j
+@Service
+public class ImageGarbageCollectionServiceImpl implements ImageGarbageCollectionService {
+
+    private static final String CHECKPOINT_ID = "orphaned-images";
+    private static final String LOCK_KEY = "lock:image-gc";
+    private static final List<String> FOLDERS = List.of("products", "profiles");
+
+    private final MongoTemplate mongoTemplate;
+    private final CloudinaryService cloudinaryService;
+    private final ImageDeduplicator imageDeduplicator;
+    private final RedisLock redisLock;
+
+    @Value("${image-gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${image-gc.dry-run:false}")
+    private boolean scheduledDryRun;
+
+    @Value("${image-gc.min-age:24h}")
+    private Duration minAge;
+
+    @Value("${image-gc.batch-size:100}")
+    private int batchSize;
+
+    @Value("${image-gc.batch-delay:2s}")
+    private Duration batchDelay;
+
+    @Value("${image-gc.lock-ttl:6h}")
+    private Duration lockTtl;
+
+    @Value("${image-gc.initial-delay-ms:600000}")
+    private long initialDelayMs;
+
+    @Value("${image-gc.interval-ms:86400000}")
+    private long intervalMs;
+
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder scannedTotal = new LongAdder();
+    private final LongAdder deletedTotal = new LongAdder();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public ImageGarbageCollectionServiceImpl(MongoTemplate mongoTemplate, CloudinaryService cloudinaryService,
+            ImageDeduplicator imageDeduplicator, StringRedisTemplate redisTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.cloudinaryService = cloudinaryService;
+        this.imageDeduplicator = imageDeduplicator;
+        this.redisLock = new RedisLock(redisTemplate);
+    }
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledRun, initialDelayMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupts the pause between pages; the next run resumes from the checkpoint
+        scheduler.shutdownNow();
+    }
+
+    void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            run(scheduledDryRun);
+        } catch (ApiException e) {
+            log.debug("Skipping image garbage collection: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Image garbage collection failed", e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> run(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ApiException(HttpStatus.CONFLICT, "Image garbage collection is already running");
+        }
+        String token = redisLock.tryAcquire(LOCK_KEY, lockTtl);
+        if (token == null) {
+            running.set(false);
+            throw new ApiException(HttpStatus.CONFLICT, "Image garbage collection is running on another node");
+        }
+        try {
+            Map<String, Object> result = collect(dryRun);
+            lastRun = result;
+            return result;
+        } catch (IOException e) {
+            log.error("Image garbage collection stopped, it will resume from the last checkpoint", e);
+            throw new ApiException(HttpStatus.BAD_GATEWAY, "Image store request failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Image garbage collection interrupted");
+        } finally {
+            redisLock.release(LOCK_KEY, token);
+            running.set(false);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running.get());
+        stats.put("runs", runs.sum());
+        stats.put("scanned", scannedTotal.sum());
+        stats.put("deleted", deletedTotal.sum());
+        stats.put("last_run", lastRun);
+        stats.put("checkpoint", mongoTemplate.findById(CHECKPOINT_ID, ImageGcCheckpoint.class));
+        return stats;
+    }
+
+    private Map<String, Object> collect(boolean dryRun) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(minAge);
+        Set<String> referenced = referencedPublicIds();
+
+        ImageGcCheckpoint checkpoint = mongoTemplate.findById(CHECKPOINT_ID, ImageGcCheckpoint.class);
+        boolean resumed = checkpoint != null && checkpoint.getFolder() != null;
+        if (!resumed) {
+            checkpoint = ImageGcCheckpoint.builder()
+                    .id(CHECKPOINT_ID)
+                    .folder(FOLDERS.get(0))
+                    .runStartedAt(now)
+                    .lastCompletedAt(checkpoint != null ? checkpoint.getLastCompletedAt() : null)
+                    .build();
+        } else {
+            log.info("Resuming image garbage collection in {} after {} scanned", checkpoint.getFolder(),
+                    checkpoint.getScanned());
+        }
+
+        long scanned = 0;
+        long deleted = 0;
+        int firstFolder = Math.max(FOLDERS.indexOf(checkpoint.getFolder()), 0);
+        for (int i = firstFolder; i < FOLDERS.size(); i++) {
+            String folder = FOLDERS.get(i);
+            String cursor = i == firstFolder ? checkpoint.getCursor() : null;
+            do {
+                CloudinaryService.StoredImagePage page = cloudinaryService.listImages(folder, cursor, batchSize);
+                List<CloudinaryService.StoredImage> orphans = page.images().stream()
+                        .filter(image -> !referenced.contains(image.publicId()))
+                        .filter(image -> image.createdAt().isBefore(cutoff))
+                        .toList();
+                long removed = orphans.isEmpty() ? 0 : deleteOrphans(orphans, cutoff, dryRun);
+                scanned += page.images().size();
+                deleted += removed;
+                cursor = page.nextCursor();
+
+                if (!dryRun) {
+                    scannedTotal.add(page.images().size());
+                    deletedTotal.add(removed);
+                    checkpoint.setFolder(folder);
+                    checkpoint.setCursor(cursor);
+                    checkpoint.setScanned(checkpoint.getScanned() + page.images().size());
+                    checkpoint.setDeleted(checkpoint.getDeleted() + removed);
+                    checkpoint.setUpdatedAt(Instant.now());
+                    mongoTemplate.save(checkpoint);
+                }
+                if (cursor != null && !batchDelay.isZero()) {
+                    // Rate limit: the Admin API has an hourly request quota
+                    Thread.sleep(batchDelay.toMillis());
+                }
+            } while (cursor != null);
+        }
+
+        if (!dryRun) {
+            checkpoint.setFolder(null);
+            checkpoint.setCursor(null);
+            checkpoint.setLastCompletedAt(Instant.now());
+            checkpoint.setUpdatedAt(checkpoint.getLastCompletedAt());
+            mongoTemplate.save(checkpoint);
+            runs.increment();
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Image garbage collection {}: {} referenced, {} scanned, {} {} in {} ms",
+                dryRun ? "dry run" : "finished", referenced.size(), scanned, deleted,
+                dryRun ? "would be deleted" : "deleted", durationMs);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("dry_run", dryRun);
+        result.put("resumed", resumed);
+        result.put("referenced", referenced.size());
+        result.put("scanned", scanned);
+        result.put(dryRun ? "would_delete" : "deleted", deleted);
+        result.put("duration_ms", durationMs);
+        result.put("finished_at", Instant.now());
+        return result;
+    }
+
+    /**
+     * Rechecks the batch against the database right before deleting, so an image that became
+     * referenced after the mark phase, or was handed out by a deduplicated upload since the
+     * cutoff, is kept.
+     */
+    private long deleteOrphans(List<CloudinaryService.StoredImage> orphans, Instant cutoff, boolean dryRun)
+            throws IOException {
+        List<String> urls = orphans.stream().map(CloudinaryService.StoredImage::url).toList();
+        Set<String> stillReferenced = new HashSet<>();
+        if (!dryRun) {
+            // Stop handing these URLs out to new uploads before the final check; any reused since
+            // the cutoff may be about to be saved on a product or user
+            stillReferenced.addAll(imageDeduplicator.forget(urls, cutoff));
+        }
+
+        stillReferenced.addAll(mongoTemplate.findDistinct(
+                Query.query(Criteria.where("image").in(urls)), "image", Product.class, String.class));
+        stillReferenced.addAll(mongoTemplate.findDistinct(
+                Query.query(Criteria.where("profile_image").in(urls)), "profile_image", User.class, String.class));
+
+        List<String> publicIds = orphans.stream()
+                .filter(image -> !stillReferenced.contains(image.url()))
+                .map(CloudinaryService.StoredImage::publicId)
+                .toList();
+        if (publicIds.isEmpty()) {
+            return 0;
+        }
+        if (dryRun) {
+            log.info("Image garbage collection dry run would delete {}", publicIds);
+        } else {
+            cloudinaryService.deleteImages(publicIds);
+        }
+        return publicIds.size();
+    }
+
+    private Set<String> referencedPublicIds() {
+        Set<String> referenced = new HashSet<>();
+        Query products = new Query();
+        products.fields().include("image");
+        addReferences(products, Product.class, Product::getImage, referenced);
+
+        Query users = new Query();
+        users.fields().include("profile_image");
+        addReferences(users, User.class, User::getProfileImage, referenced);
+        return referenced;
+    }
+
+    private <T> void addReferences(Query query, Class<T> type, Function<T, String> image, Set<String> referenced) {
+        // Streams with a server-side cursor instead of loading the collection
+        try (Stream<T> documents = mongoTemplate.stream(query, type)) {
+            documents.map(image)
+                    .filter(Objects::nonNull)
+                    .map(cloudinaryService::publicIdOf)
+                    .filter(Objects::nonNull)
+                    .forEach(referenced::add);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Node-local cart store. Suitable for a single instance and for tests; use {@code cart.store=redis}
+ * when several nodes serve the same users. Nothing invalidates a cart held by another node, so
+ * there a user's requests would see a different cart depending on the node that serves them.
+ * <p>
+ * A cart that cannot be written when it is evicted is kept aside, still dirty, until a later
+ * flush persists it.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cart.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCartStore extends WriteBehindCartStore {
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<String, Map<String, Integer>> unsaved = new ConcurrentHashMap<>();
+    private final Cache<String, Map<String, Integer>> carts;
+
+    @Autowired
+    public InMemoryCartStore(UserRepository userRepository) {
+        this(userRepository, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    InMemoryCartStore(UserRepository userRepository, Ticker ticker, Executor executor) {
+        super(userRepository);
+        this.carts = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofHours(1))
+                .ticker(ticker)
+                .executor(executor)
+                // Runs inside the eviction, so a reload of the same cart waits until it is persisted
+                .evictionListener((String email, Map<String, Integer> cart, RemovalCause cause) -> {
+                    if (email != null && cart != null && dirty.contains(email)) {
+                        persistEvicted(email, cart);
+                    }
+                })
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warnIfClustered(ApplicationReadyEvent event) {
+        if (event.getApplicationContext().getBeanProvider(RedisMessageListenerContainer.class).getIfAvailable() != null) {
+            log.warn("cart.store=memory keeps carts on this node only and is not invalidated by other nodes; "
+                    + "set cart.store=redis when more than one node serves users");
+        }
+    }
+
+    @Override
+    public List<CartItem> getCart(String email) {
+        Map<String, Integer> cart = cart(email);
+        synchronized (cart) {
+            return toItems(cart);
+        }
+    }
+
+    @Override
+    public boolean addItem(String email, String productId, int quantity) {
+        Map<String, Integer> cart = cart(email);
+        synchronized (cart) {
+            if (cart.putIfAbsent(productId, quantity) != null) {
+                return false;
+            }
+        }
+        markDirty(email);
+        return true;
+    }
+
+    @Override
+    public boolean setQuantity(String email, String productId, int quantity) {
+        Map<String, Integer> cart = cart(email);
+        synchronized (cart) {
+            if (cart.replace(productId, quantity) == null) {
+                return false;
+            }
+        }
+        markDirty(email);
+        return true;
+    }
+
+    @Override
+    public void removeItems(String email, Collection<String> productIds) {
+        Map<String, Integer> cart = cart(email);
+        synchronized (cart) {
+            if (!cart.keySet().removeAll(productIds)) {
+                return;
+            }
+        }
+        markDirty(email);
+    }
+
+    @Override
+    protected void markDirty(String email) {
+        dirty.add(email);
+    }
+
+    @Override
+    protected Collection<String> drainDirty(int max) {
+        List<String> drained = new ArrayList<>();
+        Iterator<String> iterator = dirty.iterator();
+        while (iterator.hasNext() && drained.size() < max) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    private void persistEvicted(String email, Map<String, Integer> cart) {
+        List<CartItem> items;
+        synchronized (cart) {
+            items = toItems(cart);
+        }
+        try {
+            userRepository.replaceCarts(Map.of(email, items));
+            dirty.remove(email);
+        } catch (RuntimeException e) {
+            // Still dirty: the next flush loads it back from here and retries
+            log.error("Failed to persist evicted cart for {}, will retry", email, e);
+            unsaved.put(email, cart);
+        }
+    }
+
+    private Map<String, Integer> cart(String email) {
+        return carts.get(email, key -> {
+            Map<String, Integer> kept = unsaved.remove(key);
+            if (kept != null) {
+                return kept;
+            }
+            Map<String, Integer> cart = new LinkedHashMap<>();
+            loadFromDatabase(key).forEach(item -> cart.put(item.getProductId(), item.getQuantity()));
+            return cart;
+        });
+    }
+
+    private static List<CartItem> toItems(Map<String, Integer> cart) {
+        List<CartItem> items = new ArrayList<>(cart.size());
+        cart.forEach((productId, quantity) -> items.add(new CartItem(productId, quantity)));
+        return items;
+    }
+}
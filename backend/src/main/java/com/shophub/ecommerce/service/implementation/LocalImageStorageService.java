@@ -0,0 +1,153 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.service.CloudinaryService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Offline stand-in for Cloudinary: stores images on local disk and serves them under
+ * {@code /local-images}. An optional artificial latency makes it usable for load tests.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "image-storage.provider", havingValue = "local")
+public class LocalImageStorageService implements CloudinaryService {
+
+    private final ImageDeduplicator imageDeduplicator;
+
+    @Value("${image-storage.local.directory:${java.io.tmpdir}/shophub-images}")
+    private String directory;
+
+    @Value("${image-storage.local.base-url:http://localhost:${server.port:8080}/local-images}")
+    private String baseUrl;
+
+    @Value("${image-storage.local.latency:0ms}")
+    private Duration latency;
+
+    private Path root;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Files.createDirectories(Path.of(directory)).toAbsolutePath().normalize();
+        log.info("Storing images locally in {}", root);
+    }
+
+    @Override
+    public String uploadImage(File file, String folder) throws IOException {
+        return imageDeduplicator.upload(file, folder, () -> {
+            simulateLatency();
+            Path target = newTarget(folder, extensionOf(file.getName()));
+            Files.copy(file.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+            return new ImageDeduplicator.Stored(urlOf(folder, target), folder + "/" + target.getFileName());
+        });
+    }
+
+    @Override
+    public String uploadImageFromUrl(String url, String folder) throws IOException {
+        simulateLatency();
+        Path target = newTarget(folder, extensionOf(URI.create(url).getPath()));
+        try (InputStream in = URI.create(url).toURL().openStream()) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return urlOf(folder, target);
+    }
+
+    @Override
+    public void deleteImage(String publicId) throws IOException {
+        Files.deleteIfExists(resolve(publicId));
+    }
+
+    @Override
+    public void deleteImages(List<String> publicIds) throws IOException {
+        for (String publicId : publicIds) {
+            deleteImage(publicId);
+        }
+    }
+
+    @Override
+    public StoredImagePage listImages(String folder, String cursor, int limit) throws IOException {
+        Path dir = root.resolve(folder);
+        if (!Files.isDirectory(dir)) {
+            return new StoredImagePage(List.of(), null);
+        }
+        // File names are the cursor: list in name order and resume after the last one returned
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing
+                    .filter(Files::isRegularFile)
+                    .filter(file -> cursor == null || file.getFileName().toString().compareTo(cursor) > 0)
+                    .sorted()
+                    .limit(limit + 1L)
+                    .toList();
+        }
+        boolean more = files.size() > limit;
+        List<StoredImage> images = new ArrayList<>(Math.min(files.size(), limit));
+        for (Path file : files.subList(0, Math.min(files.size(), limit))) {
+            images.add(new StoredImage(folder + "/" + file.getFileName(), urlOf(folder, file),
+                    Files.getLastModifiedTime(file).toInstant()));
+        }
+        String next = more ? files.get(limit - 1).getFileName().toString() : null;
+        return new StoredImagePage(images, next);
+    }
+
+    @Override
+    public String publicIdOf(String url) {
+        String prefix = baseUrl + "/";
+        return url != null && url.startsWith(prefix) ? url.substring(prefix.length()) : null;
+    }
+
+    private Path resolve(String publicId) throws IOException {
+        Path path = root.resolve(publicId).normalize();
+        if (!path.startsWith(root)) {
+            throw new IOException("Invalid image id: " + publicId);
+        }
+        return path;
+    }
+
+    private Path newTarget(String folder, String extension) throws IOException {
+        Path dir = Files.createDirectories(root.resolve(folder));
+        return dir.resolve(UUID.randomUUID() + extension);
+    }
+
+    private String urlOf(String folder, Path target) {
+        return baseUrl + "/" + folder + "/" + target.getFileName();
+    }
+
+    private void simulateLatency() throws InterruptedIOException {
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while simulating upload latency");
+            }
+        }
+    }
+
+    private static String extensionOf(String name) {
+        int dot = name == null ? -1 : name.lastIndexOf('.');
+        if (dot < 0 || name.length() - dot > 6) {
+            return "";
+        }
+        return name.substring(dot).toLowerCase();
+    }
+}
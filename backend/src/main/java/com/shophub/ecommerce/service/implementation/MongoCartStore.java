@@ -0,0 +1,62 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.service.CartStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes every cart change straight to {@code users.cart_items} with a single update command.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.store", havingValue = "mongo")
+public class MongoCartStore implements CartStore {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public List<CartItem> getCart(String email) {
+        return userRepository.findCartByEmail(email)
+                .map(User::getCartItems)
+                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
+    }
+
+    @Override
+    public boolean addItem(String email, String productId, int quantity) {
+        if (userRepository.pushCartItemIfAbsent(email, new CartItem(productId, quantity)).isPresent()) {
+            return true;
+        }
+        requireUser(email);
+        return false;
+    }
+
+    @Override
+    public boolean setQuantity(String email, String productId, int quantity) {
+        if (userRepository.setCartItemQuantity(email, productId, quantity).isPresent()) {
+            return true;
+        }
+        requireUser(email);
+        return false;
+    }
+
+    @Override
+    public void removeItems(String email, Collection<String> productIds) {
+        userRepository.pullCartItems(email, productIds)
+                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
+    }
+
+    private void requireUser(String email) {
+        if (!userRepository.existsByEmail(email)) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "User not found");
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.enums.OutboxEventType;
+import com.shophub.ecommerce.enums.OutboxStatus;
+import com.shophub.ecommerce.model.OutboxEvent;
+import com.shophub.ecommerce.repository.OutboxEventRepository;
+import com.shophub.ecommerce.service.OutboxHandler;
+import com.shophub.ecommerce.service.OutboxService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drains {@code outbox_events} on its own thread, so slow handlers never hold up the shared
+ * scheduler. Each poll claims up to {@code batch-size} due events with one lease update, runs
+ * their handlers on a small worker pool and records the outcome per event. A node that dies
+ * mid-batch leaves its claims to expire after {@code claim-ttl}, when another node picks them up.
+ * Failed events back off exponentially and are parked as FAILED after {@code max-attempts}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MongoOutboxService implements OutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxHandler> handlers;
+
+    @Value("${outbox.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.workers:4}")
+    private int workers;
+
+    @Value("${outbox.claim-ttl:2m}")
+    private Duration claimTtl;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry-backoff:2s}")
+    private Duration retryBackoff;
+
+    @Value("${outbox.max-backoff:10m}")
+    private Duration maxBackoff;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong claims = new AtomicLong();
+    private ScheduledExecutorService poller;
+    private ExecutorService executor;
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder parked = new LongAdder();
+    private final LongAdder lagTotalMs = new LongAdder();
+    private final AtomicLong maxLagMs = new AtomicLong();
+    private final AtomicLong lastLagMs = new AtomicLong();
+    private final Map<String, LongAdder> handlerFailures = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        poller.shutdown();
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            // Unfinished events keep their claim and are redelivered once it expires
+            log.warn("Outbox deliveries still running at shutdown: {}", executor.shutdownNow().size());
+        }
+    }
+
+    @Override
+    public OutboxEvent record(OutboxEventType type, String aggregateId, String email) {
+        Instant now = Instant.now();
+        return outboxEventRepository.insert(OutboxEvent.builder()
+                .type(type)
+                .aggregateId(aggregateId)
+                .email(email)
+                .status(OutboxStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    @Override
+    public void discard(String eventId) {
+        outboxEventRepository.deleteById(eventId);
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        long count = dispatched.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxEventRepository.countByStatus(OutboxStatus.PENDING));
+        stats.put("failed", outboxEventRepository.countByStatus(OutboxStatus.FAILED));
+        stats.put("oldest_pending_age_ms", outboxEventRepository
+                .findFirstByStatusOrderByCreatedAtAsc(OutboxStatus.PENDING)
+                .map(event -> Duration.between(event.getCreatedAt(), Instant.now()).toMillis())
+                .orElse(0L));
+        stats.put("dispatched", count);
+        stats.put("retries", retries.sum());
+        stats.put("parked", parked.sum());
+        stats.put("avg_lag_ms", count == 0 ? 0 : lagTotalMs.sum() / count);
+        stats.put("max_lag_ms", maxLagMs.get());
+        stats.put("last_lag_ms", lastLagMs.get());
+        Map<String, Object> byHandler = new LinkedHashMap<>();
+        for (OutboxHandler handler : handlers) {
+            Map<String, Object> handlerStats = new LinkedHashMap<>();
+            handlerStats.put("failures", handlerFailures.getOrDefault(handler.name(), new LongAdder()).sum());
+            handlerStats.putAll(handler.getStatistics());
+            byHandler.put(handler.name(), handlerStats);
+        }
+        stats.put("handlers", byHandler);
+        return stats;
+    }
+
+    void poll() {
+        try {
+            List<OutboxEvent> batch;
+            do {
+                batch = claimBatch();
+                deliver(batch);
+            } while (batch.size() == batchSize && !executor.isShutdown());
+        } catch (RuntimeException e) {
+            log.error("Outbox poll failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Picks the due event ids, leases them with one update and reads back the ones this claim won;
+     * events another node leased in between drop out of the batch.
+     */
+    private List<OutboxEvent> claimBatch() {
+        Instant now = Instant.now();
+        Query due = Query.query(dueCriteria(now)).with(Sort.by("nextAttemptAt")).limit(batchSize);
+        due.fields().include("_id");
+        List<String> ids = mongoTemplate.find(due, OutboxEvent.class).stream().map(OutboxEvent::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String claim = nodeId + ":" + claims.incrementAndGet();
+        mongoTemplate.updateMulti(Query.query(dueCriteria(now).and("_id").in(ids)),
+                new Update().set("claimedBy", claim).set("claimedUntil", now.plus(claimTtl)),
+                OutboxEvent.class);
+        return mongoTemplate.find(Query.query(Criteria.where("claimedBy").is(claim)), OutboxEvent.class);
+    }
+
+    private static Criteria dueCriteria(Instant now) {
+        return Criteria.where("status").is(OutboxStatus.PENDING)
+                .and("nextAttemptAt").lte(now)
+                .orOperator(Criteria.where("claimedUntil").is(null), Criteria.where("claimedUntil").lt(now));
+    }
+
+    private void deliver(List<OutboxEvent> batch) throws InterruptedException {
+        List<Future<?>> deliveries = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            deliveries.add(executor.submit(() -> deliver(event)));
+        }
+        for (Future<?> delivery : deliveries) {
+            try {
+                delivery.get();
+            } catch (ExecutionException e) {
+                log.error("Outbox delivery failed", e.getCause());
+            }
+        }
+    }
+
+    private void deliver(OutboxEvent event) {
+        List<String> completed = new ArrayList<>(event.getCompletedHandlers());
+        String error = null;
+        for (OutboxHandler handler : handlers) {
+            if (!handler.supports(event.getType()) || completed.contains(handler.name())) {
+                continue;
+            }
+            try {
+                handler.handle(event);
+                completed.add(handler.name());
+            } catch (RuntimeException e) {
+                log.warn("Outbox handler {} failed for {} {} (attempt {}): {}", handler.name(),
+                        event.getType(), event.getAggregateId(), event.getAttempts() + 1, e.getMessage());
+                handlerFailures.computeIfAbsent(handler.name(), name -> new LongAdder()).increment();
+                error = handler.name() + ": " + e.getMessage();
+            }
+        }
+
+        Instant now = Instant.now();
+        Update update = new Update()
+                .set("completedHandlers", completed)
+                .unset("claimedBy")
+                .unset("claimedUntil");
+        if (error == null) {
+            update.set("status", OutboxStatus.DISPATCHED).set("dispatchedAt", now);
+            long lag = Duration.between(event.getCreatedAt(), now).toMillis();
+            dispatched.increment();
+            lagTotalMs.add(lag);
+            lastLagMs.set(lag);
+            maxLagMs.accumulateAndGet(lag, Math::max);
+        } else {
+            int attempts = event.getAttempts() + 1;
+            update.set("attempts", attempts)
+                    .set("lastError", error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (attempts >= maxAttempts) {
+                log.error("Outbox event {} for {} {} parked after {} attempts", event.getId(),
+                        event.getType(), event.getAggregateId(), attempts);
+                update.set("status", OutboxStatus.FAILED);
+                parked.increment();
+            } else {
+                update.set("nextAttemptAt", now.plus(backoff(attempts)));
+                retries.increment();
+            }
+        }
+        // Guarded by the claim: if it expired and another node took the event over, that node records the outcome
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(event.getId()).and("claimedBy").is(event.getClaimedBy())),
+                update, OutboxEvent.class);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
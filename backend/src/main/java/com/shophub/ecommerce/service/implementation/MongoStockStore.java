@@ -0,0 +1,82 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.event.StockStatusEvent;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.service.StockStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock kept on the product document. Each line is one conditional {@code $inc}; a line that
+ * cannot be covered undoes the lines already taken.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.store", havingValue = "mongo", matchIfMissing = true)
+public class MongoStockStore implements StockStore {
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder released = new LongAdder();
+
+    @Override
+    public void reserve(List<StockLine> lines) {
+        List<StockLine> taken = new ArrayList<>(lines.size());
+        for (StockLine line : StockLines.merge(lines)) {
+            Product updated = productRepository.adjustStock(line.productId(), -line.quantity(), true);
+            if (updated == null) {
+                release(taken);
+                rejected.increment();
+                throw new ApiException(HttpStatus.CONFLICT, "Not enough stock for product: " + line.productId());
+            }
+            taken.add(line);
+            publishIfFlipped(updated, -line.quantity());
+        }
+        reserved.increment();
+    }
+
+    @Override
+    public void release(List<StockLine> lines) {
+        for (StockLine line : StockLines.merge(lines)) {
+            Product updated = productRepository.adjustStock(line.productId(), line.quantity(), false);
+            if (updated != null) {
+                released.increment();
+                publishIfFlipped(updated, line.quantity());
+            }
+        }
+    }
+
+    @Override
+    public Product setStock(String productId, Integer stock) {
+        return productRepository.setStock(productId, stock);
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", "mongo");
+        stats.put("reservations", reserved.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("released_lines", released.sum());
+        return stats;
+    }
+
+    private void publishIfFlipped(Product updated, int delta) {
+        if (StockLines.flipped(updated.getStock(), delta)) {
+            eventPublisher.publishEvent(new StockStatusEvent(updated));
+        }
+    }
+}
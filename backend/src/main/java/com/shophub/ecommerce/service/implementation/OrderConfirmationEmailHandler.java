@@ -0,0 +1,63 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.enums.OutboxEventType;
+import com.shophub.ecommerce.model.*;
+import com.shophub.ecommerce.repository.AddressRepository;
+import com.shophub.ecommerce.repository.OrderRepository;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.service.EmailService;
+import com.shophub.ecommerce.service.OutboxHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the order confirmation email. A crash between sending and recording the delivery sends it
+ * again on redelivery.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderConfirmationEmailHandler implements OutboxHandler {
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final AddressRepository addressRepository;
+    private final EmailService emailService;
+
+    @Override
+    public String name() {
+        return "order-confirmation-email";
+    }
+
+    @Override
+    public boolean supports(OutboxEventType type) {
+        return type == OutboxEventType.ORDER_CREATED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Order order = OutboxOrders.find(orderRepository, event).orElse(null);
+        if (order == null) {
+            log.info("Order {} no longer exists, skipping confirmation email", event.getAggregateId());
+            return;
+        }
+
+        // The email template takes a single product; cart orders show their first line
+        String productId = order.getOrderItems() != null && !order.getOrderItems().isEmpty()
+                ? order.getOrderItems().getFirst().getProductId()
+                : order.getProduct();
+        User user = userRepository.findPrincipalByEmail(event.getEmail()).orElse(null);
+        Product product = productId == null ? null : productRepository.findById(productId).orElse(null);
+        Address address = order.getAddress() == null ? null : addressRepository.findById(order.getAddress()).orElse(null);
+        if (user == null || product == null || address == null) {
+            log.warn("Skipping confirmation email for order {}: user, product or address is gone", order.getId());
+            return;
+        }
+
+        emailService.sendOrderConfirmationEmail(user.getEmail(), user.getFirstName() + " " + user.getLastName(),
+                order, product, address);
+    }
+}
@@ -0,0 +1,92 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.enums.OutboxEventType;
+import com.shophub.ecommerce.model.Order;
+import com.shophub.ecommerce.model.OrderItem;
+import com.shophub.ecommerce.model.OutboxEvent;
+import com.shophub.ecommerce.repository.OrderRepository;
+import com.shophub.ecommerce.service.OutboxHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps daily order, unit and revenue counters in Redis. Each order id is remembered for the day
+ * it was placed, so a redelivered event is not counted twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderCounterHandler implements OutboxHandler {
+
+    private static final Duration RETENTION = Duration.ofDays(90);
+
+    // KEYS: seen set, counters hash. ARGV: order id, units, revenue, ttl seconds
+    private static final RedisScript<Long> COUNT = new DefaultRedisScript<>(
+            "if redis.call('SADD', KEYS[1], ARGV[1]) == 0 then return 0 end "
+                    + "redis.call('HINCRBY', KEYS[2], 'orders', 1) "
+                    + "redis.call('HINCRBY', KEYS[2], 'units', ARGV[2]) "
+                    + "redis.call('HINCRBYFLOAT', KEYS[2], 'revenue', ARGV[3]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[4]) redis.call('EXPIRE', KEYS[2], ARGV[4]) return 1",
+            Long.class);
+
+    private final OrderRepository orderRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public String name() {
+        return "order-counters";
+    }
+
+    @Override
+    public boolean supports(OutboxEventType type) {
+        return type == OutboxEventType.ORDER_CREATED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Order order = OutboxOrders.find(orderRepository, event).orElse(null);
+        if (order == null) {
+            return;
+        }
+        String day = LocalDate.ofInstant(
+                order.getCreatedAt() != null ? order.getCreatedAt() : event.getCreatedAt(), ZoneOffset.UTC).toString();
+        redisTemplate.execute(COUNT, List.of(seenKey(day), countersKey(day)),
+                order.getId(),
+                String.valueOf(unitsOf(order)),
+                String.valueOf(order.getTotalAmount() != null ? order.getTotalAmount() : 0),
+                String.valueOf(RETENTION.toSeconds()));
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        stats.put("today", redisTemplate.opsForHash().entries(countersKey(today.toString())));
+        stats.put("yesterday", redisTemplate.opsForHash().entries(countersKey(today.minusDays(1).toString())));
+        return stats;
+    }
+
+    private static int unitsOf(Order order) {
+        if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
+            return Math.max(order.getQuantity(), 1);
+        }
+        return order.getOrderItems().stream().mapToInt(OrderItem::getQuantity).map(units -> Math.max(units, 1)).sum();
+    }
+
+    private static String countersKey(String day) {
+        return "stats:orders:{" + day + "}";
+    }
+
+    private static String seenKey(String day) {
+        return "stats:orders:{" + day + "}:seen";
+    }
+}
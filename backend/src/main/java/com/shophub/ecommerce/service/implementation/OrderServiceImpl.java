@@ -1,37 +1,57 @@
 package com.shophub.ecommerce.service.implementation;
 
+import com.shophub.ecommerce.dto.CursorPage;
+import com.shophub.ecommerce.dto.PageCursor;
 import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.mapper.OrderDetailsMapper;
 import com.shophub.ecommerce.mapper.OrderMapper;
 import com.shophub.ecommerce.model.*;
+import com.shophub.ecommerce.enums.OutboxEventType;
 import com.shophub.ecommerce.enums.PaymentStatus;
 import com.shophub.ecommerce.repository.AddressRepository;
 import com.shophub.ecommerce.repository.OrderRepository;
 import com.shophub.ecommerce.repository.ProductRepository;
 import com.shophub.ecommerce.repository.UserRepository;
-import com.shophub.ecommerce.service.EmailService;
+import com.shophub.ecommerce.service.CartStore;
 import com.shophub.ecommerce.service.OrderService;
+import com.shophub.ecommerce.service.OutboxService;
+import com.shophub.ecommerce.service.StockHoldService;
+import com.shophub.ecommerce.service.StockStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+        private static final int DEFAULT_HISTORY_PAGE_SIZE = 10;
+        private static final int MAX_HISTORY_PAGE_SIZE = 50;
+
         private final OrderRepository orderRepository;
         private final UserRepository userRepository;
         private final ProductRepository productRepository;
         private final AddressRepository addressRepository;
-        private final EmailService emailService;
         private final OrderMapper orderMapper;
-
-        @CacheEvict(value = "userDetails_v2", allEntries = true)
+        private final CartStore cartStore;
+        private final StockStore stockStore;
+        private final StockHoldService stockHoldService;
+        private final OrderDetailsMapper orderDetailsMapper;
+        private final OutboxService outboxService;
+        private final ObjectProvider<MongoTransactionManager> transactionManagerProvider;
+
+        @CacheEvict(value = "userDetails_v2", key = "#email")
         public Order createOrder(String email, String productId,
                         PaymentStatus paymentStatus, String paymentMode,
                         String addressId, int quantity,
@@ -66,24 +86,27 @@ public class OrderServiceImpl implements OrderService {
                                 razorpaySignature, userName, userPhoneNumber, totalAmount,
                                 shippingAddressStr);
 
-                order = orderRepository.save(order);
-
-                // Add order ID to user's orders list
-                user.getOrders().add(order.getId());
-
-                // Add product to user's buying_products
-                if (!user.getBuyingProducts().contains(product.getId())) {
-                        user.getBuyingProducts().add(product.getId());
+                List<StockStore.StockLine> stockLines = product.getStock() != null
+                                ? List.of(new StockStore.StockLine(product.getId(), quantity > 0 ? quantity : 1))
+                                : List.of();
+                // A paid order takes over the stock held when its Razorpay order was created
+                boolean held = false;
+                if (razorpayOrderId != null && !stockLines.isEmpty()) {
+                        held = stockHoldService.convert(razorpayOrderId, email, stockLines);
+                        if (!held) {
+                                log.warn("No live stock hold for Razorpay order {}, reserving at verification",
+                                                razorpayOrderId);
+                        }
+                        if (!held && paymentStatus == PaymentStatus.SUCCESS) {
+                                held = reserveForCapturedPayment(order, stockLines);
+                                if (!held) {
+                                        stockLines = List.of();
+                                }
+                        }
                 }
-
-                // Remove from cart if present
-                user.getCartItems().removeIf(item -> item.getProductId().equals(productId));
-
-                userRepository.save(user);
-
-                // Send order confirmation email
-                String emailUserName = user.getFirstName() + " " + user.getLastName();
-                emailService.sendOrderConfirmationEmail(user.getEmail(), emailUserName, order, product, address);
+                // Link the order, record the purchase and drop the product from the cart in one update
+                order = saveOrderWithStock(order, email, List.of(product.getId()), stockLines, held);
+                cartStore.removeItems(email, List.of(product.getId()));
 
                 log.info("Order created: {} for user: {}", order.getId(), email);
                 return order;
@@ -98,6 +121,39 @@ public class OrderServiceImpl implements OrderService {
                                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Order not found"));
         }
 
+        public CursorPage<Map<String, Object>> getOrderHistory(String userId, String cursor, Integer size) {
+                int pageSize = size == null ? DEFAULT_HISTORY_PAGE_SIZE
+                                : Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+                PageCursor after = PageCursor.decode(cursor);
+
+                List<Order> orders = orderRepository.findHistoryPage(userId,
+                                after != null ? after.timestamp() : null,
+                                after != null ? after.id() : null,
+                                pageSize + 1);
+
+                boolean hasMore = orders.size() > pageSize;
+                List<Order> page = hasMore ? orders.subList(0, pageSize) : orders;
+
+                String nextCursor = null;
+                if (hasMore) {
+                        Order last = page.get(page.size() - 1);
+                        nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+                }
+
+                return CursorPage.<Map<String, Object>>builder()
+                                .items(orderDetailsMapper.toOrderDetails(page))
+                                .nextCursor(nextCursor)
+                                .hasMore(hasMore)
+                                .build();
+        }
+
+        public Map<String, Object> getOrderDetails(String userId, String orderId) {
+                Order order = orderRepository.findById(orderId)
+                                .filter(found -> userId.equals(found.getUserId()))
+                                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Order not found"));
+                return orderDetailsMapper.toOrderDetails(List.of(order)).getFirst();
+        }
+
         public Order updatePaymentStatus(String orderId,
                         String razorpayPaymentId,
                         String razorpaySignature) {
@@ -111,16 +167,18 @@ public class OrderServiceImpl implements OrderService {
                 return orderRepository.save(order);
         }
 
-        @CacheEvict(value = "userDetails_v2", allEntries = true)
+        @CacheEvict(value = "userDetails_v2", key = "#email")
         public Order createOrderFromCart(String email,
                         PaymentStatus paymentStatus, String paymentMode, String addressId,
                         String razorpayOrderId, String razorpayPaymentId,
                         String razorpaySignature) {
 
-                User user = userRepository.findByEmail(email)
+                // Only the fields the order and the email need, not the user's cart and order arrays
+                User user = userRepository.findPrincipalByEmail(email)
                                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
 
-                if (user.getCartItems() == null || user.getCartItems().isEmpty()) {
+                List<CartItem> cartItems = cartStore.getCart(email);
+                if (cartItems.isEmpty()) {
                         throw new ApiException(HttpStatus.BAD_REQUEST, "Cart is empty.");
                 }
 
@@ -131,25 +189,33 @@ public class OrderServiceImpl implements OrderService {
                         paymentStatus = PaymentStatus.PENDING;
                 }
 
-                List<OrderItem> orderItems = new ArrayList<>();
-                for (CartItem cartItem : user.getCartItems()) {
-                        Product product = productRepository.findById(cartItem.getProductId())
-                                        .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND,
-                                                        "Product not found: " + cartItem.getProductId()));
-
+                // One $in query for every cart line
+                Map<String, Product> productsById = OrderDetailsMapper.indexById(
+                                productRepository.findAllById(
+                                                cartItems.stream().map(CartItem::getProductId).toList()),
+                                Product::getId);
+
+                List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
+                List<StockStore.StockLine> stockLines = new ArrayList<>();
+                double totalAmount = 0;
+                for (CartItem cartItem : cartItems) {
+                        Product product = productsById.get(cartItem.getProductId());
+                        if (product == null) {
+                                throw new ApiException(HttpStatus.NOT_FOUND,
+                                                "Product not found: " + cartItem.getProductId());
+                        }
                         orderItems.add(OrderItem.builder()
                                         .productId(product.getId())
                                         .quantity(cartItem.getQuantity())
                                         .price(product.getPrice())
                                         .build());
+                        int units = cartItem.getQuantity() > 0 ? cartItem.getQuantity() : 1;
+                        totalAmount += product.getPrice() * units;
+                        if (product.getStock() != null) {
+                                stockLines.add(new StockStore.StockLine(product.getId(), units));
+                        }
                 }
 
-                // Calculate total amount
-                Double totalAmount = orderItems.stream()
-                                .mapToDouble(item -> item.getPrice()
-                                                * (item.getQuantity() > 0 ? item.getQuantity() : 1))
-                                .sum();
-
                 String userName = getUserName(user, address);
                 String userPhoneNumber = address.getPhoneNumber();
                 String shippingAddressStr = String.format("%s, %s, %s, %s, %s, %s - %s",
@@ -161,43 +227,98 @@ public class OrderServiceImpl implements OrderService {
                                 orderItems.getFirst().getProductId(), orderItems.getFirst().getQuantity(),
                                 razorpayOrderId, razorpayPaymentId, razorpaySignature);
 
-                order = orderRepository.save(order);
+                // Link the order, record the purchases and remove only the ordered lines from the cart,
+                // so items added from another tab meanwhile survive
+                List<String> orderedProductIds = orderItems.stream().map(OrderItem::getProductId).toList();
+                order = saveOrderWithStock(order, email, orderedProductIds, stockLines, false);
+                cartStore.removeItems(email, orderedProductIds);
 
-                // Add order ID to user's orders list
-                user.getOrders().add(order.getId());
+                log.info("Cart Order created: {} for user: {}", order.getId(), email);
+                return order;
+        }
 
-                // Add products to user's buying_products
-                for (OrderItem item : orderItems) {
-                        if (!user.getBuyingProducts().contains(item.getProductId())) {
-                                user.getBuyingProducts().add(item.getProductId());
+        /**
+         * The payment is already captured, so running out of stock must not lose the order: it is
+         * saved as backordered instead. Returns whether the stock was reserved.
+         */
+        private boolean reserveForCapturedPayment(Order order, List<StockStore.StockLine> lines) {
+                try {
+                        stockStore.reserve(lines);
+                        return true;
+                } catch (ApiException e) {
+                        if (e.getStatus() != HttpStatus.CONFLICT) {
+                                throw e;
                         }
+                        log.error("Razorpay order {} was paid after its stock sold out, saving it as backordered",
+                                        order.getRazorpayOrderId());
+                        order.setBackordered(true);
+                        return false;
                 }
+        }
 
-                // Clear cart
-                user.getCartItems().clear();
-
-                userRepository.save(user);
-
-                // Send order confirmation email (updated to handle multiple items)
-                String emailUserName = user.getFirstName() + " " + user.getLastName();
-                // Note: Email service might need update to handle lists, for now sending
-                // generic or
-                // loop?
-                // For now, we will just trigger the existing email service for the first item
-                // as a
-                // fallback
-                if (!orderItems.isEmpty()) {
-                        Product firstProduct = productRepository.findById(orderItems.get(0).getProductId())
-                                        .orElse(null);
-                        if (firstProduct != null) {
-                                emailService.sendOrderConfirmationEmail(user.getEmail(), emailUserName, order,
-                                                firstProduct,
-                                                address);
+        /**
+         * Reserves stock for the order's tracked products, all lines or none, unless it is already
+         * held, then saves the order. The stock is put back if the order cannot be saved.
+         */
+        private Order saveOrderWithStock(Order order, String email, List<String> productIds,
+                        List<StockStore.StockLine> lines, boolean alreadyReserved) {
+                if (!lines.isEmpty() && !alreadyReserved) {
+                        stockStore.reserve(lines);
+                }
+
+                try {
+                        return saveOrderAndLinkUser(order, email, productIds);
+                } catch (RuntimeException e) {
+                        if (!lines.isEmpty()) {
+                                stockStore.release(lines);
                         }
+                        throw e;
                 }
+        }
 
-                log.info("Cart Order created: {} for user: {}", order.getId(), email);
-                return order;
+        /**
+         * Inserts the order, links it to the user and records its ORDER_CREATED outbox event
+         * atomically: in one transaction when Mongo transactions are enabled, otherwise by undoing
+         * the earlier writes if a later one fails. The confirmation email and other side effects
+         * are delivered from the outbox, off the request thread.
+         */
+        private Order saveOrderAndLinkUser(Order order, String email, List<String> productIds) {
+                MongoTransactionManager transactionManager = transactionManagerProvider.getIfAvailable();
+                if (transactionManager != null) {
+                        return new TransactionTemplate(transactionManager).execute(status -> {
+                                Order saved = orderRepository.insert(order);
+                                if (!userRepository.recordOrder(email, saved.getId(), productIds)) {
+                                        throw new ApiException(HttpStatus.NOT_FOUND, "User not found");
+                                }
+                                outboxService.record(OutboxEventType.ORDER_CREATED, saved.getId(), email);
+                                return saved;
+                        });
+                }
+
+                // The event goes first so a crash after the order insert cannot lose its side effects
+                order.setId(new ObjectId().toHexString());
+                String eventId = outboxService.record(OutboxEventType.ORDER_CREATED, order.getId(), email).getId();
+                Order saved;
+                try {
+                        saved = orderRepository.insert(order);
+                } catch (RuntimeException e) {
+                        outboxService.discard(eventId);
+                        throw e;
+                }
+                boolean linked;
+                try {
+                        linked = userRepository.recordOrder(email, saved.getId(), productIds);
+                } catch (RuntimeException e) {
+                        orderRepository.deleteById(saved.getId());
+                        outboxService.discard(eventId);
+                        throw e;
+                }
+                if (!linked) {
+                        orderRepository.deleteById(saved.getId());
+                        outboxService.discard(eventId);
+                        throw new ApiException(HttpStatus.NOT_FOUND, "User not found");
+                }
+                return saved;
         }
 
         private String getUserName(User user, Address address) {
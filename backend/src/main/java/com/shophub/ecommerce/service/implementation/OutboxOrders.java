@@ -0,0 +1,27 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.model.Order;
+import com.shophub.ecommerce.model.OutboxEvent;
+import com.shophub.ecommerce.repository.OrderRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+final class OutboxOrders {
+
+    // Without Mongo transactions the event is written before its order, so a young event may
+    // briefly precede it; an old one whose order is missing belongs to a failed checkout
+    private static final Duration ORPHAN_GRACE = Duration.ofMinutes(5);
+
+    private OutboxOrders() {
+    }
+
+    static Optional<Order> find(OrderRepository orderRepository, OutboxEvent event) {
+        Optional<Order> order = orderRepository.findById(event.getAggregateId());
+        if (order.isEmpty() && event.getCreatedAt().plus(ORPHAN_GRACE).isAfter(Instant.now())) {
+            throw new IllegalStateException("Order " + event.getAggregateId() + " is not visible yet");
+        }
+        return order;
+    }
+}
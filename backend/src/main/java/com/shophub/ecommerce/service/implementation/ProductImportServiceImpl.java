@@ -0,0 +1,423 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shophub.ecommerce.dto.ProductImportReport;
+import com.shophub.ecommerce.enums.ProductStatus;
+import com.shophub.ecommerce.event.CatalogReloadEvent;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.service.CloudinaryService;
+import com.shophub.ecommerce.service.ProductImportService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final String IMAGE_FOLDER = "products";
+    private static final List<String> COLUMNS = List.of(
+            "product_name", "product_description", "price", "status", "category", "image_url", "stock");
+
+    private final MongoTemplate mongoTemplate;
+    private final CloudinaryService cloudinaryService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+
+    @Value("${product-import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product-import.image-concurrency:8}")
+    private int imageConcurrency;
+
+    @Value("${product-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${product-import.max-field-length:65536}")
+    private int maxFieldLength;
+
+    @Value("${product-import.max-record-length:262144}")
+    private int maxRecordLength;
+
+    private ExecutorService imageExecutor;
+
+    private record Row(long number, Map<String, String> fields, String parseError) {
+    }
+
+    private record PendingProduct(long row, Product product, String sourceImageUrl) {
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threads = new AtomicInteger();
+        imageExecutor = Executors.newFixedThreadPool(imageConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "product-import-image-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        imageExecutor.shutdownNow();
+    }
+
+    @Override
+    public ProductImportReport importProducts(InputStream input, Format format) throws IOException {
+        long started = System.nanoTime();
+        Report report = new Report(maxReportedErrors);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        skipByteOrderMark(reader);
+        try {
+            RowSource rows = format == Format.CSV ? csvRows(reader) : ndjsonRows(reader);
+
+            List<PendingProduct> batch = new ArrayList<>(batchSize);
+            Row row;
+            while ((row = rows.next()) != null) {
+                report.rowsRead++;
+                if (row.parseError() != null) {
+                    report.fail(row.number(), row.parseError());
+                    continue;
+                }
+                try {
+                    batch.add(toPendingProduct(row));
+                } catch (ApiException e) {
+                    report.fail(row.number(), e.getMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, report);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch, report);
+            }
+        } finally {
+            // Batches already written stay, so caches and catalogs must hear about them even when a
+            // later batch fails. One reload for the whole import instead of a change event per row
+            if (report.imported > 0) {
+                evictProductCaches();
+                eventPublisher.publishEvent(CatalogReloadEvent.local());
+            }
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Product import finished: {} rows, {} imported, {} failed in {} ms",
+                report.rowsRead, report.imported, report.failed, durationMs);
+        return ProductImportReport.builder()
+                .rowsRead(report.rowsRead)
+                .imported(report.imported)
+                .failed(report.failed)
+                .errors(report.errors)
+                .durationMs(durationMs)
+                .rowsPerSecond(durationMs == 0 ? report.rowsRead : report.rowsRead * 1000.0 / durationMs)
+                .build();
+    }
+
+    private void writeBatch(List<PendingProduct> batch, Report report) {
+        List<PendingProduct> ready = resolveImages(batch, report);
+        if (ready.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        ready.forEach(pending -> bulk.insert(pending.product()));
+        try {
+            report.imported += bulk.execute().getInsertedCount();
+        } catch (BulkOperationException e) {
+            report.imported += e.getResult().getInsertedCount();
+            e.getErrors().forEach(error -> report.fail(ready.get(error.getIndex()).row(), error.getMessage()));
+        }
+    }
+
+    /**
+     * Moves external images into Cloudinary with at most {@code imageConcurrency} uploads in
+     * flight. Rows whose image cannot be fetched are reported and left out of the batch.
+     */
+    private List<PendingProduct> resolveImages(List<PendingProduct> batch, Report report) {
+        List<Future<String>> uploads = new ArrayList<>(batch.size());
+        for (PendingProduct pending : batch) {
+            String source = pending.sourceImageUrl();
+            uploads.add(source != null && !isHosted(source)
+                    ? imageExecutor.submit(() -> cloudinaryService.uploadImageFromUrl(source, IMAGE_FOLDER))
+                    : null);
+        }
+
+        List<PendingProduct> ready = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingProduct pending = batch.get(i);
+            Future<String> upload = uploads.get(i);
+            if (upload == null) {
+                ready.add(pending);
+                continue;
+            }
+            try {
+                pending.product().setImage(upload.get());
+                ready.add(pending);
+            } catch (ExecutionException e) {
+                report.fail(pending.row(), "Image upload failed: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                uploads.forEach(pendingUpload -> {
+                    if (pendingUpload != null) {
+                        pendingUpload.cancel(true);
+                    }
+                });
+                throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Import interrupted");
+            }
+        }
+        return ready;
+    }
+
+    private PendingProduct toPendingProduct(Row row) {
+        Map<String, String> fields = row.fields();
+
+        String name = trimToNull(fields.get("product_name"));
+        if (name == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "product_name is required");
+        }
+
+        double price;
+        try {
+            price = Double.parseDouble(Objects.requireNonNullElse(trimToNull(fields.get("price")), ""));
+        } catch (NumberFormatException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "price must be a number");
+        }
+        if (!Double.isFinite(price) || price < 0) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "price must be zero or positive");
+        }
+
+        ProductStatus status = ProductStatus.IN_STOCK;
+        String rawStatus = trimToNull(fields.get("status"));
+        if (rawStatus != null) {
+            try {
+                status = ProductStatus.valueOf(rawStatus.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid status: " + rawStatus);
+            }
+        }
+
+        Integer stock = null;
+        String rawStock = trimToNull(fields.get("stock"));
+        if (rawStock != null) {
+            try {
+                stock = Integer.parseInt(rawStock);
+            } catch (NumberFormatException e) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "stock must be a whole number");
+            }
+            if (stock < 0) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "stock cannot be negative");
+            }
+            status = stock > 0 ? ProductStatus.IN_STOCK : ProductStatus.OUT_OF_STOCK;
+        }
+
+        String imageUrl = trimToNull(fields.get("image_url"));
+        if (imageUrl != null && !isHttpUrl(imageUrl)) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "image_url must be an http(s) URL");
+        }
+
+        Instant now = Instant.now();
+        Product product = Product.builder()
+                .productName(name)
+                .productDescription(trimToNull(fields.get("product_description")))
+                .price(price)
+                .stock(stock)
+                .status(status)
+                .category(trimToNull(fields.get("category")))
+                .image(imageUrl)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        return new PendingProduct(row.number(), product, imageUrl);
+    }
+
+    private void evictProductCaches() {
+        for (String name : List.of("allProducts_v2", "products_v2")) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    // Spreadsheet exports often start with a UTF-8 byte order mark, which would stick to the first column
+    private static void skipByteOrderMark(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    private interface RowSource {
+        Row next() throws IOException;
+    }
+
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvRowReader csv = new CsvRowReader(reader, maxFieldLength, maxRecordLength);
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        List<String> columns = header.stream().map(column -> column.trim().toLowerCase(Locale.ROOT)).toList();
+        if (!columns.contains("product_name") || !columns.contains("price")) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "CSV header must include product_name and price");
+        }
+
+        long[] number = { 0 };
+        boolean[] stopped = { false };
+        return () -> {
+            if (stopped[0]) {
+                return null;
+            }
+            List<String> values;
+            try {
+                values = csv.next();
+            } catch (CsvRowReader.LimitExceededException e) {
+                // Where the next record starts is unknown, so the rest of the file is not read
+                stopped[0] = true;
+                return new Row(number[0] + 1, Map.of(), e.getMessage() + "; the rest of the file was skipped");
+            }
+            if (values == null) {
+                return null;
+            }
+            number[0]++;
+            if (values.size() != columns.size()) {
+                return new Row(number[0], Map.of(),
+                        "Expected " + columns.size() + " columns but found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                fields.put(columns.get(i), values.get(i));
+            }
+            return new Row(number[0], fields, null);
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] number = { 0 };
+        StringBuilder line = new StringBuilder();
+        return () -> {
+            do {
+                if (!readLine(reader, line)) {
+                    return null;
+                }
+                number[0]++;
+            } while (line.toString().isBlank());
+
+            if (line.length() > maxRecordLength) {
+                // Unlike CSV the next record starts at the next newline, so only this row is lost
+                return new Row(number[0], Map.of(), "Line longer than " + maxRecordLength + " characters");
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line.toString());
+            } catch (IOException e) {
+                return new Row(number[0], Map.of(), "Malformed JSON");
+            }
+            if (!node.isObject()) {
+                return new Row(number[0], Map.of(), "Each line must be a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (String column : COLUMNS) {
+                JsonNode value = node.get(column);
+                if (value != null && !value.isNull()) {
+                    fields.put(column, value.asText());
+                }
+            }
+            return new Row(number[0], fields, null);
+        };
+    }
+
+    /**
+     * Reads the next line into {@code line} without its terminator, keeping at most
+     * {@code maxRecordLength + 1} characters and skipping the rest. Returns false at end of input.
+     */
+    private boolean readLine(BufferedReader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int c = reader.read();
+        if (c < 0) {
+            return false;
+        }
+        boolean truncated = false;
+        while (c >= 0 && c != '\n') {
+            if (line.length() <= maxRecordLength) {
+                line.append((char) c);
+            } else {
+                truncated = true;
+            }
+            c = reader.read();
+        }
+        if (!truncated && !line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        return true;
+    }
+
+    private static boolean isHosted(String url) {
+        return url.contains("res.cloudinary.com/");
+    }
+
+    private static boolean isHttpUrl(String url) {
+        try {
+            URI uri = URI.create(url);
+            return ("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))
+                    && uri.getHost() != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static final class Report {
+        final int maxErrors;
+        final List<ProductImportReport.RowError> errors = new ArrayList<>();
+        long rowsRead;
+        long imported;
+        long failed;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(long row, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportReport.RowError(row, message));
+            }
+        }
+    }
+}
@@ -1,39 +1,211 @@
 package com.shophub.ecommerce.service.implementation;
 
+import com.shophub.ecommerce.dto.CatalogDeltaResponse;
+import com.shophub.ecommerce.dto.CatalogSyncToken;
+import com.shophub.ecommerce.dto.CursorPage;
+import com.shophub.ecommerce.dto.FacetCount;
+import com.shophub.ecommerce.dto.PageCursor;
+import com.shophub.ecommerce.dto.ProductFilterResponse;
 import com.shophub.ecommerce.dto.ProductResponse;
+import com.shophub.ecommerce.dto.ProductSummaryResponse;
+import com.shophub.ecommerce.dto.SuggestionResponse;
+import com.shophub.ecommerce.event.CatalogReloadEvent;
+import com.shophub.ecommerce.event.ImageUploadEvent;
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import com.shophub.ecommerce.event.StockStatusEvent;
 import com.shophub.ecommerce.exception.ApiException;
 import com.shophub.ecommerce.mapper.ProductMapper;
 import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.model.ProductTombstone;
+import com.shophub.ecommerce.enums.ImageStatus;
 import com.shophub.ecommerce.enums.ProductStatus;
 import com.shophub.ecommerce.repository.ProductRepository;
-import com.shophub.ecommerce.service.CloudinaryService;
+import com.shophub.ecommerce.repository.ProductRepositoryCustom;
+import com.shophub.ecommerce.repository.ProductTombstoneRepository;
+import com.shophub.ecommerce.search.ProductFacetIndex;
+import com.shophub.ecommerce.search.ProductFilter;
+import com.shophub.ecommerce.search.ProductSearchIndex;
+import com.shophub.ecommerce.search.ProductSuggestIndex;
+import com.shophub.ecommerce.service.ImageUploadService;
 import com.shophub.ecommerce.service.ProductService;
+import com.shophub.ecommerce.service.StockStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int CATALOG_BATCH_SIZE = 1000;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int DEFAULT_SUGGESTIONS = 8;
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int DEFAULT_DELTA_SIZE = 500;
+    private static final int MAX_DELTA_SIZE = 1000;
+    // Overlap between sync windows so writes stamped slightly before a read are not missed
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
     private final ProductRepository productRepository;
-    private final CloudinaryService cloudinaryService;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ImageUploadService imageUploadService;
+    private final StockStore stockStore;
     private final ProductMapper productMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    // @Cacheable(value = "allProducts_v2")
+    @Cacheable(value = "allProducts_v2", sync = true)
     @Override
     public List<ProductResponse> getAllProducts() {
-        List<Product> products = productRepository.findAll();
+        // Compatibility wrapper over the listing: every page of it, descriptions included
+        List<Product> products = productRepository.findAllInListingOrder(CATALOG_BATCH_SIZE);
+        // Mutable list: the cache serializer needs a concrete type it can instantiate
         return products.stream()
                 .map(productMapper::toProductResponse)
-                .toList();
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CursorPage<ProductSummaryResponse> listProducts(String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor after = PageCursor.decode(cursor);
+
+        // Fetch one extra row to learn whether another page exists
+        List<Product> products = productRepository.findListingPage(
+                after != null ? after.timestamp() : null,
+                after != null ? after.id() : null,
+                pageSize + 1);
+
+        boolean hasMore = products.size() > pageSize;
+        List<Product> page = hasMore ? products.subList(0, pageSize) : products;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Product last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(ProductRepositoryCustom.createdAtOf(last), last.getId()).encode();
+        }
+
+        return CursorPage.<ProductSummaryResponse>builder()
+                .items(page.stream().map(productMapper::toProductSummaryResponse).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    public ProductFilterResponse filterProducts(List<String> categories, List<String> statuses,
+            Double minPrice, Double maxPrice, String sort, Integer page, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "min_price must not exceed max_price");
+        }
+
+        Set<ProductStatus> statusFilter = EnumSet.noneOf(ProductStatus.class);
+        if (statuses != null) {
+            for (String status : statuses) {
+                statusFilter.add(parseEnum(ProductStatus.class, status, "Invalid status: " + status));
+            }
+        }
+        ProductFilter.Sort order = sort == null || sort.isBlank()
+                ? ProductFilter.Sort.NEWEST
+                : parseEnum(ProductFilter.Sort.class, sort, "Invalid sort: " + sort);
+
+        ProductFilter filter = new ProductFilter(
+                categories != null ? Set.copyOf(categories) : Set.of(),
+                statusFilter, minPrice, maxPrice, order, pageNumber * pageSize, pageSize);
+        ProductFacetIndex.Result result = productFacetIndex.query(filter);
+
+        Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+        result.facets().forEach((dimension, counts) -> facets.put(dimension, counts.entrySet().stream()
+                .map(entry -> new FacetCount(entry.getKey(), entry.getValue()))
+                .toList()));
+
+        return ProductFilterResponse.builder()
+                .items(result.products().stream().map(productMapper::toProductSummaryResponse).toList())
+                .total(result.total())
+                .page(pageNumber)
+                .size(pageSize)
+                .facets(facets)
+                .build();
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String message) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, message);
+        }
+    }
+
+    @Override
+    public CatalogDeltaResponse getCatalogChanges(String since, Integer size) {
+        int pageSize = size == null ? DEFAULT_DELTA_SIZE : Math.max(1, Math.min(size, MAX_DELTA_SIZE));
+        Instant windowEnd = Instant.now().minus(SYNC_OVERLAP);
+        CatalogSyncToken after = CatalogSyncToken.decode(since);
+
+        // Tombstones older than the retention window are gone, so such a client has to start over
+        boolean fullResync = after == null
+                || after.deletedSince().isBefore(Instant.now().minus(ProductTombstone.RETENTION));
+        if (fullResync) {
+            after = null;
+        }
+        Instant deletedSince = after != null ? after.deletedSince() : windowEnd;
+
+        List<Product> products = productRepository.findChangedSince(
+                after != null ? after.updatedAt() : null,
+                after != null ? after.id() : null,
+                windowEnd,
+                pageSize + 1);
+
+        boolean hasMore = products.size() > pageSize;
+        List<Product> page = hasMore ? products.subList(0, pageSize) : products;
+
+        CatalogSyncToken next;
+        List<String> deletedIds;
+        if (hasMore) {
+            // Capped at windowEnd, so the cursor never runs ahead of writes still being stamped
+            Product last = page.get(page.size() - 1);
+            next = new CatalogSyncToken(last.getUpdatedAt(), last.getId(), deletedSince);
+            deletedIds = List.of();
+        } else {
+            // Deletes are reported once the client has caught up; re-sent items are upserts on the client
+            next = new CatalogSyncToken(windowEnd, "", windowEnd);
+            deletedIds = productTombstoneRepository.findByDeletedAtGreaterThanEqual(deletedSince).stream()
+                    .map(ProductTombstone::getProductId)
+                    .toList();
+        }
+
+        return CatalogDeltaResponse.builder()
+                .fullResync(fullResync)
+                .products(page.stream().map(productMapper::toProductResponse).toList())
+                .deletedIds(deletedIds)
+                .nextSince(next.encode())
+                .hasMore(hasMore)
+                .build();
     }
 
     @Override
@@ -46,48 +218,115 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @CacheEvict(value = { "allProducts_v2", "products_v2" }, allEntries = true)
     public Product addProduct(String productName, String productDescription, double price,
-            ProductStatus status, String category, MultipartFile image) throws IOException {
-        String imageUrl = cloudinaryService.uploadImage(image, "products");
+            ProductStatus status, String category, Integer stock, MultipartFile image) throws IOException {
+        if (stock != null && stock < 0) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Stock cannot be negative");
+        }
+        // Only the spool happens on the request thread; the URL is filled in when the upload finishes
+        ImageUploadService.PendingUpload upload = imageUploadService.accept(image, "products");
 
         Product product = Product.builder()
                 .productName(productName)
                 .productDescription(productDescription)
                 .price(price)
-                .status(status != null ? status : ProductStatus.IN_STOCK)
+                .stock(stock)
+                .status(stock != null ? statusFor(stock) : status != null ? status : ProductStatus.IN_STOCK)
                 .category(category)
-                .image(imageUrl)
+                .image("")
+                .imageStatus(ImageStatus.PENDING)
+                .imageUploadToken(upload.token())
+                .imageUploadStartedAt(Instant.now())
                 .build();
 
-        return productRepository.save(product);
+        try {
+            product = productRepository.save(product);
+        } catch (RuntimeException e) {
+            upload.discard();
+            throw e;
+        }
+        upload.start(ImageUploadEvent.Target.PRODUCT, product.getId());
+        eventPublisher.publishEvent(ProductChangeEvent.saved(product));
+        return product;
+    }
+
+    /**
+     * Products saved before the audit timestamps were recorded would sort after every page of the
+     * listing, and past the first page of the change feed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @CacheEvict(value = { "allProducts_v2", "products_v2" }, allEntries = true)
+    public void backfillTimestamps() {
+        long created = productRepository.backfillCreatedAt();
+        long updated = productRepository.backfillUpdatedAt();
+        if (created > 0 || updated > 0) {
+            log.info("Backfilled createdAt on {} and updatedAt on {} legacy products", created, updated);
+            eventPublisher.publishEvent(CatalogReloadEvent.local());
+        }
+    }
+
+    @EventListener(condition = "#event.target().name() == 'PRODUCT'")
+    @CacheEvict(value = { "allProducts_v2", "products_v2" }, allEntries = true)
+    public void onImageUploaded(ImageUploadEvent event) {
+        Product updated = productRepository.setImage(event.ownerId(), event.uploadToken(), event.url(),
+                event.status());
+        if (updated != null) {
+            eventPublisher.publishEvent(ProductChangeEvent.saved(updated));
+        }
+    }
+
+    @EventListener
+    @CacheEvict(value = { "allProducts_v2", "products_v2" }, allEntries = true)
+    public void onStockStatusChange(StockStatusEvent event) {
+        // Reload: flips from concurrent checkouts can arrive out of order
+        productRepository.findById(event.product().getId())
+                .ifPresent(product -> eventPublisher.publishEvent(ProductChangeEvent.saved(product)));
+    }
+
+    @Override
+    @CacheEvict(value = { "allProducts_v2", "products_v2" }, allEntries = true)
+    public Product updateStock(String id, Integer stock) {
+        if (stock != null && stock < 0) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Stock cannot be negative");
+        }
+        Product product = stockStore.setStock(id, stock);
+        if (product == null) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        eventPublisher.publishEvent(ProductChangeEvent.saved(product));
+        return product;
     }
 
     @Override
     @CacheEvict(value = { "allProducts_v2", "products_v2" }, allEntries = true)
     public Product updateProduct(String id, String productName, String productDescription,
             Double price, String image, ProductStatus status, String category) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Product not found"));
-
+        // Only the given fields are written, so a concurrent stock reservation is not overwritten
+        Map<String, Object> changes = new LinkedHashMap<>();
         if (productName != null && !productName.trim().isEmpty()) {
-            product.setProductName(productName);
+            changes.put("product_name", productName);
         }
         if (productDescription != null && !productDescription.trim().isEmpty()) {
-            product.setProductDescription(productDescription);
+            changes.put("product_description", productDescription);
         }
         if (price != null) {
-            product.setPrice(price);
+            changes.put("price", price);
         }
         if (image != null && !image.trim().isEmpty()) {
-            product.setImage(image);
+            changes.put("image", image);
         }
         if (status != null) {
-            product.setStatus(status);
+            changes.put("status", status);
         }
         if (category != null && !category.trim().isEmpty()) {
-            product.setCategory(category);
+            changes.put("category", category);
         }
 
-        return productRepository.save(product);
+        Product product = productRepository.updateFields(id, changes);
+        if (product == null) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        eventPublisher.publishEvent(ProductChangeEvent.saved(product));
+        return product;
     }
 
     @Override
@@ -96,14 +335,27 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Product not found"));
         productRepository.delete(product);
+        productTombstoneRepository.save(new ProductTombstone(product.getId(), Instant.now()));
+        eventPublisher.publishEvent(ProductChangeEvent.deleted(product));
         return product;
     }
 
     @Override
     public List<ProductResponse> searchProducts(String keyword) {
-        List<Product> products = productRepository.findByProductNameContainingIgnoreCase(keyword);
-        return products.stream()
+        return productSearchIndex.search(keyword, MAX_SEARCH_RESULTS).stream()
                 .map(productMapper::toProductResponse)
                 .toList();
     }
+
+    @Override
+    public List<SuggestionResponse> suggest(String prefix, Integer limit) {
+        int count = limit == null ? DEFAULT_SUGGESTIONS : Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return productSuggestIndex.suggest(prefix, count).stream()
+                .map(suggestion -> new SuggestionResponse(suggestion.text(), suggestion.type().name()))
+                .toList();
+    }
+
+    private static ProductStatus statusFor(int stock) {
+        return stock > 0 ? ProductStatus.IN_STOCK : ProductStatus.OUT_OF_STOCK;
+    }
 }
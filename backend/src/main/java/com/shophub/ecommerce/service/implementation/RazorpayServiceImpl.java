@@ -12,6 +12,8 @@ import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 @Slf4j
 @Service
 @Getter
@@ -27,18 +29,25 @@ public class RazorpayServiceImpl implements RazorpayService {
     private String keySecret;
 
     @Override
-    public Order createOrder(double amount, String currency, String receipt) throws RazorpayException {
+    public Order createOrder(double amount, String currency, String receipt, Map<String, Object> notes)
+            throws RazorpayException {
         JSONObject orderRequest = new JSONObject();
         orderRequest.put("amount", (int) (amount * 100)); // Convert to paise
         orderRequest.put("currency", currency);
         orderRequest.put("receipt", receipt);
         orderRequest.put("payment_capture", 1);
+        orderRequest.put("notes", new JSONObject(notes));
 
         Order order = razorpayClient.orders.create(orderRequest);
         log.info("Razorpay order created: {}", (Object) order.get("id"));
         return order;
     }
 
+    @Override
+    public Order fetchOrder(String orderId) throws RazorpayException {
+        return razorpayClient.orders.fetch(orderId);
+    }
+
     @Override
     public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) throws RazorpayException {
         JSONObject attributes = new JSONObject();
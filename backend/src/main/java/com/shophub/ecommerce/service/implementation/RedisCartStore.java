@@ -0,0 +1,127 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Cart store shared by all nodes: one Redis hash per cart (productId -> quantity). Changed carts
+ * are tracked in a Redis set so any node can persist them.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.store", havingValue = "redis")
+public class RedisCartStore extends WriteBehindCartStore {
+
+    private static final String KEY_PREFIX = "cart:";
+    private static final String DIRTY_KEY = "cart:dirty";
+
+    // Marks a loaded cart so an empty cart is distinguishable from one not yet read from Mongo
+    private static final String LOADED_FIELD = "_loaded";
+
+    private static final RedisScript<Long> INIT_IF_ABSENT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+                    + "redis.call('HSET', KEYS[1], unpack(ARGV)) return 1",
+            Long.class);
+
+    private static final RedisScript<Long> SET_IF_PRESENT = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then return 0 end "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration cartTtl;
+
+    public RedisCartStore(UserRepository userRepository, StringRedisTemplate redisTemplate,
+            @Value("${cart.redis.ttl:7d}") Duration cartTtl) {
+        super(userRepository);
+        this.redisTemplate = redisTemplate;
+        this.cartTtl = cartTtl;
+    }
+
+    @Override
+    public List<CartItem> getCart(String email) {
+        String key = ensureLoaded(email);
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(key);
+        List<CartItem> items = new ArrayList<>(entries.size());
+        entries.forEach((productId, quantity) -> {
+            if (!LOADED_FIELD.equals(productId)) {
+                items.add(new CartItem((String) productId, Integer.parseInt((String) quantity)));
+            }
+        });
+        return items;
+    }
+
+    @Override
+    public boolean addItem(String email, String productId, int quantity) {
+        String key = ensureLoaded(email);
+        if (!Boolean.TRUE.equals(redisTemplate.opsForHash().putIfAbsent(key, productId, String.valueOf(quantity)))) {
+            return false;
+        }
+        touch(email, key);
+        return true;
+    }
+
+    @Override
+    public boolean setQuantity(String email, String productId, int quantity) {
+        String key = ensureLoaded(email);
+        Long updated = redisTemplate.execute(SET_IF_PRESENT, List.of(key), productId, String.valueOf(quantity));
+        if (updated == null || updated == 0) {
+            return false;
+        }
+        touch(email, key);
+        return true;
+    }
+
+    @Override
+    public void removeItems(String email, Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        String key = ensureLoaded(email);
+        Long removed = redisTemplate.opsForHash().delete(key, productIds.toArray());
+        if (removed != null && removed > 0) {
+            touch(email, key);
+        }
+    }
+
+    @Override
+    protected void markDirty(String email) {
+        redisTemplate.opsForSet().add(DIRTY_KEY, email);
+    }
+
+    @Override
+    protected Collection<String> drainDirty(int max) {
+        List<String> drained = redisTemplate.opsForSet().pop(DIRTY_KEY, max);
+        return drained != null ? drained : List.of();
+    }
+
+    private String ensureLoaded(String email) {
+        String key = KEY_PREFIX + email;
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+            return key;
+        }
+        List<String> fields = new ArrayList<>();
+        fields.add(LOADED_FIELD);
+        fields.add("1");
+        for (CartItem item : loadFromDatabase(email)) {
+            fields.add(item.getProductId());
+            fields.add(String.valueOf(item.getQuantity()));
+        }
+        redisTemplate.execute(INIT_IF_ABSENT, List.of(key), fields.toArray());
+        redisTemplate.expire(key, cartTtl);
+        return key;
+    }
+
+    private void touch(String email, String key) {
+        markDirty(email);
+        redisTemplate.expire(key, cartTtl);
+    }
+}
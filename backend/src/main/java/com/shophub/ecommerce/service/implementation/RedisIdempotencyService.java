@@ -0,0 +1,241 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shophub.ecommerce.dto.ApiResponse;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.service.IdempotencyService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one Redis key per request. {@code SET NX} with a short TTL claims it while the request
+ * runs, and the claim is renewed every third of {@code lock-ttl} for as long as it does, so a slow
+ * request is not run twice; a claim left behind by a crashed node expires after {@code lock-ttl}.
+ * On success the key is overwritten with the status code and response body for the replay window.
+ * Both forms carry a SHA-256 fingerprint of the request, so a key reused for another request is
+ * refused instead of replaying the wrong response.
+ * <p>
+ * Values are {@code -:<claim token>:<fingerprint>} while running and
+ * {@code <status>:<fingerprint>:<body JSON>} once stored. Writes after the claim compare the token
+ * first, so a request whose claim was lost never overwrites another's.
+ */
+@Slf4j
+@Service
+public class RedisIdempotencyService implements IdempotencyService {
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String IN_FLIGHT = "-";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_MS = 50;
+
+    // ARGV: claim value, lease in ms
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end "
+                    + "return 0",
+            Long.class);
+
+    // ARGV: claim value, stored response, ttl in ms
+    private static final RedisScript<Long> COMPLETE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) "
+                    + "return 1 end return 0",
+            Long.class);
+
+    // ARGV: claim value
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper fingerprintMapper;
+    private final Duration ttl;
+    private final Duration lockTtl;
+    private final Duration inFlightWait;
+    private final ScheduledExecutorService renewer;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder lostClaims = new LongAdder();
+
+    public RedisIdempotencyService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+            @Value("${idempotency.ttl:24h}") Duration ttl,
+            @Value("${idempotency.lock-ttl:60s}") Duration lockTtl,
+            @Value("${idempotency.in-flight-wait:5s}") Duration inFlightWait) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        // Sorted keys so the same request always hashes the same
+        this.fingerprintMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.ttl = ttl;
+        this.lockTtl = lockTtl;
+        this.inFlightWait = inFlightWait;
+        this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    @Override
+    public ResponseEntity<ApiResponse> execute(String scope, String owner, String key, Object request,
+            Supplier<ResponseEntity<ApiResponse>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Idempotency key is too long");
+        }
+        String redisKey = KEY_PREFIX + scope + ":" + owner + ":" + key;
+        String fingerprint = fingerprint(request);
+        String claim = IN_FLIGHT + ":" + UUID.randomUUID() + ":" + fingerprint;
+
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, claim, lockTtl))) {
+            return replay(redisKey, fingerprint);
+        }
+
+        ScheduledFuture<?> renewal = scheduleRenewal(redisKey, claim);
+        ResponseEntity<ApiResponse> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Let the client retry a failed request
+            release(redisKey, claim);
+            throw e;
+        } finally {
+            renewal.cancel(false);
+        }
+        executed.increment();
+
+        if (response.getStatusCode().is2xxSuccessful()) {
+            try {
+                String stored = response.getStatusCode().value() + ":" + fingerprint + ":"
+                        + objectMapper.writeValueAsString(response.getBody());
+                Long written = redisTemplate.execute(COMPLETE, List.of(redisKey), claim, stored,
+                        String.valueOf(ttl.toMillis()));
+                if (written == null || written == 0) {
+                    lostClaims.increment();
+                    log.error("Claim on idempotency key {} was lost while the request ran", redisKey);
+                }
+            } catch (JsonProcessingException | RuntimeException e) {
+                // The request already ran; a retry after the claim expires would run it again
+                log.error("Could not store response for idempotency key {}", redisKey, e);
+            }
+        } else {
+            release(redisKey, claim);
+        }
+        return response;
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executed", executed.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("in_flight_conflicts", conflicts.sum());
+        stats.put("fingerprint_mismatches", mismatches.sum());
+        stats.put("lost_claims", lostClaims.sum());
+        return stats;
+    }
+
+    private ScheduledFuture<?> scheduleRenewal(String redisKey, String claim) {
+        long period = Math.max(lockTtl.toMillis() / 3, 1);
+        return renewer.scheduleAtFixedRate(() -> {
+            try {
+                redisTemplate.execute(RENEW, List.of(redisKey), claim, String.valueOf(lockTtl.toMillis()));
+            } catch (RuntimeException e) {
+                log.warn("Could not renew claim on idempotency key {}", redisKey, e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void release(String redisKey, String claim) {
+        redisTemplate.execute(RELEASE, List.of(redisKey), claim);
+    }
+
+    private ResponseEntity<ApiResponse> replay(String redisKey, String fingerprint) {
+        long deadline = System.nanoTime() + inFlightWait.toNanos();
+        String stored = redisTemplate.opsForValue().get(redisKey);
+        while (stored != null && stored.startsWith(IN_FLIGHT + ":")) {
+            checkFingerprint(stored.split(":", 3)[2], fingerprint);
+            if (System.nanoTime() >= deadline) {
+                conflicts.increment();
+                throw new ApiException(HttpStatus.CONFLICT, "A request with this idempotency key is still in progress");
+            }
+            try {
+                Thread.sleep(POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                conflicts.increment();
+                throw new ApiException(HttpStatus.CONFLICT, "A request with this idempotency key is still in progress");
+            }
+            stored = redisTemplate.opsForValue().get(redisKey);
+        }
+
+        if (stored == null) {
+            // The first request failed and released the key; ask the client to retry
+            conflicts.increment();
+            throw new ApiException(HttpStatus.CONFLICT, "The original request failed, please retry");
+        }
+
+        String[] parts = stored.split(":", 3);
+        checkFingerprint(parts[1], fingerprint);
+        try {
+            ApiResponse body = objectMapper.readValue(parts[2], ApiResponse.class);
+            replayed.increment();
+            return ResponseEntity.status(Integer.parseInt(parts[0]))
+                    .header(REPLAYED_HEADER, "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Stored response could not be read");
+        }
+    }
+
+    private void checkFingerprint(String stored, String fingerprint) {
+        if (!stored.equals(fingerprint)) {
+            mismatches.increment();
+            throw new ApiException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "This idempotency key was already used for a different request");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = fingerprintMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Request could not be fingerprinted");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
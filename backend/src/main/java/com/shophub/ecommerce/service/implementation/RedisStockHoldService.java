@@ -0,0 +1,166 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.service.StockHoldService;
+import com.shophub.ecommerce.service.StockStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds live in a Redis sorted set scored by expiry time, with each hold's lines in a hash next to
+ * it. Expiry is a range read from the low end of the set, so a sweep costs O(log n + expired)
+ * however many holds are live. The sweep leases an expired hold before releasing its stock and
+ * removes it only once the release succeeded, so a sweeper that dies mid-release leaves the hold
+ * for the next sweep instead of losing the stock. A leased hold can no longer be converted, so a
+ * hold is never both sold and released.
+ */
+@Slf4j
+@Service
+public class RedisStockHoldService implements StockHoldService {
+
+    private static final String EXPIRY_KEY = "stock:holds";
+    private static final String HOLD_PREFIX = "stock:hold:";
+
+    // ARGV: hold id, email, expected lines. Returns the lines field, or nil. Leaves a hold for other
+    // lines in place and returns it prefixed with '!'
+    private static final RedisScript<String> CONVERT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[2], 'email') ~= ARGV[2] then return nil end "
+                    + "if redis.call('HEXISTS', KEYS[2], 'releasing') == 1 then return nil end "
+                    + "local lines = redis.call('HGET', KEYS[2], 'lines') "
+                    + "if lines ~= ARGV[3] then return '!' .. lines end "
+                    + "if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 then return nil end "
+                    + "redis.call('DEL', KEYS[2]) return lines",
+            String.class);
+
+    // ARGV: now, batch size, lease deadline. Leases expired holds by pushing their expiry to the
+    // deadline and marking them as releasing, and returns their ids
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_EXPIRED = new DefaultRedisScript<>(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) "
+                    + "for _, id in ipairs(ids) do "
+                    + "redis.call('ZADD', KEYS[1], 'XX', ARGV[3], id) "
+                    + "redis.call('HSET', KEYS[2] .. id, 'releasing', '1') end "
+                    + "return ids",
+            List.class);
+
+    private final StockStore stockStore;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final int sweepBatch;
+    private final Duration sweepLease;
+
+    private final LongAdder placed = new LongAdder();
+    private final LongAdder converted = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder missed = new LongAdder();
+
+    public RedisStockHoldService(StockStore stockStore, StringRedisTemplate redisTemplate,
+            @Value("${stock-hold.ttl:15m}") Duration ttl,
+            @Value("${stock-hold.sweep-batch:500}") int sweepBatch,
+            @Value("${stock-hold.sweep-lease:30s}") Duration sweepLease) {
+        this.stockStore = stockStore;
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.sweepBatch = sweepBatch;
+        this.sweepLease = sweepLease;
+    }
+
+    @Override
+    public void place(String holdId, String email, List<StockStore.StockLine> lines) {
+        stockStore.reserve(lines);
+        try {
+            String key = HOLD_PREFIX + holdId;
+            redisTemplate.opsForHash().putAll(key, Map.of("email", email, "lines", encode(lines)));
+            // Outlives the expiry entry by a wide margin so a late sweep can still read the lines
+            redisTemplate.expire(key, ttl.plusDays(1));
+            redisTemplate.opsForZSet().add(EXPIRY_KEY, holdId, System.currentTimeMillis() + ttl.toMillis());
+        } catch (RuntimeException e) {
+            stockStore.release(lines);
+            throw e;
+        }
+        placed.increment();
+    }
+
+    @Override
+    public boolean convert(String holdId, String email, List<StockStore.StockLine> lines) {
+        String held = redisTemplate.execute(CONVERT, List.of(EXPIRY_KEY, HOLD_PREFIX + holdId),
+                holdId, email, encode(lines));
+        if (held == null) {
+            missed.increment();
+            return false;
+        }
+        if (held.startsWith("!")) {
+            throw new ApiException(HttpStatus.BAD_REQUEST,
+                    "Order does not match the items held for payment " + holdId);
+        }
+        converted.increment();
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", redisTemplate.opsForZSet().zCard(EXPIRY_KEY));
+        stats.put("placed", placed.sum());
+        stats.put("converted", converted.sum());
+        stats.put("expired", expired.sum());
+        stats.put("convert_misses", missed.sum());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${stock-hold.sweep-interval-ms:1000}")
+    public void releaseExpired() {
+        List<String> ids;
+        do {
+            long now = System.currentTimeMillis();
+            @SuppressWarnings("unchecked")
+            List<String> claimed = redisTemplate.execute(CLAIM_EXPIRED, List.of(EXPIRY_KEY, HOLD_PREFIX),
+                    String.valueOf(now), String.valueOf(sweepBatch), String.valueOf(now + sweepLease.toMillis()));
+            ids = claimed != null ? claimed : List.of();
+            for (String id : ids) {
+                String key = HOLD_PREFIX + id;
+                Object lines = redisTemplate.opsForHash().get(key, "lines");
+                if (lines != null) {
+                    try {
+                        stockStore.release(decode((String) lines));
+                    } catch (RuntimeException e) {
+                        // Still leased, so the first sweep after the lease runs out retries it
+                        log.error("Failed to release expired hold {}", id, e);
+                        continue;
+                    }
+                }
+                redisTemplate.opsForZSet().remove(EXPIRY_KEY, id);
+                redisTemplate.delete(key);
+                expired.increment();
+            }
+        } while (ids.size() == sweepBatch);
+    }
+
+    private static String encode(List<StockStore.StockLine> lines) {
+        StringJoiner joiner = new StringJoiner(",");
+        lines.forEach(line -> joiner.add(line.productId() + ":" + line.quantity()));
+        return joiner.toString();
+    }
+
+    private static List<StockStore.StockLine> decode(String lines) {
+        List<StockStore.StockLine> decoded = new ArrayList<>();
+        for (String line : lines.split(",")) {
+            int colon = line.lastIndexOf(':');
+            if (colon > 0) {
+                decoded.add(new StockStore.StockLine(line.substring(0, colon),
+                        Integer.parseInt(line.substring(colon + 1))));
+            }
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,252 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.event.StockStatusEvent;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.service.StockStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock served from Redis for hot products. Each product's count is split over a few stripe keys
+ * so concurrent buyers mostly hit different keys (and, on a cluster, different shards); a buyer
+ * starts at a random stripe and moves on when it runs dry. Stripes are seeded from Mongo on first
+ * use. Net changes are accumulated in a hash and applied to the product documents on a fixed
+ * delay, which is also when the product status follows the count.
+ * <p>
+ * Once seeded, Redis is the source of truth for a product's stock; the Mongo count trails it by
+ * up to one reconcile interval.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "inventory.store", havingValue = "redis")
+public class RedisStockStore implements StockStore {
+
+    private static final String KEY_PREFIX = "stock:";
+    private static final String PENDING_KEY = "stock:pending";
+    private static final String RECONCILE_LOCK_KEY = "stock:pending:lock";
+
+    // Takes up to ARGV[1] units from a stripe; -1 when the stripe has not been seeded
+    private static final RedisScript<Long> TAKE = new DefaultRedisScript<>(
+            "local v = redis.call('GET', KEYS[1]) if not v then return -1 end "
+                    + "local take = math.min(tonumber(v), tonumber(ARGV[1])) "
+                    + "if take > 0 then redis.call('DECRBY', KEYS[1], take) end return take",
+            Long.class);
+
+    private static final RedisScript<Long> GIVE_BACK_IF_PRESENT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "redis.call('INCRBY', KEYS[1], ARGV[1]) return 1",
+            Long.class);
+
+    // Takes back ARGV[1] from a pending delta once it is in Mongo, dropping the field when it reaches zero
+    private static final RedisScript<Long> SETTLE_PENDING = new DefaultRedisScript<>(
+            "local left = redis.call('HINCRBY', KEYS[1], ARGV[1], -tonumber(ARGV[2])) "
+                    + "if left == 0 then redis.call('HDEL', KEYS[1], ARGV[1]) end return left",
+            Long.class);
+
+    private static final RedisScript<Long> UNLOCK = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int stripes;
+    private final Duration reconcileLease;
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder seeded = new LongAdder();
+    private final LongAdder reconciledDeltas = new LongAdder();
+
+    public RedisStockStore(ProductRepository productRepository, StringRedisTemplate redisTemplate,
+            ApplicationEventPublisher eventPublisher, @Value("${inventory.redis.stripes:8}") int stripes,
+            @Value("${inventory.redis.reconcile-lease:30s}") Duration reconcileLease) {
+        this.productRepository = productRepository;
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.stripes = stripes;
+        this.reconcileLease = reconcileLease;
+    }
+
+    @Override
+    public void reserve(List<StockLine> lines) {
+        List<StockLine> taken = new ArrayList<>(lines.size());
+        for (StockLine line : StockLines.merge(lines)) {
+            if (!take(line.productId(), line.quantity())) {
+                release(taken);
+                rejected.increment();
+                throw new ApiException(HttpStatus.CONFLICT, "Not enough stock for product: " + line.productId());
+            }
+            taken.add(line);
+        }
+        for (StockLine line : taken) {
+            redisTemplate.opsForHash().increment(PENDING_KEY, line.productId(), -line.quantity());
+        }
+        reserved.increment();
+    }
+
+    @Override
+    public void release(List<StockLine> lines) {
+        for (StockLine line : StockLines.merge(lines)) {
+            String stripe = stripeKey(line.productId(), ThreadLocalRandom.current().nextInt(stripes));
+            Long present = redisTemplate.execute(GIVE_BACK_IF_PRESENT, List.of(stripe),
+                    String.valueOf(line.quantity()));
+            if (present != null && present == 1) {
+                redisTemplate.opsForHash().increment(PENDING_KEY, line.productId(), line.quantity());
+            } else {
+                applyToDatabase(line.productId(), line.quantity());
+            }
+            released.increment();
+        }
+    }
+
+    /**
+     * Writes the count to Mongo and drops the stripes and any unreconciled change, so the next
+     * reservation seeds Redis from the new count.
+     */
+    @Override
+    public Product setStock(String productId, Integer stock) {
+        Product updated = productRepository.setStock(productId, stock);
+        redisTemplate.delete(stripeKeys(productId));
+        redisTemplate.opsForHash().delete(PENDING_KEY, productId);
+        return updated;
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", "redis");
+        stats.put("stripes", stripes);
+        stats.put("reservations", reserved.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("released_lines", released.sum());
+        stats.put("seeded_products", seeded.sum());
+        stats.put("reconciled_deltas", reconciledDeltas.sum());
+        stats.put("pending_products", redisTemplate.opsForHash().size(PENDING_KEY));
+        return stats;
+    }
+
+    /**
+     * Applies the pending deltas to Mongo, one node at a time. Each delta is taken off the hash only
+     * after its Mongo write succeeded, so a node that dies mid-way leaves the rest for the next run;
+     * changes made meanwhile stay in the hash as the remainder.
+     */
+    @Scheduled(fixedDelayString = "${inventory.redis.reconcile-interval-ms:1000}")
+    public void reconcile() {
+        String token = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, token, reconcileLease))) {
+            return;
+        }
+        try {
+            Map<Object, Object> pending = redisTemplate.opsForHash().entries(PENDING_KEY);
+            for (Map.Entry<Object, Object> entry : pending.entrySet()) {
+                String productId = (String) entry.getKey();
+                int delta = Integer.parseInt((String) entry.getValue());
+                if (delta == 0) {
+                    continue;
+                }
+                try {
+                    applyToDatabase(productId, delta);
+                } catch (RuntimeException e) {
+                    log.error("Failed to reconcile stock for {}, will retry", productId, e);
+                    continue;
+                }
+                redisTemplate.execute(SETTLE_PENDING, List.of(PENDING_KEY), productId, String.valueOf(delta));
+                reconciledDeltas.increment();
+            }
+        } finally {
+            redisTemplate.execute(UNLOCK, List.of(RECONCILE_LOCK_KEY), token);
+        }
+    }
+
+    @PreDestroy
+    public void reconcileOnShutdown() {
+        reconcile();
+    }
+
+    private boolean take(String productId, int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        int[] taken = new int[stripes];
+        int remaining = quantity;
+        for (int n = 0; n < stripes && remaining > 0; n++) {
+            int stripe = (start + n) % stripes;
+            long got = takeFromStripe(productId, stripe, remaining);
+            if (got < 0) {
+                if (!seed(productId)) {
+                    // Stopped tracking stock since the caller loaded the product
+                    return true;
+                }
+                got = Math.max(takeFromStripe(productId, stripe, remaining), 0);
+            }
+            taken[stripe] += (int) got;
+            remaining -= (int) got;
+        }
+        if (remaining == 0) {
+            return true;
+        }
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            if (taken[stripe] > 0) {
+                redisTemplate.opsForValue().increment(stripeKey(productId, stripe), taken[stripe]);
+            }
+        }
+        return false;
+    }
+
+    private long takeFromStripe(String productId, int stripe, int quantity) {
+        Long got = redisTemplate.execute(TAKE, List.of(stripeKey(productId, stripe)), String.valueOf(quantity));
+        return got != null ? got : -1;
+    }
+
+    /**
+     * Splits the Mongo count over the stripes. Stripes another node seeded first are kept.
+     */
+    private boolean seed(String productId) {
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product == null || product.getStock() == null) {
+            return false;
+        }
+        int stock = Math.max(product.getStock(), 0);
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            int share = stock / stripes + (stripe < stock % stripes ? 1 : 0);
+            redisTemplate.opsForValue().setIfAbsent(stripeKey(productId, stripe), String.valueOf(share));
+        }
+        seeded.increment();
+        return true;
+    }
+
+    private void applyToDatabase(String productId, int delta) {
+        Product updated = productRepository.adjustStock(productId, delta, false);
+        if (updated != null && StockLines.flipped(updated.getStock(), delta)) {
+            eventPublisher.publishEvent(new StockStatusEvent(updated));
+        }
+    }
+
+    private List<String> stripeKeys(String productId) {
+        List<String> keys = new ArrayList<>(stripes);
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            keys.add(stripeKey(productId, stripe));
+        }
+        return keys;
+    }
+
+    private static String stripeKey(String productId, int stripe) {
+        return KEY_PREFIX + productId + ":" + stripe;
+    }
+}
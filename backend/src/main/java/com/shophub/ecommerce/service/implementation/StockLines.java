@@ -0,0 +1,33 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.service.StockStore.StockLine;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class StockLines {
+
+    private StockLines() {
+    }
+
+    /**
+     * Combines lines for the same product, keeping first-seen order.
+     */
+    static Collection<StockLine> merge(List<StockLine> lines) {
+        Map<String, StockLine> merged = new LinkedHashMap<>();
+        for (StockLine line : lines) {
+            merged.merge(line.productId(), line,
+                    (a, b) -> new StockLine(a.productId(), a.quantity() + b.quantity()));
+        }
+        return merged.values();
+    }
+
+    /**
+     * Whether adding {@code delta} to reach {@code stock} moved the count across zero.
+     */
+    static boolean flipped(Integer stock, long delta) {
+        return stock != null && (stock > 0) != (stock - delta > 0);
+    }
+}
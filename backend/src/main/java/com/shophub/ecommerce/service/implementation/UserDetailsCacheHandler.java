@@ -0,0 +1,40 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.cache.UserDetailsDependencies;
+import com.shophub.ecommerce.enums.OutboxEventType;
+import com.shophub.ecommerce.model.OutboxEvent;
+import com.shophub.ecommerce.service.OutboxHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts the buyer's cached user details once more after the order is committed. The eviction in
+ * the request can race a concurrent read that loaded the details before the commit and cached
+ * them after it; this second, later eviction clears such a stale entry.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserDetailsCacheHandler implements OutboxHandler {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public String name() {
+        return "user-details-cache";
+    }
+
+    @Override
+    public boolean supports(OutboxEventType type) {
+        return type == OutboxEventType.ORDER_CREATED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Cache cache = cacheManager.getCache(UserDetailsDependencies.CACHE_NAME);
+        if (cache != null && event.getEmail() != null) {
+            cache.evict(event.getEmail());
+        }
+    }
+}
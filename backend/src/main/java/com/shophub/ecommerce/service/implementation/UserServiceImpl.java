@@ -1,22 +1,33 @@
 package com.shophub.ecommerce.service.implementation;
 
+import com.shophub.ecommerce.cache.UserDetailsDependencies;
+import com.shophub.ecommerce.enums.ImageStatus;
+import com.shophub.ecommerce.event.ImageUploadEvent;
 import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.mapper.OrderDetailsMapper;
 import com.shophub.ecommerce.model.*;
 import com.shophub.ecommerce.repository.AddressRepository;
 import com.shophub.ecommerce.repository.OrderRepository;
 import com.shophub.ecommerce.repository.ProductRepository;
 import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.security.PrincipalLoader;
+import com.shophub.ecommerce.service.CartStore;
 import com.shophub.ecommerce.service.EmailService;
+import com.shophub.ecommerce.service.ImageUploadService;
 import com.shophub.ecommerce.service.JwtService;
 import com.shophub.ecommerce.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -25,6 +36,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int EMBEDDED_ORDERS = 20;
+
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final AddressRepository addressRepository;
@@ -32,6 +45,11 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final EmailService emailService;
+    private final PrincipalLoader principalLoader;
+    private final CartStore cartStore;
+    private final OrderDetailsMapper orderDetailsMapper;
+    private final ImageUploadService imageUploadService;
+    private final UserDetailsDependencies userDetailsDependencies;
 
     @Override
     public void registerUser(String firstName, String lastName, String email, String password) {
@@ -69,8 +87,9 @@ public class UserServiceImpl implements UserService {
         String jwtToken = jwtService.generateToken(
                 user.getId(), user.getEmail(), user.getFirstName(), user.getLastName());
 
+        // Only the token: saving the whole user back would undo concurrent cart and order writes
         user.setJwtToken(jwtToken);
-        userRepository.save(user);
+        userRepository.setJwtToken(email, jwtToken);
 
         // Return user without sensitive fields
         Map<String, Object> userMap = getUserSafeMap(user);
@@ -98,7 +117,7 @@ public class UserServiceImpl implements UserService {
                 user.getId(), user.getEmail(), user.getFirstName(), user.getLastName());
 
         user.setJwtToken(jwtToken);
-        userRepository.save(user);
+        userRepository.setJwtToken(email, jwtToken);
 
         Map<String, Object> userMap = getUserSafeMap(user);
 
@@ -108,25 +127,49 @@ public class UserServiceImpl implements UserService {
         return result;
     }
 
-    @CacheEvict(value = "userDetails_v2", key = "#user.email")
+    @Caching(evict = {
+            @CacheEvict(value = "userDetails_v2", key = "#email"),
+            @CacheEvict(value = PrincipalLoader.CACHE_NAME, key = "#email")
+    })
     @Override
-    public void logoutUser(User user) {
-        user.setJwtToken(null);
-        userRepository.save(user);
+    public void logoutUser(String email) {
+        userRepository.setJwtToken(email, null);
     }
 
-    @Cacheable(value = "userDetails_v2", key = "#email")
+    @Cacheable(value = "userDetails_v2", key = "#email", sync = true)
     @Override
     public Map<String, Object> getUserDetails(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
 
         Map<String, Object> userMap = getUserSafeMap(user);
+        List<CartItem> cartItems = cartStore.getCart(email);
+
+        // Embed only the latest orders; the full history is paged through /user/orders
+        List<Order> orders = orderRepository.findHistoryPage(user.getId(), null, null, EMBEDDED_ORDERS + 1);
+        boolean hasMoreOrders = orders.size() > EMBEDDED_ORDERS;
+        if (hasMoreOrders) {
+            orders = orders.subList(0, EMBEDDED_ORDERS);
+        }
+
+        // Load every referenced document up front: one query per collection
+        Set<String> addressIds = new HashSet<>(user.getAddress());
+        Set<String> productIds = new HashSet<>();
+        cartItems.forEach(item -> productIds.add(item.getProductId()));
+        OrderDetailsMapper.collectReferences(orders, productIds, addressIds);
+        // Product changes evict this entry instead of versioning every user's key
+        userDetailsDependencies.register(email, productIds);
+
+        Map<String, Product> productsById = OrderDetailsMapper.indexById(
+                productRepository.findAllById(productIds), Product::getId);
+        Map<String, Address> addressesById = OrderDetailsMapper.indexById(
+                addressRepository.findAllById(addressIds), Address::getId);
 
         // Populate cart items with product details
         List<Map<String, Object>> cartItemsWithDetails = new ArrayList<>();
-        for (CartItem cartItem : user.getCartItems()) {
-            productRepository.findById(cartItem.getProductId()).ifPresent(product -> {
+        for (CartItem cartItem : cartItems) {
+            Product product = productsById.get(cartItem.getProductId());
+            if (product != null) {
                 Map<String, Object> itemMap = new HashMap<>();
                 itemMap.put("id", product.getId());
                 itemMap.put("product_name", product.getProductName());
@@ -137,81 +180,20 @@ public class UserServiceImpl implements UserService {
                 itemMap.put("category", product.getCategory());
                 itemMap.put("quantity", cartItem.getQuantity());
                 cartItemsWithDetails.add(itemMap);
-            });
+            }
         }
         userMap.put("cart_items", cartItemsWithDetails);
 
         // Populate addresses
         List<Address> addresses = user.getAddress().stream()
-                .map(addressRepository::findById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+                .map(addressesById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
         userMap.put("address", addresses);
 
-        // Populate orders with product details
-        List<Map<String, Object>> orderDetails = new ArrayList<>();
-        for (String orderId : user.getOrders()) {
-            orderRepository.findById(orderId).ifPresent(order -> {
-                Map<String, Object> orderMap = new LinkedHashMap<>();
-                orderMap.put("id", order.getId());
-                orderMap.put("payment_status", order.getPaymentStatus());
-                orderMap.put("payment_mode", order.getPaymentMode());
-                orderMap.put("quantity", order.getQuantity());
-                orderMap.put("createdAt", order.getCreatedAt());
-
-                // Resolve product details for the order (Support both single and multi-item)
-                List<Map<String, Object>> itemsDetails = new ArrayList<>();
-                if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
-                    for (OrderItem item : order.getOrderItems()) {
-                        productRepository.findById(item.getProductId()).ifPresent(product -> {
-                            Map<String, Object> prodMap = new HashMap<>();
-                            prodMap.put("product_id", product.getId());
-                            prodMap.put("product_name", product.getProductName());
-                            prodMap.put("product_description", product.getProductDescription());
-                            prodMap.put("price", item.getPrice()); // Use price from order time
-                            prodMap.put("current_price", product.getPrice());
-                            prodMap.put("image", product.getImage());
-                            prodMap.put("status", product.getStatus());
-                            prodMap.put("category", product.getCategory());
-                            prodMap.put("quantity", item.getQuantity());
-                            itemsDetails.add(prodMap);
-                        });
-                    }
-                } else if (order.getProduct() != null) {
-                    // Fallback for legacy orders
-                    productRepository.findById(order.getProduct()).ifPresent(product -> {
-                        Map<String, Object> prodMap = new HashMap<>();
-                        prodMap.put("product_id", product.getId());
-                        prodMap.put("product_name", product.getProductName());
-                        prodMap.put("product_description", product.getProductDescription());
-                        prodMap.put("price", product.getPrice());
-                        prodMap.put("image", product.getImage());
-                        prodMap.put("status", product.getStatus());
-                        prodMap.put("category", product.getCategory());
-                        prodMap.put("quantity", order.getQuantity());
-                        itemsDetails.add(prodMap);
-                    });
-                }
-
-                // For backward compatibility for frontend that expects flat product structure
-                if (!itemsDetails.isEmpty()) {
-                    Map<String, Object> firstItem = itemsDetails.get(0);
-                    orderMap.putAll(firstItem); // Flatten first item details into orderMap
-                    orderMap.put("items", itemsDetails); // Also provide full list
-                }
-
-                // Resolve address details for the order
-                if (order.getAddress() != null) {
-                    addressRepository.findById(order.getAddress()).ifPresent(addr -> {
-                        orderMap.put("address_name", addr.getName());
-                        orderMap.put("address_city", addr.getCity());
-                    });
-                }
-
-                orderDetails.add(orderMap);
-            });
-        }
+        // Populate the most recent orders with product details
+        List<Map<String, Object>> orderDetails = orderDetailsMapper.toOrderDetails(orders, productsById, addressesById);
+        userMap.put("has_more_orders", hasMoreOrders);
         userMap.put("orders", orderDetails);
 
         return userMap;
@@ -220,91 +202,81 @@ public class UserServiceImpl implements UserService {
     @CacheEvict(value = "userDetails_v2", key = "#email")
     @Override
     public Map<String, Object> addToCart(String email, String productId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
-
-        productRepository.findById(productId)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Product not found"));
-
-        // Check if product already in cart
-        boolean alreadyExists = user.getCartItems().stream()
-                .anyMatch(item -> item.getProductId().equals(productId));
+        if (!productRepository.existsById(productId)) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "Product not found");
+        }
 
-        if (alreadyExists) {
+        if (!cartStore.addItem(email, productId, 1)) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Product already exists.");
         }
 
-        user.getCartItems().add(new CartItem(productId));
-        userRepository.save(user);
-
         Map<String, Object> result = new HashMap<>();
         result.put("message", "Successfully add to cart");
-        result.put("cart_items", user.getCartItems());
+        result.put("cart_items", cartStore.getCart(email));
         return result;
     }
 
     @CacheEvict(value = "userDetails_v2", key = "#email")
     @Override
     public Map<String, Object> updateCartQuantity(String email, String productId, int quantity) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
-
         if (quantity < 1) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Quantity must be at least 1");
         }
 
-        boolean found = false;
-        for (CartItem item : user.getCartItems()) {
-            if (item.getProductId().equals(productId)) {
-                item.setQuantity(quantity);
-                found = true;
-                break;
-            }
-        }
-
-        if (!found) {
+        if (!cartStore.setQuantity(email, productId, quantity)) {
             throw new ApiException(HttpStatus.NOT_FOUND, "Product not found in cart");
         }
 
-        userRepository.save(user);
-
         Map<String, Object> result = new HashMap<>();
         result.put("message", "Cart quantity updated successfully");
-        result.put("cart_items", user.getCartItems());
+        result.put("cart_items", cartStore.getCart(email));
         return result;
     }
 
     @Override
     @CacheEvict(value = "userDetails_v2", key = "#email")
     public void deleteCartItem(String email, String productId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
-
-        user.getCartItems().removeIf(item -> item.getProductId().equals(productId));
-        userRepository.save(user);
+        cartStore.removeItems(email, List.of(productId));
     }
 
     @Override
     @CacheEvict(value = "userDetails_v2", key = "#email")
     public Map<String, Object> updateProfile(String email, String firstName, String lastName,
                                              String profileImage) {
+        User user = userRepository.setProfileFields(email,
+                        firstName != null && !firstName.trim().isEmpty() ? firstName.trim() : null,
+                        lastName != null && !lastName.trim().isEmpty() ? lastName.trim() : null,
+                        profileImage)
+                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
+
+        Map<String, Object> result = getUserSafeMap(user);
+        return result;
+    }
+
+    @Override
+    @CacheEvict(value = "userDetails_v2", key = "#email")
+    public Map<String, Object> uploadProfileImage(String email, MultipartFile image) throws IOException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
 
-        if (firstName != null && !firstName.trim().isEmpty()) {
-            user.setFirstName(firstName.trim());
-        }
-        if (lastName != null && !lastName.trim().isEmpty()) {
-            user.setLastName(lastName.trim());
-        }
-        if (profileImage != null) {
-            user.setProfileImage(profileImage);
+        ImageUploadService.PendingUpload upload = imageUploadService.accept(image, "profiles");
+        try {
+            userRepository.startProfileImageUpload(email, upload.token());
+        } catch (RuntimeException e) {
+            upload.discard();
+            throw e;
         }
+        upload.start(ImageUploadEvent.Target.USER_PROFILE, email);
 
-        userRepository.save(user);
+        // Keep the current image until the new one is ready
+        user.setProfileImageStatus(ImageStatus.PENDING);
+        return getUserSafeMap(user);
+    }
 
-        Map<String, Object> result = getUserSafeMap(user);
-        return result;
+    @EventListener(condition = "#event.target().name() == 'USER_PROFILE'")
+    @CacheEvict(value = "userDetails_v2", key = "#event.ownerId()")
+    public void onProfileImageUploaded(ImageUploadEvent event) {
+        userRepository.setProfileImage(event.ownerId(), event.uploadToken(), event.url(), event.status());
     }
 
     @Override
@@ -319,6 +291,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
         userRepository.delete(user);
+        principalLoader.evict(user.getEmail());
     }
 
     private Map<String, Object> getUserSafeMap(User user) {
@@ -328,6 +301,7 @@ public class UserServiceImpl implements UserService {
         map.put("last_name", user.getLastName());
         map.put("email", user.getEmail());
         map.put("profile_image", user.getProfileImage());
+        map.put("profile_image_status", user.getProfileImageStatus());
         map.put("roles", user.getRoles());
         map.put("cart_items", user.getCartItems());
         map.put("address", user.getAddress());
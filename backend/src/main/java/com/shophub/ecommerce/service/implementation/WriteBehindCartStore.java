@@ -0,0 +1,67 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.service.CartStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base for cart stores that serve reads and writes themselves and copy changed carts back to
+ * {@code users.cart_items} in coalesced batches. Several changes to one cart between flushes
+ * cost a single Mongo write.
+ */
+@Slf4j
+public abstract class WriteBehindCartStore implements CartStore {
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    protected final UserRepository userRepository;
+
+    protected WriteBehindCartStore(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    protected abstract void markDirty(String email);
+
+    protected abstract Collection<String> drainDirty(int max);
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.interval-ms:2000}")
+    public void flush() {
+        Collection<String> emails;
+        while (!(emails = drainDirty(FLUSH_BATCH_SIZE)).isEmpty()) {
+            Map<String, List<CartItem>> carts = new LinkedHashMap<>();
+            emails.forEach(email -> carts.put(email, getCart(email)));
+            try {
+                userRepository.replaceCarts(carts);
+            } catch (Exception e) {
+                log.error("Failed to persist {} carts, will retry", carts.size(), e);
+                emails.forEach(this::markDirty);
+                return;
+            }
+            if (emails.size() < FLUSH_BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    protected List<CartItem> loadFromDatabase(String email) {
+        return userRepository.findCartByEmail(email)
+                .map(User::getCartItems)
+                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.shophub.ecommerce.benchmark;
+
+import com.shophub.ecommerce.cache.CacheValueSerializer;
+import com.shophub.ecommerce.cache.JsonCacheValueCodec;
+import com.shophub.ecommerce.cache.SmileCacheValueCodec;
+import com.shophub.ecommerce.dto.ProductResponse;
+import com.shophub.ecommerce.enums.PaymentStatus;
+import com.shophub.ecommerce.mapper.OrderDetailsMapper;
+import com.shophub.ecommerce.model.Address;
+import com.shophub.ecommerce.model.Order;
+import com.shophub.ecommerce.model.OrderItem;
+import com.shophub.ecommerce.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Encode and decode time of the cache value formats for the two largest cached payloads: a
+ * {@code userDetails_v2} entry (20 orders, 10 cart lines, 5 addresses) and a page of 50
+ * {@code ProductResponse}s. {@code legacyJson} is the header-less default-typed JSON the cache
+ * used before. Encoded sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({ "userDetails", "productPage" })
+    private String payload;
+
+    @Param({ "legacyJson", "json", "smile", "smileLz4" })
+    private String format;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        value = "userDetails".equals(payload) ? userDetails() : productPage();
+        serializer = serializer(format);
+        encoded = serializer.serialize(value);
+        System.out.printf("%n%s as %s: %d bytes%n", payload, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    private static RedisSerializer<Object> serializer(String format) {
+        JsonCacheValueCodec json = new JsonCacheValueCodec();
+        SmileCacheValueCodec smile = new SmileCacheValueCodec();
+        return switch (format) {
+            case "legacyJson" -> new RedisSerializer<>() {
+                @Override
+                public byte[] serialize(Object value) {
+                    try {
+                        return json.encode(value);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+
+                @Override
+                public Object deserialize(byte[] bytes) {
+                    try {
+                        return json.decode(bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+            case "json" -> new CacheValueSerializer(json, List.of(json, smile), json, -1);
+            case "smile" -> new CacheValueSerializer(smile, List.of(json, smile), json, -1);
+            case "smileLz4" -> new CacheValueSerializer(smile, List.of(json, smile), json, 1024);
+            default -> throw new IllegalArgumentException(format);
+        };
+    }
+
+    private static Map<String, Object> userDetails() {
+        List<Product> products = Catalogs.products(30);
+        Map<String, Product> productsById = OrderDetailsMapper.indexById(products, Product::getId);
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            addresses.add(Address.builder().id(String.format("a%023x", i)).user("u1").name("Alice Smith")
+                    .phoneNumber("98765432" + i + "0").pinCode("56000" + i).houseNo("Flat " + (10 + i))
+                    .area("Indiranagar").landmark("Near the park").city("Bengaluru").state("Karnataka")
+                    .createdAt(Instant.now()).updatedAt(Instant.now()).build());
+        }
+        Map<String, Address> addressesById = OrderDetailsMapper.indexById(addresses, Address::getId);
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                Product product = products.get((i + j) % products.size());
+                items.add(new OrderItem(product.getId(), 1 + j, product.getPrice()));
+            }
+            orders.add(Order.builder().id(String.format("o%023x", i)).paymentStatus(PaymentStatus.SUCCESS)
+                    .paymentMode("ONLINE").userId("u1").address(addresses.get(i % 5).getId()).orderItems(items)
+                    .createdAt(Instant.now().minusSeconds(i * 86_400L)).build());
+        }
+
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", "u1");
+        user.put("first_name", "Alice");
+        user.put("last_name", "Smith");
+        user.put("email", "alice@example.com");
+        user.put("profile_image", "https://res.cloudinary.com/demo/image/upload/v1/profiles/alice.png");
+        user.put("roles", List.of("USER"));
+        List<Map<String, Object>> cart = new ArrayList<>();
+        for (Product product : products.subList(0, 10)) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", product.getId());
+            item.put("product_name", product.getProductName());
+            item.put("product_description", product.getProductDescription());
+            item.put("price", product.getPrice());
+            item.put("image", product.getImage());
+            item.put("status", product.getStatus());
+            item.put("category", product.getCategory());
+            item.put("quantity", 2);
+            cart.add(item);
+        }
+        user.put("cart_items", cart);
+        user.put("address", addresses);
+        user.put("has_more_orders", true);
+        user.put("orders", new OrderDetailsMapper(null, null).toOrderDetails(orders, productsById, addressesById));
+        user.put("createdAt", Instant.now());
+        user.put("updatedAt", Instant.now());
+        return user;
+    }
+
+    private static List<ProductResponse> productPage() {
+        return Catalogs.products(50).stream()
+                .map(product -> ProductResponse.builder().id(product.getId()).productName(product.getProductName())
+                        .productDescription(product.getProductDescription()).price(product.getPrice())
+                        .image("https://res.cloudinary.com/demo/image/upload/v1/products/" + product.getId() + ".jpg")
+                        .category(product.getCategory())
+                        .createdAt(Instant.now()).updatedAt(Instant.now()).build())
+                .collect(Collectors.toList());
+    }
+}
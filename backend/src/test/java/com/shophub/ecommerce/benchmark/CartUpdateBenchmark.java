@@ -0,0 +1,128 @@
+package com.shophub.ecommerce.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.repository.UserRepositoryCustomImpl;
+import com.shophub.ecommerce.service.CartStore;
+import com.shophub.ecommerce.service.implementation.InMemoryCartStore;
+import com.shophub.ecommerce.service.implementation.MongoCartStore;
+import com.shophub.ecommerce.service.implementation.RedisCartStore;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import com.shophub.ecommerce.support.EmbeddedRedis;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cart quantity updates per second, eight users updating their own carts in parallel.
+ * <p>
+ * {@code mongo} is the single findAndModify per change that every update paid before the cart store
+ * existed. The write-behind stores are measured with their flush included: each invocation makes
+ * {@value #UPDATES_PER_FLUSH} updates and then flushes, standing in for the changes one flush
+ * interval coalesces. Mongo and Redis run in-process, so real network round trips would widen the
+ * gap further.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CartUpdateBenchmark {
+
+    static final int UPDATES_PER_FLUSH = 20;
+    private static final int CART_LINES = 10;
+
+    private final AtomicInteger users = new AtomicInteger();
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private StringRedisTemplate redisTemplate;
+    private MongoCartStore mongo;
+    private InMemoryCartStore memory;
+    private RedisCartStore redis;
+
+    @State(Scope.Thread)
+    public static class Shopper {
+
+        String email;
+        int next;
+
+        @Setup
+        public void setUp(CartUpdateBenchmark benchmark) {
+            email = benchmark.createUser();
+        }
+
+        String productId() {
+            return "product-" + (next++ % CART_LINES);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        mongoClient = MongoClients.create(EmbeddedMongo.connectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "cart-benchmark");
+        mongoTemplate.getDb().drop();
+        UserRepository userRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(UserRepository.class,
+                RepositoryFragments.just(new UserRepositoryCustomImpl(mongoTemplate)));
+
+        redisTemplate = EmbeddedRedis.newTemplate();
+        EmbeddedRedis.flushAll(redisTemplate);
+
+        mongo = new MongoCartStore(userRepository);
+        memory = new InMemoryCartStore(userRepository);
+        redis = new RedisCartStore(userRepository, redisTemplate, Duration.ofDays(7));
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoClient.close();
+    }
+
+    @Benchmark
+    public boolean mongo(Shopper shopper) {
+        return mongo.setQuantity(shopper.email, shopper.productId(), shopper.next);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UPDATES_PER_FLUSH)
+    public void inMemoryWriteBehind(Shopper shopper) {
+        updateThenFlush(memory, shopper);
+        memory.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UPDATES_PER_FLUSH)
+    public void redisWriteBehind(Shopper shopper) {
+        updateThenFlush(redis, shopper);
+        redis.flush();
+    }
+
+    private static void updateThenFlush(CartStore store, Shopper shopper) {
+        for (int i = 0; i < UPDATES_PER_FLUSH; i++) {
+            store.setQuantity(shopper.email, shopper.productId(), shopper.next);
+        }
+    }
+
+    String createUser() {
+        String email = "shopper-" + users.incrementAndGet() + "@example.com";
+        List<CartItem> cart = new ArrayList<>();
+        for (int i = 0; i < CART_LINES; i++) {
+            cart.add(new CartItem("product-" + i, 1));
+        }
+        mongoTemplate.save(User.builder().email(email).cartItems(cart).build());
+        return email;
+    }
+}
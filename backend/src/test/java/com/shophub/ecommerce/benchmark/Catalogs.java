@@ -0,0 +1,54 @@
+package com.shophub.ecommerce.benchmark;
+
+import com.shophub.ecommerce.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible synthetic catalogs for the benchmarks. Names are drawn from a fixed vocabulary with
+ * a skewed distribution, so a few terms are common and most are rare, as in a real catalog.
+ */
+public final class Catalogs {
+
+    private static final String[] BRANDS = { "Acme", "Nova", "Orion", "Zenith", "Apex", "Lumen", "Vertex", "Pulse",
+            "Atlas", "Cobalt", "Ember", "Falcon", "Glacier", "Harbor", "Ion", "Juniper" };
+    private static final String[] ADJECTIVES = { "wireless", "portable", "smart", "classic", "premium", "compact",
+            "ultra", "ergonomic", "waterproof", "vintage", "foldable", "rechargeable", "organic", "digital",
+            "stainless", "cotton", "leather", "bamboo", "magnetic", "adjustable" };
+    private static final String[] NOUNS = { "headphones", "speaker", "keyboard", "mouse", "monitor", "charger",
+            "backpack", "bottle", "lamp", "watch", "camera", "tripod", "jacket", "sneakers", "blender", "kettle",
+            "toaster", "router", "tablet", "phone", "earbuds", "microphone", "notebook", "pen", "desk", "chair",
+            "mattress", "pillow", "blanket", "mug" };
+    private static final String[] CATEGORIES = { "Electronics", "Home", "Kitchen", "Fashion", "Sports", "Office",
+            "Outdoors", "Toys" };
+
+    private Catalogs() {
+    }
+
+    public static List<Product> products(int count) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = pick(random, BRANDS) + " " + pick(random, ADJECTIVES) + " " + pick(random, NOUNS)
+                    + " " + Integer.toString(i, 36);
+            products.add(Product.builder()
+                    .id(String.format("%024x", i))
+                    .productName(name)
+                    .category(pick(random, CATEGORIES))
+                    .productDescription("A " + pick(random, ADJECTIVES) + " " + pick(random, NOUNS)
+                            + " for everyday use, made by " + pick(random, BRANDS))
+                    .price(1 + random.nextInt(50_000) / 100.0)
+                    .stock(random.nextInt(500))
+                    .build());
+        }
+        return products;
+    }
+
+    // Squaring the uniform draw favours the start of the vocabulary
+    private static String pick(Random random, String[] values) {
+        double u = random.nextDouble();
+        return values[(int) (u * u * values.length)];
+    }
+}
@@ -0,0 +1,71 @@
+package com.shophub.ecommerce.benchmark;
+
+import com.shophub.ecommerce.service.implementation.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token checking done by JwtAuthenticationFilter on every authenticated request.
+ * <p>
+ * {@code legacyFilterPath} is the old filter: {@code isTokenValid} then {@code extractEmail}, each
+ * deriving the key, building a parser and verifying the signature. {@code verifyOnce} is a single
+ * verification with the parser built up front, which is what a cache miss costs now, and
+ * {@code verifyCached} is the steady state where the claims were already verified.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-that-is-long-enough-for-hmac-sha-256";
+
+    private JwtServiceImpl jwtService;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiry", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaximumSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        token = jwtService.generateToken("64b7f0c2a1b2c3d4e5f60718", "alice@example.com", "Alice", "Smith");
+        parser = Jwts.parser().verifyWith(signingKey()).build();
+    }
+
+    @Benchmark
+    public String legacyFilterPath() {
+        Claims first = Jwts.parser().verifyWith(signingKey()).build().parseSignedClaims(token).getPayload();
+        if (first.getExpiration().before(new Date())) {
+            return null;
+        }
+        return Jwts.parser().verifyWith(signingKey()).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String verifyOnce() {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        return jwtService.verify(token).getSubject();
+    }
+
+    private static SecretKey signingKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,60 @@
+package com.shophub.ecommerce.benchmark;
+
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Query latency of the inverted index against the regex path it replaced, at 10k and 100k products.
+ * <p>
+ * {@code findByProductNameContainingIgnoreCase} becomes an unanchored case-insensitive {@code $regex},
+ * which Mongo evaluates against every document in a collection scan. The regex side runs that same
+ * per-document match in-process, so it leaves out the network and BSON decoding the real query pays
+ * and is a lower bound for the old path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int products;
+
+    @Param({ "wireless headphones", "smart", "cha" })
+    private String query;
+
+    private List<Product> catalog;
+    private ProductSearchIndex index;
+    private Pattern regex;
+
+    @Setup
+    public void setUp() {
+        catalog = Catalogs.products(products);
+        index = new ProductSearchIndex(null);
+        catalog.forEach(index::index);
+        // What Spring Data derives for ContainingIgnoreCase
+        regex = Pattern.compile(".*" + Pattern.quote(query) + ".*", Pattern.CASE_INSENSITIVE);
+    }
+
+    @Benchmark
+    public List<Product> invertedIndex() {
+        return index.search(query, 20);
+    }
+
+    @Benchmark
+    public void regexScan(Blackhole blackhole) {
+        for (Product product : catalog) {
+            if (regex.matcher(product.getProductName()).find()) {
+                blackhole.consume(product);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.shophub.ecommerce.benchmark;
+
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.OrderRepository;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.search.ProductSuggestIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Typeahead latency over 100k product names, and the cost of applying one catalog change.
+ * The heap retained by the built index is printed once per trial, next to the index's own
+ * estimate from {@code getStatistics()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ProductSuggestBenchmark {
+
+    @Param({ "100000" })
+    private int products;
+
+    private ProductSuggestIndex index;
+    private List<Product> catalog;
+    private int next;
+
+    @State(Scope.Benchmark)
+    public static class Query {
+
+        @Param({ "a", "wir", "acme wire", "smart ch" })
+        String prefix;
+    }
+
+    @Setup
+    public void setUp() {
+        catalog = Catalogs.products(products);
+        Map<String, Long> units = new HashMap<>();
+        Random random = new Random(7);
+        for (Product product : catalog) {
+            if (random.nextInt(10) == 0) {
+                units.put(product.getId(), (long) random.nextInt(1_000));
+            }
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(productRepository.findAll()).thenReturn(catalog);
+        when(orderRepository.countUnitsOrderedByProduct()).thenReturn(units);
+
+        long before = usedHeap();
+        index = new ProductSuggestIndex(productRepository, orderRepository);
+        index.rebuild();
+        long retained = usedHeap() - before;
+        System.out.printf("%nSuggest index over %d products: %d KiB retained, statistics %s%n",
+                products, retained / 1024, index.getStatistics());
+    }
+
+    @Benchmark
+    public List<ProductSuggestIndex.Suggestion> suggest(Query query) {
+        return index.suggest(query.prefix, 10);
+    }
+
+    @Benchmark
+    public void applyChange() {
+        Product product = catalog.get(next++ % catalog.size());
+        index.onProductChange(ProductChangeEvent.saved(product));
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,116 @@
+package com.shophub.ecommerce.cache;
+
+import com.shophub.ecommerce.support.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoTierCacheSingleFlightTest {
+
+    private static final int CALLERS = 500;
+
+    private static StringRedisTemplate redisTemplate;
+
+    private final AtomicInteger rebuilds = new AtomicInteger();
+
+    @BeforeAll
+    static void connect() {
+        redisTemplate = EmbeddedRedis.newTemplate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(redisTemplate);
+    }
+
+    @Test
+    void concurrentMissesOnOneNodeRebuildOnce() throws Exception {
+        Cache cache = node().getCache("products");
+
+        assertThat(getConcurrently(List.of(cache))).containsOnly("rebuilt");
+        assertThat(rebuilds).hasValue(1);
+    }
+
+    @Test
+    void concurrentMissesAcrossNodesRebuildOnce() throws Exception {
+        List<Cache> nodes = List.of(node().getCache("products"), node().getCache("products"),
+                node().getCache("products"));
+
+        assertThat(getConcurrently(nodes)).containsOnly("rebuilt");
+        assertThat(rebuilds).hasValue(1);
+    }
+
+    @Test
+    void evictionDuringALoadIsNotUndoneByItsResult() throws Exception {
+        Cache cache = node().getCache("products");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+
+        try (ExecutorService caller = Executors.newSingleThreadExecutor()) {
+            Future<String> stale = caller.submit(() -> cache.get("all", () -> {
+                loading.countDown();
+                evicted.await();
+                return "stale";
+            }));
+            loading.await();
+            cache.evict("all");
+            evicted.countDown();
+            assertThat(stale.get(30, TimeUnit.SECONDS)).isEqualTo("stale");
+        }
+
+        assertThat(cache.get("all")).isNull();
+        assertThat(cache.get("all", () -> "fresh")).isEqualTo("fresh");
+        assertThat(cache.get("all").get()).isEqualTo("fresh");
+    }
+
+    private List<String> getConcurrently(List<Cache> nodes) throws Exception {
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                Cache cache = nodes.get(i % nodes.size());
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return cache.get("all", this::rebuild);
+                }));
+            }
+            start.countDown();
+            List<String> values = new ArrayList<>();
+            for (Future<String> result : results) {
+                values.add(result.get(30, TimeUnit.SECONDS));
+            }
+            return values;
+        }
+    }
+
+    private String rebuild() throws InterruptedException {
+        rebuilds.incrementAndGet();
+        Thread.sleep(300);
+        return "rebuilt";
+    }
+
+    private static TwoTierCacheManager node() {
+        RedisCacheManager remote = RedisCacheManager.builder(redisTemplate.getRequiredConnectionFactory())
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig().disableCachingNullValues())
+                .build();
+        remote.afterPropertiesSet();
+        return new TwoTierCacheManager(remote, redisTemplate, new TwoTierCacheSettings(100, Duration.ofMinutes(1),
+                Duration.ofSeconds(10), Duration.ofSeconds(10), Duration.ofMillis(20)));
+    }
+}
@@ -0,0 +1,31 @@
+package com.shophub.ecommerce.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+
+    private final CatalogSnapshot snapshot = new CatalogSnapshot(1, new byte[0], new byte[0], "\"abc\"", "\"abc-gz\"");
+
+    @Test
+    void tagOfTheNegotiatedEncodingRevalidates() {
+        assertThat(snapshot.matches("\"abc\"", false)).isTrue();
+        assertThat(snapshot.matches("W/\"abc-gz\"", true)).isTrue();
+        assertThat(snapshot.matches("\"old\", \"abc-gz\"", true)).isTrue();
+        assertThat(snapshot.matches("*", false)).isTrue();
+    }
+
+    @Test
+    void tagOfTheOtherEncodingDoesNot() {
+        assertThat(snapshot.matches("\"abc\"", true)).isFalse();
+        assertThat(snapshot.matches("\"abc-gz\"", false)).isFalse();
+    }
+
+    @Test
+    void otherTagsDoNot() {
+        assertThat(snapshot.matches(null, false)).isFalse();
+        assertThat(snapshot.matches("\"old\"", false)).isFalse();
+        assertThat(snapshot.matches("\"old-gz\"", true)).isFalse();
+    }
+}
@@ -0,0 +1,90 @@
+package com.shophub.ecommerce.controller;
+
+import com.shophub.ecommerce.catalog.CatalogSnapshot;
+import com.shophub.ecommerce.catalog.CatalogSnapshotService;
+import com.shophub.ecommerce.service.ProductService;
+import com.shophub.ecommerce.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional and compressed responses of {@code get-all-products}.
+ */
+class PublicControllerCatalogTest {
+
+    private static final String PATH = "/api/v1/public/get-all-products";
+    private static final byte[] IDENTITY = "{\"data\":[]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] GZIP = { 0x1f, (byte) 0x8b, 1, 2, 3 };
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        CatalogSnapshotService catalogSnapshotService = mock(CatalogSnapshotService.class);
+        when(catalogSnapshotService.current())
+                .thenReturn(new CatalogSnapshot(1, IDENTITY, GZIP, "\"abc\"", "\"abc-gz\""));
+        mockMvc = MockMvcBuilders.standaloneSetup(new PublicController(mock(UserService.class),
+                mock(ProductService.class), catalogSnapshotService)).build();
+    }
+
+    @Test
+    void gzipClientGetsTheGzipBodyAndTag() throws Exception {
+        mockMvc.perform(get(PATH).header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc-gz\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(GZIP));
+    }
+
+    @Test
+    void identityClientGetsTheJsonBodyAndTag() throws Exception {
+        mockMvc.perform(get(PATH).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(IDENTITY));
+    }
+
+    @Test
+    void matchingTagForTheNegotiatedEncodingIsNotModified() throws Exception {
+        mockMvc.perform(get(PATH).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"abc-gz\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc-gz\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get(PATH).header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""));
+    }
+
+    @Test
+    void tagForTheOtherEncodingGetsAFullResponse() throws Exception {
+        // The client cached the gzip bytes, then asked without gzip (e.g. behind a proxy)
+        mockMvc.perform(get(PATH).header(HttpHeaders.IF_NONE_MATCH, "\"abc-gz\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(content().bytes(IDENTITY));
+
+        mockMvc.perform(get(PATH).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc-gz\""))
+                .andExpect(content().bytes(GZIP));
+    }
+}
@@ -0,0 +1,95 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.enums.ImageStatus;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataMongoTest
+class ImageUploadTokenTest {
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "image-upload-token");
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void onlyTheLatestProfileUploadIsApplied() {
+        userRepository.save(User.builder().email("alice@example.com").profileImage("old.png").build());
+        userRepository.startProfileImageUpload("alice@example.com", "first");
+        userRepository.startProfileImageUpload("alice@example.com", "second");
+
+        // The first upload finishes last but was replaced
+        assertThat(userRepository.setProfileImage("alice@example.com", "second", "second.png", ImageStatus.READY))
+                .isTrue();
+        assertThat(userRepository.setProfileImage("alice@example.com", "first", "first.png", ImageStatus.READY))
+                .isFalse();
+
+        User user = userRepository.findByEmail("alice@example.com").orElseThrow();
+        assertThat(user.getProfileImage()).isEqualTo("second.png");
+        assertThat(user.getProfileImageStatus()).isEqualTo(ImageStatus.READY);
+        assertThat(user.getProfileImageUploadToken()).isNull();
+    }
+
+    @Test
+    void productResultIsAppliedOnce() {
+        Product product = productRepository.save(Product.builder().productName("Phone").image("")
+                .imageStatus(ImageStatus.PENDING).imageUploadToken("upload-1").imageUploadStartedAt(Instant.now())
+                .build());
+
+        assertThat(productRepository.setImage(product.getId(), "upload-1", null, ImageStatus.FAILED)).isNotNull();
+        // A late success after the sweep failed the upload does not flip it back
+        assertThat(productRepository.setImage(product.getId(), "upload-1", "late.png", ImageStatus.READY)).isNull();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getImageStatus())
+                .isEqualTo(ImageStatus.FAILED);
+    }
+
+    @Test
+    void staleUploadsIncludeLegacyPendingRecords() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(30));
+        Product stale = productRepository.save(Product.builder().productName("Stale")
+                .imageStatus(ImageStatus.PENDING).imageUploadToken("t1").imageUploadStartedAt(cutoff.minusSeconds(60))
+                .build());
+        productRepository.save(Product.builder().productName("Fresh")
+                .imageStatus(ImageStatus.PENDING).imageUploadToken("t2").imageUploadStartedAt(Instant.now())
+                .build());
+        Product legacy = productRepository.save(Product.builder().productName("Legacy")
+                .imageStatus(ImageStatus.PENDING).build());
+        productRepository.save(Product.builder().productName("Done").imageStatus(ImageStatus.READY).build());
+        userRepository.save(User.builder().email("bob@example.com").profileImageStatus(ImageStatus.PENDING).build());
+
+        assertThat(productRepository.findStaleImageUploads(cutoff))
+                .extracting(Product::getId, Product::getImageUploadToken)
+                .containsExactlyInAnyOrder(
+                        tuple(stale.getId(), "t1"),
+                        tuple(legacy.getId(), null));
+        assertThat(userRepository.findStaleProfileImageUploads(cutoff))
+                .extracting(User::getEmail).containsExactly("bob@example.com");
+        // Legacy records carry no token, and their result still applies
+        assertThat(productRepository.setImage(legacy.getId(), null, null, ImageStatus.FAILED)).isNotNull();
+    }
+}
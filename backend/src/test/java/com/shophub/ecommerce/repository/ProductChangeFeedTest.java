@@ -0,0 +1,66 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class ProductChangeFeedTest {
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "product-change-feed");
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        Instant updatedAt = Instant.now().minusSeconds(60);
+        for (int i = 0; i < 8; i++) {
+            Document product = new Document("_id", "p" + i).append("product_name", "Product " + i);
+            // Most of the catalog predates updatedAt
+            if (i >= 6) {
+                product.append("updatedAt", Date.from(updatedAt));
+            }
+            mongoTemplate.getCollection("products").insertOne(product);
+        }
+    }
+
+    @Test
+    void backfilledFeedReachesLegacyProductsPastTheFirstPage() {
+        Instant before = Instant.now().minusSeconds(1);
+        assertThat(productRepository.backfillUpdatedAt()).isEqualTo(6);
+        assertThat(productRepository.backfillUpdatedAt()).isZero();
+
+        List<String> changed = new ArrayList<>();
+        List<Product> page = productRepository.findChangedSince(null, null, Instant.now(), 2);
+        while (!page.isEmpty()) {
+            page.forEach(product -> changed.add(product.getId()));
+            Product last = page.get(page.size() - 1);
+            page = productRepository.findChangedSince(last.getUpdatedAt(), last.getId(), Instant.now(), 2);
+        }
+
+        assertThat(changed).containsExactly("p6", "p7", "p0", "p1", "p2", "p3", "p4", "p5");
+        assertThat(productRepository.findById("p0").orElseThrow().getUpdatedAt()).isAfter(before);
+    }
+}
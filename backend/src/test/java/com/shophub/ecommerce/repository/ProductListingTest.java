@@ -0,0 +1,87 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class ProductListingTest {
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "product-listing");
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final List<String> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        ids.clear();
+        Instant now = Instant.now();
+        for (int i = 0; i < 10; i++) {
+            ObjectId id = new ObjectId(Date.from(now.minusSeconds(3600 - i)));
+            Document product = new Document("_id", id).append("product_name", "Product " + i);
+            // Every other product predates createdAt
+            if (i % 2 == 0) {
+                product.append("createdAt", Date.from(now.minusSeconds(60 - i)));
+            }
+            mongoTemplate.getCollection("products").insertOne(product);
+            ids.add(id.toHexString());
+        }
+    }
+
+    @Test
+    void legacyProductsGetTheirIdTimestamp() {
+        assertThat(productRepository.backfillCreatedAt()).isEqualTo(5);
+        assertThat(productRepository.backfillCreatedAt()).isZero();
+
+        Product legacy = productRepository.findById(ids.get(1)).orElseThrow();
+        assertThat(legacy.getCreatedAt()).isEqualTo(new ObjectId(ids.get(1)).getDate().toInstant());
+    }
+
+    @Test
+    void backfilledListingPagesThroughEveryProductOnce() {
+        productRepository.backfillCreatedAt();
+
+        List<String> listed = new ArrayList<>();
+        List<Product> page = productRepository.findListingPage(null, null, 3);
+        while (!page.isEmpty()) {
+            page.forEach(product -> listed.add(product.getId()));
+            Product last = page.get(page.size() - 1);
+            page = productRepository.findListingPage(ProductRepositoryCustom.createdAtOf(last), last.getId(), 3);
+        }
+
+        assertThat(listed).containsExactlyInAnyOrderElementsOf(ids).doesNotHaveDuplicates();
+        assertThat(productRepository.findAllInListingOrder(3)).extracting(Product::getId).isEqualTo(listed);
+    }
+
+    @Test
+    void cursorFallsBackToTheIdTimestamp() {
+        Product legacy = Product.builder().id(ids.get(1)).build();
+
+        assertThat(ProductRepositoryCustom.createdAtOf(legacy))
+                .isEqualTo(new ObjectId(ids.get(1)).getDate().toInstant());
+    }
+}
@@ -0,0 +1,83 @@
+package com.shophub.ecommerce.repository;
+
+import com.shophub.ecommerce.enums.ImageStatus;
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Profile and session writes made while a checkout and an image upload land on the same user.
+ */
+@DataMongoTest
+class UserProfileWritesTest {
+
+    private static final String EMAIL = "alice@example.com";
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "user-profile-writes");
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userRepository.save(User.builder().email(EMAIL).firstName("Alice").lastName("Smith").profileImage("")
+                .cartItems(new ArrayList<>(List.of(new CartItem("p1", 1), new CartItem("p2", 1))))
+                .build());
+    }
+
+    @Test
+    void profileWritesKeepConcurrentOrderAndUploadChanges() {
+        // A checkout and a finished upload land between another request's read and its write
+        userRepository.recordOrder(EMAIL, "order_1", List.of("p1"));
+        userRepository.startProfileImageUpload(EMAIL, "token");
+        userRepository.setProfileImage(EMAIL, "token", "new.png", ImageStatus.READY);
+
+        assertThat(userRepository.setJwtToken(EMAIL, "jwt")).isTrue();
+        assertThat(userRepository.pushAddress(EMAIL, "address_1")).isTrue();
+        User updated = userRepository.setProfileFields(EMAIL, "Alicia", null, null).orElseThrow();
+
+        assertThat(updated.getFirstName()).isEqualTo("Alicia");
+        assertThat(updated.getLastName()).isEqualTo("Smith");
+        assertThat(updated.getJwtToken()).isEqualTo("jwt");
+        assertThat(updated.getAddress()).containsExactly("address_1");
+        assertThat(updated.getOrders()).containsExactly("order_1");
+        assertThat(updated.getBuyingProducts()).containsExactly("p1");
+        assertThat(updated.getCartItems()).extracting(CartItem::getProductId).containsExactly("p2");
+        assertThat(updated.getProfileImage()).isEqualTo("new.png");
+        assertThat(updated.getProfileImageStatus()).isEqualTo(ImageStatus.READY);
+    }
+
+    @Test
+    void logoutClearsTheTokenAndOauthKeepsAnExistingImage() {
+        userRepository.setJwtToken(EMAIL, "jwt");
+        userRepository.setJwtToken(EMAIL, null);
+        assertThat(userRepository.setProfileImageIfMissing(EMAIL, "google.png")).isTrue();
+        assertThat(userRepository.setProfileImageIfMissing(EMAIL, "other.png")).isFalse();
+
+        User user = userRepository.findByEmail(EMAIL).orElseThrow();
+        assertThat(user.getJwtToken()).isNull();
+        assertThat(user.getProfileImage()).isEqualTo("google.png");
+    }
+
+    @Test
+    void unknownUsersAreReported() {
+        assertThat(userRepository.setJwtToken("bob@example.com", "jwt")).isFalse();
+        assertThat(userRepository.pushAddress("bob@example.com", "address_1")).isFalse();
+        assertThat(userRepository.setProfileFields("bob@example.com", "Bob", null, null)).isEmpty();
+    }
+}
@@ -0,0 +1,115 @@
+package com.shophub.ecommerce.search;
+
+import com.shophub.ecommerce.enums.ProductStatus;
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import com.shophub.ecommerce.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class ProductFacetIndexTest {
+
+    private final ProductFacetIndex index = new ProductFacetIndex(null);
+
+    @Test
+    void priceBoundInsideABucketChecksExactPrices() {
+        save("p1", "Chairs", ProductStatus.IN_STOCK, 100);
+        save("p2", "Chairs", ProductStatus.IN_STOCK, 600);
+        save("p3", "Chairs", ProductStatus.IN_STOCK, 900);
+        save("p4", "Chairs", ProductStatus.IN_STOCK, 1200);
+        save("p5", "Chairs", ProductStatus.IN_STOCK, 3000);
+
+        assertThat(ids(query(null, null, 700.0, 1500.0, ProductFilter.Sort.PRICE_ASC))).containsExactly("p3", "p4");
+        // Both bounds are inclusive
+        assertThat(ids(query(null, null, 600.0, 600.0, ProductFilter.Sort.PRICE_ASC))).containsExactly("p2");
+        assertThat(ids(query(null, null, 500.0, 1000.0, ProductFilter.Sort.PRICE_ASC))).containsExactly("p2", "p3");
+        assertThat(ids(query(null, null, 2000.0, null, ProductFilter.Sort.PRICE_ASC))).containsExactly("p5");
+    }
+
+    @Test
+    void facetCountsLeaveOutTheirOwnDimension() {
+        save("p1", "Chairs", ProductStatus.IN_STOCK, 100);
+        save("p2", "Chairs", ProductStatus.OUT_OF_STOCK, 700);
+        save("p3", "chairs ", ProductStatus.IN_STOCK, 800);
+        save("p4", "Tables", ProductStatus.IN_STOCK, 900);
+        save("p5", "Tables", ProductStatus.OUT_OF_STOCK, 3000);
+
+        ProductFacetIndex.Result result = query(Set.of("CHAIRS"), Set.of(ProductStatus.IN_STOCK), null, null,
+                ProductFilter.Sort.PRICE_ASC);
+
+        assertThat(ids(result)).containsExactly("p1", "p3");
+        assertThat(result.total()).isEqualTo(2);
+        // Other categories are counted under the status filter only
+        assertThat(result.facets().get(ProductFacetIndex.CATEGORY_FACET))
+                .containsOnly(entry("chairs", 2), entry("Tables", 1));
+        // Other statuses are counted under the category filter only
+        assertThat(result.facets().get(ProductFacetIndex.STATUS_FACET))
+                .containsOnly(entry("IN_STOCK", 2), entry("OUT_OF_STOCK", 1));
+        // Price buckets are counted under both other filters
+        assertThat(result.facets().get(ProductFacetIndex.PRICE_FACET))
+                .contains(entry("0-500", 1), entry("500-1000", 1), entry("2500-5000", 0));
+    }
+
+    @Test
+    void deletedDocIdIsReusedWithoutLeakingTheOldProduct() {
+        save("p1", "Chairs", ProductStatus.IN_STOCK, 100);
+        save("p2", "Lamps", ProductStatus.OUT_OF_STOCK, 200);
+        save("p3", "Chairs", ProductStatus.IN_STOCK, 300);
+
+        index.onProductChange(ProductChangeEvent.deleted(Product.builder().id("p2").build()));
+        save("p4", "Tables", ProductStatus.IN_STOCK, 6000);
+
+        ProductFacetIndex.Result all = query(null, null, null, null, ProductFilter.Sort.PRICE_ASC);
+        assertThat(ids(all)).containsExactly("p1", "p3", "p4");
+        assertThat(all.facets().get(ProductFacetIndex.CATEGORY_FACET))
+                .containsOnly(entry("Chairs", 2), entry("Tables", 1));
+        assertThat(all.facets().get(ProductFacetIndex.STATUS_FACET)).containsEntry("OUT_OF_STOCK", 0);
+        assertThat(ids(query(Set.of("Lamps"), null, null, null, ProductFilter.Sort.PRICE_ASC))).isEmpty();
+        assertThat(ids(query(null, null, 150.0, 250.0, ProductFilter.Sort.PRICE_ASC))).isEmpty();
+        assertThat(ids(query(Set.of("Tables"), null, 5000.0, null, ProductFilter.Sort.PRICE_ASC)))
+                .containsExactly("p4");
+    }
+
+    @Test
+    void sortOrderFollowsWrites() {
+        Instant now = Instant.now();
+        save("p1", "Chairs", ProductStatus.IN_STOCK, 300, now.minusSeconds(30));
+        save("p2", "Chairs", ProductStatus.IN_STOCK, 100, now.minusSeconds(20));
+        save("p3", "Chairs", ProductStatus.IN_STOCK, 200, now.minusSeconds(10));
+        assertThat(ids(query(null, null, null, null, ProductFilter.Sort.PRICE_ASC))).containsExactly("p2", "p3", "p1");
+
+        // A repricing, a new product and a delete must all show up in the next query
+        save("p2", "Chairs", ProductStatus.IN_STOCK, 400, now.minusSeconds(20));
+        save("p4", "Chairs", ProductStatus.IN_STOCK, 250, now);
+        index.onProductChange(ProductChangeEvent.deleted(Product.builder().id("p3").build()));
+
+        assertThat(ids(query(null, null, null, null, ProductFilter.Sort.PRICE_ASC))).containsExactly("p4", "p1", "p2");
+        assertThat(ids(query(null, null, null, null, ProductFilter.Sort.PRICE_DESC))).containsExactly("p2", "p1", "p4");
+        assertThat(ids(query(null, null, null, null, ProductFilter.Sort.NEWEST))).containsExactly("p4", "p2", "p1");
+        assertThat(ids(index.query(new ProductFilter(null, null, null, null, ProductFilter.Sort.PRICE_ASC, 1, 1))))
+                .containsExactly("p1");
+    }
+
+    private void save(String id, String category, ProductStatus status, double price) {
+        save(id, category, status, price, null);
+    }
+
+    private void save(String id, String category, ProductStatus status, double price, Instant createdAt) {
+        index.onProductChange(ProductChangeEvent.saved(Product.builder().id(id).productName("Product " + id)
+                .category(category).status(status).price(price).createdAt(createdAt).build()));
+    }
+
+    private ProductFacetIndex.Result query(Set<String> categories, Set<ProductStatus> statuses, Double minPrice,
+            Double maxPrice, ProductFilter.Sort sort) {
+        return index.query(new ProductFilter(categories, statuses, minPrice, maxPrice, sort, 0, 20));
+    }
+
+    private static List<String> ids(ProductFacetIndex.Result result) {
+        return result.products().stream().map(Product::getId).toList();
+    }
+}
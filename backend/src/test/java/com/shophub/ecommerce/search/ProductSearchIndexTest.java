@@ -0,0 +1,52 @@
+package com.shophub.ecommerce.search;
+
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void shortPrefixKeepsTheMostCommonExpansions() {
+        ProductSearchIndex index = new ProductSearchIndex(null);
+        // One-off model codes sort ahead of "chair" and outnumber the expansion cap
+        for (int i = 0; i < 100; i++) {
+            index.index(Product.builder().id("code-" + i).productName(String.format("cha%03d adapter", i)).build());
+        }
+        for (int i = 0; i < 5; i++) {
+            index.index(Product.builder().id("chair-" + i).productName("Oak chair " + i).build());
+        }
+
+        List<Product> results = index.search("cha", 200);
+
+        assertThat(results).extracting(Product::getId)
+                .contains("chair-0", "chair-1", "chair-2", "chair-3", "chair-4");
+    }
+
+    @Test
+    void changeDuringRebuildIsNotOverwrittenByTheStaleRead() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        ProductSearchIndex index = new ProductSearchIndex(productRepository);
+        Product oak = Product.builder().id("p1").productName("Oak chair").build();
+        Product gone = Product.builder().id("p2").productName("Pine shelf").build();
+        // The read returns the old rows; the rename and delete land before the swap
+        when(productRepository.findAll()).thenAnswer(invocation -> {
+            index.onProductChange(ProductChangeEvent.saved(Product.builder().id("p1").productName("Walnut chair").build()));
+            index.onProductChange(ProductChangeEvent.deleted(gone));
+            return List.of(oak, gone);
+        });
+
+        index.rebuild();
+
+        assertThat(index.search("walnut", 10)).extracting(Product::getId).containsExactly("p1");
+        assertThat(index.search("oak", 10)).isEmpty();
+        assertThat(index.search("pine", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,73 @@
+package com.shophub.ecommerce.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    private static final int TOP_K = 5;
+
+    private final Map<Integer, Long> weights = new HashMap<>();
+    private final Map<Integer, List<String>> keysById = new HashMap<>();
+    private final SuggestionTrie trie = new SuggestionTrie(TOP_K, (a, b) -> {
+        int byWeight = Long.compare(weights.get(b), weights.get(a));
+        return byWeight != 0 ? byWeight : Integer.compare(a, b);
+    });
+
+    @Test
+    void completionsMatchABruteForceRankingThroughChanges() {
+        Random random = new Random(3);
+        String[] words = { "red", "phone", "pro", "case", "charger", "rec", "ph", "cable" };
+        for (int id = 0; id < 300; id++) {
+            String text = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            weights.put(id, (long) random.nextInt(20));
+            List<String> keys = List.of(text, text.substring(text.indexOf(' ') + 1));
+            keysById.put(id, keys);
+            for (String key : keys) {
+                trie.insert(key, id);
+            }
+        }
+        assertCompletionsMatch(words);
+
+        // Re-weight and remove entries incrementally, as catalog changes do
+        for (int step = 0; step < 200; step++) {
+            int id = random.nextInt(300);
+            if (!keysById.containsKey(id)) {
+                continue;
+            }
+            if (random.nextBoolean()) {
+                weights.put(id, (long) random.nextInt(20));
+                keysById.get(id).forEach(trie::refresh);
+            } else {
+                for (String key : keysById.remove(id)) {
+                    trie.remove(key, id);
+                }
+            }
+        }
+        assertCompletionsMatch(words);
+    }
+
+    private void assertCompletionsMatch(String[] words) {
+        List<String> prefixes = new ArrayList<>(List.of("r", "re", "p", "ph", "c", "ca", "red ", "pro c"));
+        prefixes.addAll(List.of(words));
+        for (String prefix : prefixes) {
+            int[] expected = keysById.entrySet().stream()
+                    .filter(entry -> entry.getValue().stream().anyMatch(key -> key.startsWith(prefix)))
+                    .map(Map.Entry::getKey)
+                    .sorted(Comparator.<Integer>comparingLong(weights::get).reversed()
+                            .thenComparing(Comparator.naturalOrder()))
+                    .limit(TOP_K)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            assertThat(trie.complete(prefix, TOP_K)).as("prefix '%s'", prefix).containsExactly(expected);
+        }
+    }
+}
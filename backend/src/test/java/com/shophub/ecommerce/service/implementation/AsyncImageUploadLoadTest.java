@@ -0,0 +1,249 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.enums.ImageStatus;
+import com.shophub.ecommerce.event.ImageUploadEvent;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.service.ImageUploadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Many concurrent 10 MB uploads through the pipeline into the local image store, while a sampler
+ * records the live heap after each forced GC. Run with {@code mvn -Pload-test test}.
+ */
+@Tag("load")
+class AsyncImageUploadLoadTest {
+
+    private static final int CLIENTS = 32;
+    private static final int UPLOADS = 96;
+    private static final int UPLOAD_BYTES = 10 * 1024 * 1024;
+    private static final int WORKERS = 4;
+    private static final int QUEUE_CAPACITY = 16;
+
+    @TempDir
+    private Path tempDir;
+
+    private final Queue<ImageUploadEvent> results = new ConcurrentLinkedQueue<>();
+    private AsyncImageUploadService uploads;
+    private Path spoolDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ImageDeduplicator deduplicator = mock(ImageDeduplicator.class);
+        doAnswer(invocation -> invocation.getArgument(2, ImageDeduplicator.Upload.class).run().url())
+                .when(deduplicator).upload(any(File.class), anyString(), any());
+
+        // Stands in for the round trip to Cloudinary
+        LocalImageStorageService store = new LocalImageStorageService(deduplicator);
+        ReflectionTestUtils.setField(store, "directory", tempDir.resolve("images").toString());
+        ReflectionTestUtils.setField(store, "baseUrl", "http://localhost/local-images");
+        ReflectionTestUtils.setField(store, "latency", Duration.ofMillis(100));
+        ReflectionTestUtils.invokeMethod(store, "init");
+
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        doAnswer(invocation -> results.add(invocation.getArgument(0)))
+                .when(eventPublisher).publishEvent(any(Object.class));
+
+        spoolDir = tempDir.resolve("spool");
+        uploads = new AsyncImageUploadService(store, deduplicator, eventPublisher, mock(ProductRepository.class),
+                mock(UserRepository.class));
+        ReflectionTestUtils.setField(uploads, "workers", WORKERS);
+        ReflectionTestUtils.setField(uploads, "queueCapacity", QUEUE_CAPACITY);
+        ReflectionTestUtils.setField(uploads, "maxAttempts", 3);
+        ReflectionTestUtils.setField(uploads, "retryBackoff", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(uploads, "staleAfter", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(uploads, "spoolDirectory", spoolDir.toString());
+        ReflectionTestUtils.invokeMethod(uploads, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(uploads, "shutdown");
+    }
+
+    @Test
+    void heapStaysFlatUnderConcurrentUploads() throws Exception {
+        long baseline = liveHeap();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (sampling.get()) {
+                peak.accumulateAndGet(liveHeap(), Math::max);
+                sleep(200);
+            }
+        });
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<Integer>> rejections = new ArrayList<>();
+        for (int i = 0; i < UPLOADS; i++) {
+            int index = i;
+            rejections.add(clients.submit(() -> uploadWithRetry(index)));
+        }
+        int rejected = 0;
+        for (Future<Integer> future : rejections) {
+            rejected += future.get(5, TimeUnit.MINUTES);
+        }
+        clients.shutdown();
+
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while (results.size() < UPLOADS && System.nanoTime() < deadline) {
+            sleep(100);
+        }
+        sampling.set(false);
+        sampler.join();
+
+        long growth = peak.get() - baseline;
+        System.out.printf("%d uploads of %d MiB: live heap grew by at most %d MiB, %d submissions refused with 503%n",
+                UPLOADS, UPLOAD_BYTES >> 20, growth >> 20, rejected);
+
+        assertThat(results).hasSize(UPLOADS).allSatisfy(event -> assertThat(event.status()).isEqualTo(ImageStatus.READY));
+        // Holding the in-flight uploads in memory would take (workers + queue) * 10 MiB = 200 MiB
+        assertThat(growth).isLessThan(32L * 1024 * 1024);
+        try (var spooled = Files.list(spoolDir)) {
+            assertThat(spooled).isEmpty();
+        }
+        assertThat(uploads.getStatistics()).containsEntry("free_slots", WORKERS + QUEUE_CAPACITY);
+    }
+
+    // Returns how many times the queue was full, like a client retrying on 503
+    private int uploadWithRetry(int index) throws IOException {
+        int rejected = 0;
+        while (true) {
+            try {
+                ImageUploadService.PendingUpload upload = uploads.accept(new GeneratedFile(index), "load-test");
+                upload.start(ImageUploadEvent.Target.PRODUCT, "product-" + index);
+                return rejected;
+            } catch (ApiException e) {
+                assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                rejected++;
+                sleep(50);
+            }
+        }
+    }
+
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A multipart file whose content is generated while it is streamed, the way Tomcat hands over a
+     * part already on disk. Reading it into a byte array fails the test.
+     */
+    private static final class GeneratedFile implements MultipartFile {
+
+        private final int seed;
+
+        GeneratedFile(int seed) {
+            this.seed = seed;
+        }
+
+        @Override
+        public String getName() {
+            return "image";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "upload-" + seed + ".jpg";
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/jpeg";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return false;
+        }
+
+        @Override
+        public long getSize() {
+            return UPLOAD_BYTES;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("Upload read into the heap");
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private int position;
+
+                @Override
+                public int read() {
+                    return position < UPLOAD_BYTES ? (position++ * 31 + seed) & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    if (position >= UPLOAD_BYTES) {
+                        return -1;
+                    }
+                    int count = Math.min(length, UPLOAD_BYTES - position);
+                    for (int i = 0; i < count; i++) {
+                        buffer[offset + i] = (byte) ((position++ * 31 + seed) & 0xFF);
+                    }
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            transferTo(dest.toPath());
+        }
+
+        @Override
+        public void transferTo(Path dest) throws IOException {
+            try (InputStream in = getInputStream()) {
+                Files.copy(in, dest, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
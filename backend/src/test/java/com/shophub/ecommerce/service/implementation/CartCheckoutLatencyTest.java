@@ -0,0 +1,153 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.shophub.ecommerce.enums.PaymentStatus;
+import com.shophub.ecommerce.mapper.OrderDetailsMapper;
+import com.shophub.ecommerce.mapper.OrderMapper;
+import com.shophub.ecommerce.model.Address;
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.AddressRepository;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.service.OrderService;
+import com.shophub.ecommerce.service.OutboxHandler;
+import com.shophub.ecommerce.service.StockHoldService;
+import com.shophub.ecommerce.service.StockStore;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkout latency and Mongo round trips for carts of 1 to 100 lines, against the embedded server.
+ * Prints median and p95 per cart size. Run with {@code mvn -Pload-test test}.
+ * <p>
+ * Products do not track stock here: the embedded server cannot run the pipeline update behind
+ * {@code MongoStockStore}, which adds one conditional write per tracked line.
+ */
+@Tag("load")
+@DataMongoTest(properties = "cart.store=mongo")
+@Import({ OrderServiceImpl.class, MongoCartStore.class, MongoOutboxService.class,
+        OrderMapper.class, OrderDetailsMapper.class })
+class CartCheckoutLatencyTest {
+
+    private static final int[] CART_SIZES = { 1, 5, 10, 25, 50, 100 };
+    private static final int WARMUP = 5;
+    private static final int RUNS = 30;
+
+    // Commands issued by the checkout thread only; the outbox poller runs on its own
+    private static final AtomicInteger commands = new AtomicInteger();
+    private static volatile Thread measured;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "checkout-latency");
+    }
+
+    @TestConfiguration
+    static class CountCommands {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCounter() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (Thread.currentThread() == measured) {
+                        commands.incrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+
+    @MockitoBean
+    private StockStore stockStore;
+
+    @MockitoBean
+    private StockHoldService stockHoldService;
+
+    @MockitoBean
+    private OutboxHandler outboxHandler;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Test
+    void roundTripsDoNotGrowWithCartSize() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            products.add(productRepository.save(Product.builder().productName("Product " + i).price(10.0 + i)
+                    .build()));
+        }
+        User user = userRepository.save(User.builder().email("buyer@example.com").firstName("Buyer")
+                .lastName("One").build());
+        Address address = addressRepository.save(Address.builder().user(user.getId()).name("Buyer One")
+                .phoneNumber("9876543210").houseNo("1").area("Area").city("City").state("State").pinCode("560001")
+                .build());
+
+        Map<Integer, Integer> commandsBySize = new LinkedHashMap<>();
+        System.out.printf("%n%6s %12s %12s %10s%n", "lines", "median ms", "p95 ms", "commands");
+        for (int size : CART_SIZES) {
+            List<CartItem> cart = products.subList(0, size).stream()
+                    .map(product -> new CartItem(product.getId(), 1))
+                    .toList();
+            long[] nanos = new long[RUNS];
+            for (int run = -WARMUP; run < RUNS; run++) {
+                user.setCartItems(new ArrayList<>(cart));
+                userRepository.save(user);
+
+                commands.set(0);
+                measured = Thread.currentThread();
+                long start = System.nanoTime();
+                orderService.createOrderFromCart(user.getEmail(), PaymentStatus.PENDING, "COD", address.getId(),
+                        null, null, null);
+                long elapsed = System.nanoTime() - start;
+                measured = null;
+                if (run >= 0) {
+                    nanos[run] = elapsed;
+                }
+            }
+            Arrays.sort(nanos);
+            commandsBySize.put(size, commands.get());
+            System.out.printf("%6d %12.2f %12.2f %10d%n", size, millis(nanos[RUNS / 2]),
+                    millis(nanos[(int) (RUNS * 0.95)]), commands.get());
+        }
+
+        assertThat(commandsBySize.values()).as("commands per checkout by cart size %s", commandsBySize)
+                .containsOnly(commandsBySize.get(1));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,144 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.dto.CatalogDeltaResponse;
+import com.shophub.ecommerce.dto.CatalogSyncToken;
+import com.shophub.ecommerce.dto.ProductResponse;
+import com.shophub.ecommerce.mapper.ProductMapper;
+import com.shophub.ecommerce.model.ProductTombstone;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.repository.ProductTombstoneRepository;
+import com.shophub.ecommerce.search.ProductFacetIndex;
+import com.shophub.ecommerce.search.ProductSearchIndex;
+import com.shophub.ecommerce.search.ProductSuggestIndex;
+import com.shophub.ecommerce.service.ImageUploadService;
+import com.shophub.ecommerce.service.ProductService;
+import com.shophub.ecommerce.service.StockStore;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The catalog change feed: paging, the sync window and delete tombstones.
+ */
+@DataMongoTest
+// Class-based proxies as in the application, for the @EventListener on the implementation
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({ ProductServiceImpl.class, ProductMapper.class })
+class CatalogChangesTest {
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "catalog-changes");
+    }
+
+    @MockitoBean
+    private ImageUploadService imageUploadService;
+
+    @MockitoBean
+    private StockStore stockStore;
+
+    @MockitoBean
+    private ProductSearchIndex productSearchIndex;
+
+    @MockitoBean
+    private ProductFacetIndex productFacetIndex;
+
+    @MockitoBean
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private Instant start;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        productTombstoneRepository.deleteAll();
+        start = Instant.now();
+        insert("p1", start.minusSeconds(60));
+        insert("p2", start.minusSeconds(50));
+        insert("p3", start.minusSeconds(40));
+        // Still inside the sync overlap, so not reported yet
+        insert("p4", start);
+        insert("p5", start);
+    }
+
+    @Test
+    void pagingStopsAtTheSyncWindow() {
+        CatalogDeltaResponse first = productService.getCatalogChanges(null, 2);
+        assertThat(first.isFullResync()).isTrue();
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getProducts()).extracting(ProductResponse::getId).containsExactly("p1", "p2");
+
+        CatalogDeltaResponse second = productService.getCatalogChanges(first.getNextSince(), 2);
+        assertThat(second.isFullResync()).isFalse();
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getProducts()).extracting(ProductResponse::getId).containsExactly("p3");
+        assertThat(CatalogSyncToken.decode(second.getNextSince()).updatedAt()).isBefore(start);
+    }
+
+    @Test
+    void tombstonesAreReportedOnceTheClientHasCaughtUp() {
+        tombstone("gone-before", start.minusSeconds(300));
+        tombstone("gone-after", start.minusSeconds(30));
+        String since = new CatalogSyncToken(start.minusSeconds(45), "", start.minusSeconds(45)).encode();
+
+        CatalogDeltaResponse first = productService.getCatalogChanges(since, 1);
+        assertThat(first.isHasMore()).isFalse();
+        assertThat(first.getProducts()).extracting(ProductResponse::getId).containsExactly("p3");
+        assertThat(first.getDeletedIds()).containsExactly("gone-after");
+
+        CatalogDeltaResponse paged = productService.getCatalogChanges(
+                new CatalogSyncToken(start.minusSeconds(120), "", start.minusSeconds(45)).encode(), 1);
+        assertThat(paged.isHasMore()).isTrue();
+        assertThat(paged.getDeletedIds()).isEmpty();
+    }
+
+    @Test
+    void tokenOlderThanTombstoneRetentionForcesAFullResync() {
+        Instant expired = start.minus(ProductTombstone.RETENTION).minus(Duration.ofHours(1));
+        String since = new CatalogSyncToken(start.minusSeconds(45), "", expired).encode();
+
+        CatalogDeltaResponse response = productService.getCatalogChanges(since, 10);
+
+        assertThat(response.isFullResync()).isTrue();
+        assertThat(response.getProducts()).extracting(ProductResponse::getId).containsExactly("p1", "p2", "p3");
+        assertThat(response.getDeletedIds()).isEmpty();
+    }
+
+    private void insert(String id, Instant updatedAt) {
+        mongoTemplate.getCollection("products").insertOne(new Document("_id", id)
+                .append("product_name", "Product " + id)
+                .append("updatedAt", Date.from(updatedAt)));
+    }
+
+    private void tombstone(String productId, Instant deletedAt) {
+        productTombstoneRepository.save(new ProductTombstone(productId, deletedAt));
+    }
+}
@@ -0,0 +1,45 @@
+package com.shophub.ecommerce.service.implementation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRowReaderTest {
+
+    @Test
+    void readsQuotedFieldsWithCommasQuotesAndLineBreaks() throws IOException {
+        CsvRowReader csv = reader("a,\"b, \"\"c\"\"\nd\",e\r\n\r\nf,g,h", 100, 1000);
+
+        assertThat(csv.next()).containsExactly("a", "b, \"c\"\nd", "e");
+        assertThat(csv.next()).containsExactly("f", "g", "h");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void unterminatedQuoteStopsAtTheFieldCap() throws IOException {
+        CsvRowReader csv = reader("name,price\n\"Phone,10\n" + "x,1\n".repeat(1000), 64, 10_000);
+
+        assertThat(csv.next()).containsExactly("name", "price");
+        assertThatThrownBy(csv::next)
+                .isInstanceOf(CsvRowReader.LimitExceededException.class)
+                .hasMessageContaining("unterminated quote");
+    }
+
+    @Test
+    void longRecordStopsAtTheRecordCap() {
+        CsvRowReader csv = reader(List.of("a".repeat(50), "b".repeat(50), "c".repeat(50)).toString(), 64, 100);
+
+        assertThatThrownBy(csv::next)
+                .isInstanceOf(CsvRowReader.LimitExceededException.class)
+                .hasMessageContaining("Record longer than 100");
+    }
+
+    private static CsvRowReader reader(String input, int maxField, int maxRecord) {
+        return new CsvRowReader(new StringReader(input), maxField, maxRecord);
+    }
+}
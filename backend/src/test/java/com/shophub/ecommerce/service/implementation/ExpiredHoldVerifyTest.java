@@ -0,0 +1,126 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.enums.PaymentStatus;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.mapper.OrderDetailsMapper;
+import com.shophub.ecommerce.mapper.OrderMapper;
+import com.shophub.ecommerce.model.Address;
+import com.shophub.ecommerce.model.Order;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.AddressRepository;
+import com.shophub.ecommerce.repository.OrderRepository;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.service.OrderService;
+import com.shophub.ecommerce.service.OutboxHandler;
+import com.shophub.ecommerce.service.StockHoldService;
+import com.shophub.ecommerce.service.StockStore;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifying a payment whose stock hold has already expired.
+ */
+@DataMongoTest(properties = "cart.store=mongo")
+@Import({ OrderServiceImpl.class, MongoCartStore.class, MongoOutboxService.class,
+        OrderMapper.class, OrderDetailsMapper.class })
+class ExpiredHoldVerifyTest {
+
+    private static final List<StockStore.StockLine> LINES = List.of(new StockStore.StockLine("p1", 2));
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "expired-hold-verify");
+    }
+
+    @MockitoBean
+    private StockStore stockStore;
+
+    @MockitoBean
+    private StockHoldService stockHoldService;
+
+    @MockitoBean
+    private OutboxHandler outboxHandler;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    private String addressId;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        addressRepository.deleteAll();
+        User user = userRepository.save(User.builder().email("buyer@example.com").firstName("Buyer")
+                .lastName("One").build());
+        productRepository.save(Product.builder().id("p1").productName("Lamp").price(25.0).stock(0).build());
+        addressId = addressRepository.save(Address.builder().user(user.getId()).name("Buyer One")
+                .phoneNumber("9876543210").houseNo("1").area("Area").city("City").state("State").pinCode("560001")
+                .build()).getId();
+        when(stockHoldService.convert(anyString(), anyString(), anyList())).thenReturn(false);
+    }
+
+    @Test
+    void soldOutAfterTheHoldExpiredKeepsThePaidOrder() {
+        doThrow(new ApiException(HttpStatus.CONFLICT, "Not enough stock for product: p1"))
+                .when(stockStore).reserve(LINES);
+
+        Order order = verifyPayment();
+
+        assertThat(order.isBackordered()).isTrue();
+        assertThat(orderRepository.findById(order.getId())).get()
+                .satisfies(saved -> {
+                    assertThat(saved.isBackordered()).isTrue();
+                    assertThat(saved.getPaymentStatus()).isEqualTo(PaymentStatus.SUCCESS);
+                    assertThat(saved.getRazorpayPaymentId()).isEqualTo("pay_1");
+                });
+        assertThat(userRepository.findByEmail("buyer@example.com").orElseThrow().getOrders())
+                .containsExactly(order.getId());
+        verify(stockStore, never()).release(any());
+    }
+
+    @Test
+    void stockLeftAfterTheHoldExpiredIsReservedAgain() {
+        Order order = verifyPayment();
+
+        assertThat(order.isBackordered()).isFalse();
+        verify(stockStore).reserve(LINES);
+        verify(stockStore, never()).release(any());
+    }
+
+    private Order verifyPayment() {
+        return orderService.createOrder("buyer@example.com", "p1", PaymentStatus.SUCCESS, "ONLINE", addressId, 2,
+                "order_1", "pay_1", "signature");
+    }
+}
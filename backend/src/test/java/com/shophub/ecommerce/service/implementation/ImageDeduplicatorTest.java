@@ -0,0 +1,104 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.model.ImageAsset;
+import com.shophub.ecommerce.repository.ImageAssetRepository;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import com.shophub.ecommerce.support.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@ImportAutoConfiguration(RedisAutoConfiguration.class)
+@Import(ImageDeduplicator.class)
+class ImageDeduplicatorTest {
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "image-dedup");
+        EmbeddedRedis.register(registry);
+        // Every reuse goes to Mongo, so the stamps are observable
+        registry.add("image-dedup.touch-interval", () -> "0s");
+    }
+
+    @Autowired
+    private ImageDeduplicator imageDeduplicator;
+
+    @Autowired
+    private ImageAssetRepository imageAssetRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    private final AtomicInteger uploads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        imageAssetRepository.deleteAll();
+        EmbeddedRedis.flushAll(redisTemplate);
+    }
+
+    @Test
+    void reuseIsStampedAndProtectsTheImageFromCollection() throws IOException {
+        File file = image("same bytes");
+        String url = upload(file);
+        Instant cutoff = Instant.now().plusSeconds(1);
+
+        // Unused since the cutoff: forgotten, and the next identical upload goes to the store again
+        assertThat(imageDeduplicator.forget(List.of(url), cutoff)).isEmpty();
+        assertThat(imageAssetRepository.count()).isZero();
+        String reuploaded = upload(file);
+        assertThat(uploads).hasValue(2);
+
+        Instant before = Instant.now().minus(Duration.ofMinutes(1));
+        assertThat(upload(file)).isEqualTo(reuploaded);
+        assertThat(uploads).hasValue(2);
+        assertThat(imageDeduplicator.forget(List.of(reuploaded), before)).containsExactly(reuploaded);
+        assertThat(imageAssetRepository.findAll()).singleElement()
+                .extracting(ImageAsset::getLastUsedAt).satisfies(at -> assertThat(at).isAfter(before));
+    }
+
+    @Test
+    void recordForgottenElsewhereIsAMissNotAStaleHit() throws IOException {
+        File file = image("shared bytes");
+        String url = upload(file);
+        // Another node's collector removes the record directly
+        imageAssetRepository.deleteAll();
+
+        assertThat(upload(file)).isNotEqualTo(url);
+        assertThat(uploads).hasValue(2);
+    }
+
+    private String upload(File file) throws IOException {
+        return imageDeduplicator.upload(file, "products", () -> {
+            int n = uploads.incrementAndGet();
+            return new ImageDeduplicator.Stored("https://images.example/" + n, "products/" + n);
+        });
+    }
+
+    private File image(String content) throws IOException {
+        return Files.writeString(tempDir.resolve(content.replace(' ', '-') + ".png"), content).toFile();
+    }
+}
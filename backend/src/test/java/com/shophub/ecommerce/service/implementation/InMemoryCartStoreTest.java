@@ -0,0 +1,43 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class InMemoryCartStoreTest {
+
+    @Test
+    void failedWriteOnEvictionKeepsTheCartForTheNextFlush() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findCartByEmail(anyString()))
+                .thenAnswer(invocation -> Optional.of(User.builder().cartItems(new ArrayList<>()).build()));
+        doThrow(new IllegalStateException("mongo down")).doNothing().when(userRepository).replaceCarts(anyMap());
+        AtomicLong nanos = new AtomicLong();
+        InMemoryCartStore store = new InMemoryCartStore(userRepository, nanos::get, Runnable::run);
+
+        store.addItem("alice@example.com", "p1", 2);
+        nanos.addAndGet(Duration.ofHours(2).toNanos());
+        // Any access runs the pending eviction, whose write fails
+        store.getCart("bob@example.com");
+        verify(userRepository).replaceCarts(Map.of("alice@example.com", List.of(new CartItem("p1", 2))));
+
+        store.flush();
+
+        verify(userRepository, times(2))
+                .replaceCarts(Map.of("alice@example.com", List.of(new CartItem("p1", 2))));
+        assertThat(store.getCart("alice@example.com")).containsExactly(new CartItem("p1", 2));
+    }
+}
@@ -0,0 +1,112 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class MongoCartStoreConcurrencyTest {
+
+    private static final String EMAIL = "alice@example.com";
+    private static final int WRITERS = 32;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "cart-concurrency");
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private MongoCartStore cartStore;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userRepository.save(User.builder().email(EMAIL).cartItems(new ArrayList<>()).build());
+        cartStore = new MongoCartStore(userRepository);
+    }
+
+    @Test
+    void parallelAddsOfDifferentProductsAreAllKept() throws Exception {
+        List<Boolean> added = runConcurrently(i -> cartStore.addItem(EMAIL, "product-" + i, 1));
+
+        assertThat(added).containsOnly(true);
+        assertThat(cartStore.getCart(EMAIL)).extracting(CartItem::getProductId)
+                .containsExactlyInAnyOrderElementsOf(IntStream.range(0, WRITERS).mapToObj(i -> "product-" + i).toList());
+    }
+
+    @Test
+    void parallelAddsOfTheSameProductAddItOnce() throws Exception {
+        List<Boolean> added = runConcurrently(i -> cartStore.addItem(EMAIL, "product-1", 1));
+
+        assertThat(added).containsOnlyOnce(true);
+        assertThat(cartStore.getCart(EMAIL)).hasSize(1);
+    }
+
+    @Test
+    void quantityUpdatesAndCheckoutDoNotDropOtherLines() throws Exception {
+        for (int i = 0; i < WRITERS; i++) {
+            cartStore.addItem(EMAIL, "product-" + i, 1);
+        }
+
+        // Even lines are checked out one by one while odd lines get new quantities
+        runConcurrently(i -> i % 2 == 0
+                ? userRepository.recordOrder(EMAIL, "order-" + i, List.of("product-" + i))
+                : cartStore.setQuantity(EMAIL, "product-" + i, i));
+
+        List<CartItem> cart = cartStore.getCart(EMAIL);
+        assertThat(cart).hasSize(WRITERS / 2)
+                .allSatisfy(item -> assertThat(item.getQuantity())
+                        .isEqualTo(Integer.parseInt(item.getProductId().substring("product-".length()))));
+        User user = userRepository.findByEmail(EMAIL).orElseThrow();
+        assertThat(user.getOrders()).hasSize(WRITERS / 2);
+        assertThat(user.getBuyingProducts()).hasSize(WRITERS / 2);
+    }
+
+    private <T> List<T> runConcurrently(IndexedCall<T> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                int index = i;
+                futures.add(executor.submit((Callable<T>) () -> {
+                    start.await();
+                    return call.apply(index);
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface IndexedCall<T> {
+        T apply(int index) throws Exception;
+    }
+}
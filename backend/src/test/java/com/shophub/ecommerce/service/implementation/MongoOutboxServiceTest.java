@@ -0,0 +1,239 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.enums.OutboxEventType;
+import com.shophub.ecommerce.enums.OutboxStatus;
+import com.shophub.ecommerce.model.OutboxEvent;
+import com.shophub.ecommerce.repository.OutboxEventRepository;
+import com.shophub.ecommerce.service.OutboxHandler;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Claiming, leasing, retrying and parking outbox events. The background poller is pushed out of
+ * the way and each test drives {@code poll()} itself.
+ */
+@DataMongoTest(properties = { "outbox.poll-interval-ms=3600000", "outbox.claim-ttl=1m",
+        "outbox.max-attempts=4", "outbox.retry-backoff=1s", "outbox.max-backoff=3s" })
+@Import({ MongoOutboxService.class, MongoOutboxServiceTest.Handlers.class })
+class MongoOutboxServiceTest {
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "mongo-outbox");
+    }
+
+    @Autowired
+    private MongoOutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RecordingHandler email;
+
+    @Autowired
+    private RecordingHandler stock;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        email.reset();
+        stock.reset();
+    }
+
+    @Test
+    void pollDeliversDueEventsAndSkipsLiveLeases() {
+        String first = record("o1");
+        String second = record("o2");
+        String leased = record("o3");
+        lease(leased, "other-node:1", Instant.now().plus(Duration.ofMinutes(1)));
+
+        outboxService.poll();
+
+        assertThat(email.handled).containsExactlyInAnyOrder("o1", "o2");
+        assertThat(stock.handled).containsExactlyInAnyOrder("o1", "o2");
+        assertThat(event(first).getStatus()).isEqualTo(OutboxStatus.DISPATCHED);
+        assertThat(event(second).getClaimedBy()).isNull();
+        assertThat(event(leased).getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(event(leased).getClaimedBy()).isEqualTo("other-node:1");
+    }
+
+    @Test
+    void expiredLeaseIsTakenOver() {
+        String id = record("o1");
+        lease(id, "dead-node:1", Instant.now().minusSeconds(1));
+
+        outboxService.poll();
+
+        assertThat(email.handled).containsExactly("o1");
+        assertThat(event(id).getStatus()).isEqualTo(OutboxStatus.DISPATCHED);
+    }
+
+    @Test
+    void outcomeIsDroppedWhenTheLeaseWasTakenOverMidDelivery() {
+        String id = record("o1");
+        // The lease runs out while the handler is slow and another node claims the event
+        email.onHandle = event -> lease(event.getId(), "other-node:7", Instant.now().plus(Duration.ofMinutes(1)));
+
+        outboxService.poll();
+
+        OutboxEvent event = event(id);
+        assertThat(event.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(event.getClaimedBy()).isEqualTo("other-node:7");
+        assertThat(event.getCompletedHandlers()).isEmpty();
+    }
+
+    @Test
+    void retryRedeliversOnlyToTheHandlersThatFailed() {
+        String id = record("o1");
+        stock.failures.set(1);
+
+        Instant before = Instant.now();
+        outboxService.poll();
+
+        OutboxEvent failed = event(id);
+        assertThat(failed.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getCompletedHandlers()).containsExactly("email");
+        assertThat(failed.getLastError()).startsWith("stock: ");
+        assertThat(failed.getClaimedBy()).isNull();
+        assertThat(failed.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(1).minusMillis(1));
+
+        // Not due until the backoff has passed
+        outboxService.poll();
+        assertThat(stock.handled).containsExactly("o1");
+
+        makeDue(id);
+        outboxService.poll();
+
+        assertThat(email.handled).containsExactly("o1");
+        assertThat(stock.handled).containsExactly("o1", "o1");
+        assertThat(event(id).getStatus()).isEqualTo(OutboxStatus.DISPATCHED);
+        assertThat(event(id).getCompletedHandlers()).containsExactlyInAnyOrder("email", "stock");
+    }
+
+    @Test
+    void backoffDoublesUpToTheCapAndTheEventIsParkedAfterMaxAttempts() {
+        String id = record("o1");
+        stock.failures.set(Integer.MAX_VALUE);
+
+        for (long expectedDelay : new long[] { 1000, 2000, 3000 }) {
+            Instant before = Instant.now();
+            outboxService.poll();
+            OutboxEvent event = event(id);
+            assertThat(event.getStatus()).isEqualTo(OutboxStatus.PENDING);
+            assertThat(Duration.between(before, event.getNextAttemptAt()).toMillis())
+                    .isCloseTo(expectedDelay, within(500L));
+            makeDue(id);
+        }
+        outboxService.poll();
+
+        OutboxEvent parked = event(id);
+        assertThat(parked.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(parked.getAttempts()).isEqualTo(4);
+        assertThat(email.handled).containsExactly("o1");
+        assertThat(stock.handled).hasSize(4);
+
+        makeDue(id);
+        outboxService.poll();
+        assertThat(stock.handled).hasSize(4);
+        assertThat(outboxService.getStatistics()).containsEntry("failed", 1L).containsEntry("parked", 1L);
+    }
+
+    private String record(String orderId) {
+        return outboxService.record(OutboxEventType.ORDER_CREATED, orderId, "buyer@example.com").getId();
+    }
+
+    private OutboxEvent event(String id) {
+        return outboxEventRepository.findById(id).orElseThrow();
+    }
+
+    private void lease(String id, String claim, Instant until) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                new Update().set("claimedBy", claim).set("claimedUntil", until), OutboxEvent.class);
+    }
+
+    private void makeDue(String id) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                new Update().set("nextAttemptAt", Instant.now().minusMillis(1)), OutboxEvent.class);
+    }
+
+    static class RecordingHandler implements OutboxHandler {
+
+        private final String name;
+        final Queue<String> handled = new ConcurrentLinkedQueue<>();
+        final AtomicInteger failures = new AtomicInteger();
+        volatile Consumer<OutboxEvent> onHandle = event -> {
+        };
+
+        RecordingHandler(String name) {
+            this.name = name;
+        }
+
+        void reset() {
+            handled.clear();
+            failures.set(0);
+            onHandle = event -> {
+            };
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean supports(OutboxEventType type) {
+            return true;
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            handled.add(event.getAggregateId());
+            onHandle.accept(event);
+            if (failures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new IllegalStateException("unavailable");
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class Handlers {
+
+        @Bean
+        RecordingHandler email() {
+            return new RecordingHandler("email");
+        }
+
+        @Bean
+        RecordingHandler stock() {
+            return new RecordingHandler("stock");
+        }
+    }
+}
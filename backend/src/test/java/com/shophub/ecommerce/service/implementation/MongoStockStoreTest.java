@@ -0,0 +1,84 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.enums.ProductStatus;
+import com.shophub.ecommerce.event.StockStatusEvent;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.service.StockStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MongoStockStoreTest {
+
+    private ProductRepository productRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private MongoStockStore stockStore;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        stockStore = new MongoStockStore(productRepository, eventPublisher);
+    }
+
+    @Test
+    void shortLineRollsBackTheLinesAlreadyTaken() {
+        when(productRepository.adjustStock("p1", -2, true)).thenReturn(product("p1", 3));
+        when(productRepository.adjustStock("p2", -1, true)).thenReturn(product("p2", 0));
+        when(productRepository.adjustStock("p3", -4, true)).thenReturn(null);
+        when(productRepository.adjustStock(anyString(), anyInt(), eq(false)))
+                .thenAnswer(invocation -> product(invocation.getArgument(0), 1));
+
+        assertThatThrownBy(() -> stockStore.reserve(List.of(line("p1", 2), line("p2", 1), line("p3", 4))))
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT))
+                .hasMessageContaining("p3");
+
+        verify(productRepository).adjustStock("p1", 2, false);
+        verify(productRepository).adjustStock("p2", 1, false);
+        verify(productRepository, never()).adjustStock(eq("p3"), anyInt(), eq(false));
+        assertThat(stockStore.getStatistics()).containsEntry("reservations", 0L).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void repeatedProductIsTakenAsOneLine() {
+        when(productRepository.adjustStock("p1", -3, true)).thenReturn(product("p1", 2));
+
+        stockStore.reserve(List.of(line("p1", 1), line("p1", 2)));
+
+        verify(productRepository, times(1)).adjustStock(anyString(), anyInt(), anyBoolean());
+        assertThat(stockStore.getStatistics()).containsEntry("reservations", 1L);
+    }
+
+    @Test
+    void onlyZeroCrossingsPublishAStatusChange() {
+        when(productRepository.adjustStock("p1", -2, true)).thenReturn(product("p1", 0));
+        when(productRepository.adjustStock("p2", -1, true)).thenReturn(product("p2", 5));
+
+        stockStore.reserve(List.of(line("p1", 2), line("p2", 1)));
+
+        verify(eventPublisher, times(1)).publishEvent(any(StockStatusEvent.class));
+    }
+
+    private static StockStore.StockLine line(String productId, int quantity) {
+        return new StockStore.StockLine(productId, quantity);
+    }
+
+    private static Product product(String id, int stock) {
+        return Product.builder().id(id).stock(stock)
+                .status(stock > 0 ? ProductStatus.IN_STOCK : ProductStatus.OUT_OF_STOCK).build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.enums.PaymentStatus;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.mapper.OrderDetailsMapper;
+import com.shophub.ecommerce.mapper.OrderMapper;
+import com.shophub.ecommerce.model.Address;
+import com.shophub.ecommerce.model.Order;
+import com.shophub.ecommerce.model.OutboxEvent;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.AddressRepository;
+import com.shophub.ecommerce.repository.OrderRepository;
+import com.shophub.ecommerce.repository.OutboxEventRepository;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.service.OrderService;
+import com.shophub.ecommerce.service.OutboxHandler;
+import com.shophub.ecommerce.service.StockHoldService;
+import com.shophub.ecommerce.service.StockStore;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Saving an order without Mongo transactions (the default): a failed write undoes the earlier
+ * ones and puts the stock back.
+ */
+@DataMongoTest(properties = { "cart.store=mongo", "mongo.transactions.enabled=false" })
+@Import({ OrderServiceImpl.class, MongoCartStore.class, MongoOutboxService.class,
+        OrderMapper.class, OrderDetailsMapper.class })
+class OrderSaveCompensationTest {
+
+    private static final String EMAIL = "buyer@example.com";
+    private static final List<StockStore.StockLine> LINES = List.of(new StockStore.StockLine("p1", 2));
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "order-save-compensation");
+    }
+
+    @MockitoBean
+    private StockStore stockStore;
+
+    @MockitoBean
+    private StockHoldService stockHoldService;
+
+    @MockitoBean
+    private OutboxHandler outboxHandler;
+
+    @MockitoSpyBean
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    private String addressId;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        addressRepository.deleteAll();
+        User user = userRepository.save(User.builder().email(EMAIL).firstName("Buyer").lastName("One").build());
+        productRepository.save(Product.builder().id("p1").productName("Lamp").price(25.0).stock(10).build());
+        addressId = addressRepository.save(Address.builder().user(user.getId()).name("Buyer One")
+                .phoneNumber("9876543210").houseNo("1").area("Area").city("City").state("State").pinCode("560001")
+                .build()).getId();
+        when(stockHoldService.convert(anyString(), anyString(), anyList())).thenReturn(false);
+    }
+
+    @Test
+    void savedOrderIsLinkedAndHasItsOutboxEvent() {
+        Order order = placeOrder();
+
+        assertThat(orderRepository.findById(order.getId())).isPresent();
+        assertThat(userRepository.findByEmail(EMAIL).orElseThrow().getOrders()).containsExactly(order.getId());
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getAggregateId)
+                .containsExactly(order.getId());
+        verify(stockStore).reserve(LINES);
+        verify(stockStore, never()).release(any());
+    }
+
+    @Test
+    void failedOrderInsertDiscardsTheEventAndReleasesStock() {
+        doThrow(new DataAccessResourceFailureException("primary stepped down"))
+                .when(orderRepository).insert(any(Order.class));
+
+        assertThatThrownBy(this::placeOrder).isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(userRepository.findByEmail(EMAIL).orElseThrow().getOrders()).isNullOrEmpty();
+        verify(stockStore).release(LINES);
+    }
+
+    @Test
+    void failedUserLinkDeletesTheOrderAndItsEvent() {
+        doThrow(new DataAccessResourceFailureException("primary stepped down"))
+                .when(userRepository).recordOrder(eq(EMAIL), anyString(), anyList());
+
+        assertThatThrownBy(this::placeOrder).isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(orderRepository.count()).isZero();
+        assertThat(outboxEventRepository.count()).isZero();
+        verify(stockStore).release(LINES);
+    }
+
+    @Test
+    void userDeletedBeforeTheLinkIsA404AndLeavesNothingBehind() {
+        doReturn(false).when(userRepository).recordOrder(eq(EMAIL), anyString(), anyList());
+
+        assertThatThrownBy(this::placeOrder).isInstanceOfSatisfying(ApiException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+
+        assertThat(orderRepository.count()).isZero();
+        assertThat(outboxEventRepository.count()).isZero();
+        verify(stockStore).release(LINES);
+    }
+
+    private Order placeOrder() {
+        return orderService.createOrder(EMAIL, "p1", PaymentStatus.SUCCESS, "ONLINE", addressId, 2,
+                "order_1", "pay_1", "signature");
+    }
+}
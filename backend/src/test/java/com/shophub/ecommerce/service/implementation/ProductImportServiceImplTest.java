@@ -0,0 +1,127 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shophub.ecommerce.dto.ProductImportReport;
+import com.shophub.ecommerce.event.CatalogReloadEvent;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.service.CloudinaryService;
+import com.shophub.ecommerce.service.ProductImportService;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataMongoTest(properties = { "spring.cache.type=simple", "product-import.batch-size=1",
+        "product-import.max-field-length=1000" })
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@Import({ ProductImportServiceImpl.class, ObjectMapper.class })
+@RecordApplicationEvents
+class ProductImportServiceImplTest {
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "product-import");
+    }
+
+    @MockitoBean
+    private CloudinaryService cloudinaryService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        cacheManager.getCache("allProducts_v2").put("page", "stale");
+    }
+
+    @Test
+    void headerWithByteOrderMarkIsRecognised() throws IOException {
+        ProductImportReport report = importCsv("\uFEFFproduct_name,price\nPhone,10\n");
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(productRepository.findAll()).extracting(Product::getProductName).containsExactly("Phone");
+    }
+
+    @Test
+    void unterminatedQuoteFailsOneRowAndKeepsEarlierOnes() throws IOException {
+        ProductImportReport report = importCsv("product_name,price\nPhone,10\n\"Laptop,20\n"
+                + "Tablet,30\n".repeat(500));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).contains("unterminated quote"));
+    }
+
+    @Test
+    void overlongNdjsonLineFailsOnlyThatRow() throws IOException {
+        String name = "x".repeat(300_000);
+        ProductImportReport report = productImportService.importProducts(new ByteArrayInputStream((
+                "{\"product_name\":\"Phone\",\"price\":10}\r\n"
+                        + "{\"product_name\":\"" + name + "\",\"price\":20}\n"
+                        + "{\"product_name\":\"Tablet\",\"price\":30}\n").getBytes(StandardCharsets.UTF_8)),
+                ProductImportService.Format.NDJSON);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(2);
+            assertThat(error.getMessage()).startsWith("Line longer than");
+        });
+        assertThat(productRepository.findAll()).extracting(Product::getProductName)
+                .containsExactlyInAnyOrder("Phone", "Tablet");
+    }
+
+    @Test
+    void importCutShortStillEvictsAndReloads() {
+        byte[] rows = "product_name,price\nPhone,10\nLaptop,20\n".getBytes(StandardCharsets.UTF_8);
+        InputStream brokenUpload = new SequenceInputStream(new ByteArrayInputStream(rows), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        assertThatThrownBy(() -> productImportService.importProducts(brokenUpload, ProductImportService.Format.CSV))
+                .isInstanceOf(IOException.class);
+
+        assertThat(productRepository.count()).isPositive();
+        assertThat(cacheManager.getCache("allProducts_v2").get("page")).isNull();
+        assertThat(events.stream(CatalogReloadEvent.class)).hasSize(1);
+    }
+
+    private ProductImportReport importCsv(String csv) throws IOException {
+        return productImportService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportService.Format.CSV);
+    }
+}
@@ -0,0 +1,127 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shophub.ecommerce.dto.ApiResponse;
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedisIdempotencyServiceTest {
+
+    private static StringRedisTemplate redisTemplate;
+
+    private final AtomicInteger ordersCreated = new AtomicInteger();
+    private RedisIdempotencyService idempotency;
+
+    @BeforeAll
+    static void connect() {
+        redisTemplate = EmbeddedRedis.newTemplate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(redisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotency.shutdown();
+    }
+
+    @Test
+    void concurrentDuplicatesCreateExactlyOneOrder() throws Exception {
+        idempotency = service(Duration.ofSeconds(60), Duration.ofSeconds(10));
+        int clients = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<ApiResponse>>> responses = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            responses.add(pool.submit(() -> {
+                start.await();
+                return idempotency.execute("create-order", "user-1", "checkout-1", order("p1"),
+                        createOrder(Duration.ofMillis(200)));
+            }));
+        }
+        start.countDown();
+
+        List<Object> orderIds = new ArrayList<>();
+        for (Future<ResponseEntity<ApiResponse>> response : responses) {
+            ResponseEntity<ApiResponse> result = response.get(30, TimeUnit.SECONDS);
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            orderIds.add(((Map<?, ?>) result.getBody().getData()).get("order_id"));
+        }
+        pool.shutdown();
+
+        assertThat(ordersCreated).hasValue(1);
+        assertThat(orderIds).containsOnly("order-1");
+        assertThat(idempotency.getStatistics()).containsEntry("executed", 1L).containsEntry("replayed", 31L);
+    }
+
+    @Test
+    void slowRequestKeepsItsClaimPastTheLockTtl() throws Exception {
+        idempotency = service(Duration.ofMillis(300), Duration.ZERO);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<ResponseEntity<ApiResponse>> first = pool.submit(() -> idempotency.execute("create-order", "user-1",
+                "checkout-1", order("p1"), createOrder(Duration.ofMillis(1200))));
+
+        Thread.sleep(800);
+        assertThatThrownBy(() -> idempotency.execute("create-order", "user-1", "checkout-1", order("p1"),
+                createOrder(Duration.ZERO)))
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        pool.shutdown();
+        assertThat(ordersCreated).hasValue(1);
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() {
+        idempotency = service(Duration.ofSeconds(60), Duration.ofSeconds(1));
+        idempotency.execute("create-order", "user-1", "checkout-1", order("p1"), createOrder(Duration.ZERO));
+
+        assertThatThrownBy(() -> idempotency.execute("create-order", "user-1", "checkout-1", order("p2"),
+                createOrder(Duration.ZERO)))
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        assertThat(ordersCreated).hasValue(1);
+    }
+
+    private RedisIdempotencyService service(Duration lockTtl, Duration inFlightWait) {
+        return new RedisIdempotencyService(redisTemplate, new ObjectMapper(), Duration.ofHours(1), lockTtl,
+                inFlightWait);
+    }
+
+    private static Object order(String productId) {
+        return List.of(productId, Map.of("payment_mode", "COD", "address", "a1"));
+    }
+
+    private Supplier<ResponseEntity<ApiResponse>> createOrder(Duration latency) {
+        return () -> {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String id = "order-" + ordersCreated.incrementAndGet();
+            return ResponseEntity.ok(ApiResponse.success("Order created", Map.of("order_id", id)));
+        };
+    }
+}
@@ -0,0 +1,154 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.service.StockStore;
+import com.shophub.ecommerce.support.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Thousands of shoppers racing for the last units of one SKU across several nodes, then every
+ * node sweeping the unpaid holds at once. Run with {@code mvn -Pload-test test}.
+ */
+@Tag("load")
+class RedisStockHoldLoadTest {
+
+    private static final String SKU = "sku-1";
+    private static final int STOCK = 500;
+    private static final int SHOPPERS = 5000;
+    private static final int NODES = 4;
+    private static final int STRIPES = 8;
+    private static final Duration TTL = Duration.ofSeconds(3);
+
+    private static StringRedisTemplate redisTemplate;
+
+    private final List<RedisStockHoldService> nodes = new ArrayList<>();
+
+    @BeforeAll
+    static void connect() {
+        redisTemplate = EmbeddedRedis.newTemplate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(redisTemplate);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(SKU)).thenReturn(Optional.of(Product.builder().id(SKU).stock(STOCK).build()));
+        for (int node = 0; node < NODES; node++) {
+            RedisStockStore stockStore = new RedisStockStore(productRepository, redisTemplate,
+                    mock(ApplicationEventPublisher.class), STRIPES, Duration.ofSeconds(30));
+            nodes.add(new RedisStockHoldService(stockStore, redisTemplate, TTL, 50, Duration.ofSeconds(30)));
+        }
+    }
+
+    @Test
+    void holdsNeverOversellAndEachExpiredHoldIsReleasedOnce() throws Exception {
+        List<StockStore.StockLine> lines = List.of(new StockStore.StockLine(SKU, 1));
+        Queue<String> held = new ConcurrentLinkedQueue<>();
+        AtomicInteger conflicts = new AtomicInteger();
+        long[] latencies = new long[SHOPPERS];
+        CountDownLatch start = new CountDownLatch(1);
+
+        long elapsed;
+        try (ExecutorService pool = Executors.newFixedThreadPool(64)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < SHOPPERS; i++) {
+                int shopper = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    String holdId = "order_" + shopper;
+                    long began = System.nanoTime();
+                    try {
+                        nodes.get(shopper % NODES).place(holdId, "shopper" + shopper + "@example.com", lines);
+                        held.add(holdId);
+                    } catch (ApiException e) {
+                        assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+                        conflicts.incrementAndGet();
+                    }
+                    latencies[shopper] = System.nanoTime() - began;
+                    return null;
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            elapsed = System.nanoTime() - began;
+        }
+
+        assertThat(held).hasSize(STOCK);
+        assertThat(conflicts).hasValue(SHOPPERS - STOCK);
+        assertThat(stripeTotal()).isZero();
+
+        // Half of the shoppers pay, from whichever node verifies the payment
+        List<String> holdIds = new ArrayList<>(held);
+        for (int i = 0; i < holdIds.size(); i += 2) {
+            String holdId = holdIds.get(i);
+            String email = "shopper" + holdId.substring("order_".length()) + "@example.com";
+            assertThat(nodes.get(i % NODES).convert(holdId, email, lines)).isTrue();
+        }
+
+        Thread.sleep(TTL.toMillis() + 200);
+        CountDownLatch sweep = new CountDownLatch(1);
+        try (ExecutorService pool = Executors.newFixedThreadPool(NODES)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (RedisStockHoldService node : nodes) {
+                futures.add(pool.submit(() -> {
+                    sweep.await();
+                    node.releaseExpired();
+                    return null;
+                }));
+            }
+            sweep.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        int unpaid = STOCK / 2;
+        long released = nodes.stream().mapToLong(node -> (long) node.getStatistics().get("expired")).sum();
+        assertThat(released).isEqualTo(unpaid);
+        assertThat(stripeTotal()).isEqualTo(unpaid);
+        assertThat(redisTemplate.opsForHash().get("stock:pending", SKU)).isEqualTo(String.valueOf(-unpaid));
+        assertThat(redisTemplate.opsForZSet().zCard("stock:holds")).isZero();
+        assertThat(redisTemplate.keys("stock:hold:*")).isEmpty();
+
+        Arrays.sort(latencies);
+        System.out.printf("%d holds on one SKU over %d nodes: %.0f/s, p50 %.2f ms, p99 %.2f ms%n",
+                SHOPPERS, NODES, SHOPPERS / (elapsed / 1e9),
+                latencies[SHOPPERS / 2] / 1e6, latencies[SHOPPERS * 99 / 100] / 1e6);
+    }
+
+    private long stripeTotal() {
+        long total = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            total += Long.parseLong(redisTemplate.opsForValue().get("stock:" + SKU + ":" + stripe));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,74 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.exception.ApiException;
+import com.shophub.ecommerce.service.StockStore;
+import com.shophub.ecommerce.support.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RedisStockHoldServiceTest {
+
+    private static final List<StockStore.StockLine> LINES = List.of(new StockStore.StockLine("p1", 2));
+
+    private static StringRedisTemplate redisTemplate;
+
+    private StockStore stockStore;
+
+    @BeforeAll
+    static void connect() {
+        redisTemplate = EmbeddedRedis.newTemplate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(redisTemplate);
+        stockStore = mock(StockStore.class);
+    }
+
+    @Test
+    void convertRejectsOtherLinesAndKeepsTheHold() {
+        RedisStockHoldService holds = holds(Duration.ofMinutes(15), Duration.ofSeconds(30));
+        holds.place("order_1", "alice@example.com", LINES);
+
+        assertThatThrownBy(() -> holds.convert("order_1", "alice@example.com",
+                List.of(new StockStore.StockLine("p1", 5))))
+                .isInstanceOf(ApiException.class);
+        assertThat(holds.convert("order_1", "bob@example.com", LINES)).isFalse();
+
+        assertThat(holds.convert("order_1", "alice@example.com", LINES)).isTrue();
+        assertThat(holds.convert("order_1", "alice@example.com", LINES)).isFalse();
+    }
+
+    @Test
+    void failedReleaseLeavesTheHoldForTheNextSweep() throws InterruptedException {
+        RedisStockHoldService holds = holds(Duration.ZERO, Duration.ofMillis(200));
+        holds.place("order_1", "alice@example.com", LINES);
+        doThrow(new IllegalStateException("store down")).doNothing().when(stockStore).release(anyList());
+
+        holds.releaseExpired();
+        // Leased, so it can be neither sold nor released twice while the lease runs
+        assertThat(holds.convert("order_1", "alice@example.com", LINES)).isFalse();
+        holds.releaseExpired();
+        verify(stockStore, times(1)).release(anyList());
+
+        Thread.sleep(300);
+        holds.releaseExpired();
+        verify(stockStore, times(2)).release(LINES);
+        assertThat(redisTemplate.opsForZSet().zCard("stock:holds")).isZero();
+        assertThat(redisTemplate.hasKey("stock:hold:order_1")).isFalse();
+    }
+
+    private RedisStockHoldService holds(Duration ttl, Duration lease) {
+        return new RedisStockHoldService(stockStore, redisTemplate, ttl, 500, lease);
+    }
+}
@@ -0,0 +1,81 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.support.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RedisStockStoreTest {
+
+    private static final String PENDING_KEY = "stock:pending";
+
+    private static StringRedisTemplate redisTemplate;
+
+    private ProductRepository productRepository;
+    private RedisStockStore stockStore;
+
+    @BeforeAll
+    static void connect() {
+        redisTemplate = EmbeddedRedis.newTemplate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(redisTemplate);
+        productRepository = mock(ProductRepository.class);
+        stockStore = new RedisStockStore(productRepository, redisTemplate, mock(ApplicationEventPublisher.class),
+                8, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void failedWriteKeepsTheDeltaForTheNextRun() {
+        redisTemplate.opsForHash().put(PENDING_KEY, "p1", "-3");
+        when(productRepository.adjustStock(eq("p1"), anyInt(), anyBoolean()))
+                .thenThrow(new IllegalStateException("mongo down"))
+                .thenReturn(Product.builder().id("p1").stock(7).build());
+
+        stockStore.reconcile();
+        assertThat(redisTemplate.opsForHash().get(PENDING_KEY, "p1")).isEqualTo("-3");
+
+        stockStore.reconcile();
+        verify(productRepository, times(2)).adjustStock("p1", -3, false);
+        assertThat(redisTemplate.opsForHash().hasKey(PENDING_KEY, "p1")).isFalse();
+    }
+
+    @Test
+    void changesMadeDuringTheWriteSurvive() {
+        redisTemplate.opsForHash().put(PENDING_KEY, "p1", "-3");
+        when(productRepository.adjustStock(eq("p1"), anyInt(), anyBoolean())).thenAnswer(invocation -> {
+            // Another checkout lands while Mongo is being written
+            redisTemplate.opsForHash().increment(PENDING_KEY, "p1", -2);
+            return Product.builder().id("p1").stock(5).build();
+        });
+
+        stockStore.reconcile();
+
+        assertThat(redisTemplate.opsForHash().get(PENDING_KEY, "p1")).isEqualTo("-2");
+    }
+
+    @Test
+    void onlyOneNodeReconcilesAtATime() {
+        redisTemplate.opsForHash().put(PENDING_KEY, "p1", "-3");
+        redisTemplate.opsForValue().set("stock:pending:lock", "other-node");
+
+        stockStore.reconcile();
+
+        verifyNoInteractions(productRepository);
+        assertThat(redisTemplate.opsForHash().get(PENDING_KEY, "p1")).isEqualTo("-3");
+    }
+}
@@ -0,0 +1,174 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.shophub.ecommerce.cache.CatalogChangeBroadcaster;
+import com.shophub.ecommerce.cache.UserDetailsDependencies;
+import com.shophub.ecommerce.config.RedisConfig;
+import com.shophub.ecommerce.event.ProductChangeEvent;
+import com.shophub.ecommerce.mapper.AddressMapper;
+import com.shophub.ecommerce.mapper.OrderDetailsMapper;
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.security.PrincipalLoader;
+import com.shophub.ecommerce.service.AddressService;
+import com.shophub.ecommerce.service.EmailService;
+import com.shophub.ecommerce.service.ImageUploadService;
+import com.shophub.ecommerce.service.JwtService;
+import com.shophub.ecommerce.service.UserService;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import com.shophub.ecommerce.support.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@ImportAutoConfiguration({ AopAutoConfiguration.class, RedisAutoConfiguration.class })
+@Import({ RedisConfig.class, CatalogChangeBroadcaster.class, ImageDeduplicator.class, UserDetailsDependencies.class,
+        UserServiceImpl.class, AddressServiceImpl.class, AddressMapper.class, OrderDetailsMapper.class,
+        PrincipalLoader.class, InMemoryCartStore.class })
+class UserDetailsCacheEvictionTest {
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "user-details-cache");
+        EmbeddedRedis.register(registry);
+    }
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Cache cache;
+    private Product phone;
+    private Product laptop;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        EmbeddedRedis.flushAll(redisTemplate);
+        cache = cacheManager.getCache(UserDetailsDependencies.CACHE_NAME);
+        cache.clear();
+
+        phone = productRepository.save(Product.builder().productName("Phone").price(500).build());
+        laptop = productRepository.save(Product.builder().productName("Laptop").price(1500).build());
+        userRepository.save(user("alice@example.com", phone));
+        userRepository.save(user("bob@example.com", laptop));
+        userRepository.save(user("carol@example.com", laptop));
+
+        for (String email : List.of("alice@example.com", "bob@example.com", "carol@example.com")) {
+            userService.getUserDetails(email);
+        }
+        assertCached("alice@example.com", "bob@example.com", "carol@example.com");
+    }
+
+    @Test
+    void addressWriteEvictsOnlyThatUser() {
+        addressService.addAddress("alice@example.com", "Alice", "555", "IN", "700001", "1", "Park St",
+                null, "Kolkata", "WB");
+
+        assertEvicted("alice@example.com");
+        assertCached("bob@example.com", "carol@example.com");
+    }
+
+    @Test
+    void cartWriteEvictsOnlyThatUser() {
+        userService.addToCart("bob@example.com", phone.getId());
+
+        assertEvicted("bob@example.com");
+        assertCached("alice@example.com", "carol@example.com");
+    }
+
+    @Test
+    void productChangeEvictsOnlyUsersThatEmbedTheProduct() {
+        phone.setPrice(450);
+        productRepository.save(phone);
+        eventPublisher.publishEvent(ProductChangeEvent.saved(phone));
+
+        assertEvicted("alice@example.com");
+        assertCached("bob@example.com", "carol@example.com");
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> cart = (List<Map<String, Object>>) userService
+                .getUserDetails("alice@example.com").get("cart_items");
+        assertThat(cart).singleElement().satisfies(item -> assertThat(item.get("price")).isEqualTo(450.0));
+    }
+
+    @Test
+    void changeToAnUnreferencedProductEvictsNobody() {
+        Product tablet = productRepository.save(Product.builder().productName("Tablet").price(300).build());
+        eventPublisher.publishEvent(ProductChangeEvent.saved(tablet));
+
+        assertCached("alice@example.com", "bob@example.com", "carol@example.com");
+    }
+
+    private void assertCached(String... emails) {
+        for (String email : emails) {
+            assertThat(cache.get(email)).as("cached details of %s", email).isNotNull();
+        }
+    }
+
+    private void assertEvicted(String... emails) {
+        for (String email : emails) {
+            assertThat(cache.get(email)).as("cached details of %s", email).isNull();
+        }
+    }
+
+    private static User user(String email, Product inCart) {
+        return User.builder()
+                .email(email)
+                .firstName(email.substring(0, email.indexOf('@')))
+                .lastName("Tester")
+                .cartItems(List.of(new CartItem(inCart.getId(), 1)))
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.shophub.ecommerce.service.implementation;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.shophub.ecommerce.cache.UserDetailsDependencies;
+import com.shophub.ecommerce.mapper.OrderDetailsMapper;
+import com.shophub.ecommerce.model.Address;
+import com.shophub.ecommerce.model.CartItem;
+import com.shophub.ecommerce.model.Order;
+import com.shophub.ecommerce.model.Product;
+import com.shophub.ecommerce.model.User;
+import com.shophub.ecommerce.repository.AddressRepository;
+import com.shophub.ecommerce.repository.OrderRepository;
+import com.shophub.ecommerce.repository.ProductRepository;
+import com.shophub.ecommerce.repository.UserRepository;
+import com.shophub.ecommerce.security.PrincipalLoader;
+import com.shophub.ecommerce.service.EmailService;
+import com.shophub.ecommerce.service.ImageUploadService;
+import com.shophub.ecommerce.service.JwtService;
+import com.shophub.ecommerce.support.EmbeddedMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+class UserDetailsQueryCountTest {
+
+    // user, cart, order page, products, addresses
+    private static final int EXPECTED_QUERIES = 5;
+
+    private static final AtomicInteger queries = new AtomicInteger();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        EmbeddedMongo.register(registry, "user-details-queries");
+    }
+
+    @TestConfiguration
+    static class CountQueries {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer queryCounter() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (List.of("find", "aggregate", "count", "getMore").contains(event.getCommandName())) {
+                        queries.incrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        addressRepository.deleteAll();
+        orderRepository.deleteAll();
+        userService = new UserServiceImpl(userRepository, productRepository, addressRepository, orderRepository,
+                mock(PasswordEncoder.class), mock(JwtService.class), mock(EmailService.class),
+                mock(PrincipalLoader.class), new MongoCartStore(userRepository),
+                new OrderDetailsMapper(productRepository, addressRepository), mock(ImageUploadService.class),
+                mock(UserDetailsDependencies.class));
+    }
+
+    @Test
+    void queryCountDoesNotGrowWithCartOrdersOrAddresses() {
+        seedUser("small@example.com", 1);
+        seedUser("large@example.com", 15);
+
+        assertThat(countQueries("small@example.com")).isEqualTo(EXPECTED_QUERIES);
+        Map<String, Object> details = userService.getUserDetails("large@example.com");
+        assertThat(countQueries("large@example.com")).isEqualTo(EXPECTED_QUERIES);
+
+        assertThat((List<?>) details.get("cart_items")).hasSize(15);
+        assertThat((List<?>) details.get("address")).hasSize(15);
+        assertThat((List<?>) details.get("orders")).hasSize(15);
+    }
+
+    private int countQueries(String email) {
+        queries.set(0);
+        userService.getUserDetails(email);
+        return queries.get();
+    }
+
+    private void seedUser(String email, int size) {
+        User user = userRepository.save(User.builder().email(email).firstName("Test").lastName("User").build());
+        List<String> addressIds = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Product product = productRepository.save(Product.builder().productName(email + " product " + i)
+                    .price(10.0).build());
+            Address address = addressRepository.save(Address.builder().user(user.getId()).city("City " + i)
+                    .build());
+            addressIds.add(address.getId());
+            user.getCartItems().add(new CartItem(product.getId(), 1));
+            orderRepository.save(Order.builder().userId(user.getId()).product(product.getId())
+                    .address(address.getId()).createdAt(Instant.now().minusSeconds(i)).build());
+        }
+        user.setAddress(addressIds);
+        userRepository.save(user);
+    }
+}
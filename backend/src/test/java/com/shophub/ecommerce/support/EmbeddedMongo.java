@@ -0,0 +1,36 @@
+package com.shophub.ecommerce.support;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * One in-process Mongo wire-protocol server per test JVM, backed by memory. It covers the CRUD,
+ * update operators and aggregation stages the repositories use; multi-document transactions are
+ * not supported, so tests run with {@code mongo.transactions.enabled=false} like the default config.
+ */
+public final class EmbeddedMongo {
+
+    private static MongoServer server;
+    private static String connectionString;
+
+    private EmbeddedMongo() {
+    }
+
+    public static synchronized String connectionString() {
+        if (server == null) {
+            server = new MongoServer(new MemoryBackend());
+            connectionString = server.bindAndGetConnectionString();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::shutdownNow));
+        }
+        return connectionString;
+    }
+
+    /**
+     * Points Spring Data at the embedded server, using a fresh database per test class.
+     */
+    public static void register(DynamicPropertyRegistry registry, String database) {
+        registry.add("spring.data.mongodb.uri", () -> connectionString() + "/" + database);
+        registry.add("spring.data.mongodb.database", () -> database);
+    }
+}
@@ -0,0 +1,77 @@
+package com.shophub.ecommerce.support;
+
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * One real redis-server per test JVM, started on first use on a free port. Persistence is off so
+ * nothing is written to the working directory.
+ */
+public final class EmbeddedRedis {
+
+    private static RedisServer server;
+    private static int port;
+
+    private EmbeddedRedis() {
+    }
+
+    public static synchronized int port() {
+        if (server == null) {
+            try {
+                port = freePort();
+                server = RedisServer.newRedisServer()
+                        .port(port)
+                        .bind("127.0.0.1")
+                        .setting("save \"\"")
+                        .setting("appendonly no")
+                        .build();
+                server.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded Redis", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.stop();
+                } catch (IOException ignored) {
+                    // The process is exiting anyway
+                }
+            }));
+        }
+        return port;
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "127.0.0.1");
+        registry.add("spring.data.redis.port", EmbeddedRedis::port);
+    }
+
+    /**
+     * A template on its own connection factory, for tests that build their beans by hand.
+     */
+    public static StringRedisTemplate newTemplate() {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("127.0.0.1", port());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        return new StringRedisTemplate(connectionFactory);
+    }
+
+    public static void flushAll(StringRedisTemplate redisTemplate) {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
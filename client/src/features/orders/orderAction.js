@@ -3,7 +3,7 @@ import { BASE_API } from "../../utils/constants";
 
 export const createOrder = createAsyncThunk(
     "order/createOrder",
-    async ({ id, orderData }, { rejectWithValue }) => {
+    async ({ id, orderData, idempotencyKey }, { rejectWithValue }) => {
         try {
             const token = localStorage.getItem("jwtToken");
 
@@ -16,6 +16,8 @@ export const createOrder = createAsyncThunk(
                 headers: {
                     "Content-Type": "application/json",
                     Authorization: `Bearer ${token}`,
+                    // A retry of the same checkout replays the first order instead of placing another
+                    "Idempotency-Key": idempotencyKey,
                 },
                 body: JSON.stringify(orderData),
             });
@@ -36,7 +38,7 @@ export const createOrder = createAsyncThunk(
 
 export const createOrderFromCart = createAsyncThunk(
     "order/createOrderFromCart",
-    async (orderData, { rejectWithValue }) => {
+    async ({ orderData, idempotencyKey }, { rejectWithValue }) => {
         try {
             const token = localStorage.getItem("jwtToken");
 
@@ -49,6 +51,7 @@ export const createOrderFromCart = createAsyncThunk(
                 headers: {
                     "Content-Type": "application/json",
                     Authorization: `Bearer ${token}`,
+                    "Idempotency-Key": idempotencyKey,
                 },
                 body: JSON.stringify(orderData),
             });
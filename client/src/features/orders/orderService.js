@@ -0,0 +1,34 @@
+import { BASE_API } from "../../utils/constants";
+
+const authHeaders = () => ({
+    "Content-Type": "application/json",
+    Authorization: `Bearer ${localStorage.getItem("jwtToken")}`,
+});
+
+// One page of the user's order history, newest first. Pass the previous page's next_cursor for the next one
+export const fetchOrderHistory = async (cursor) => {
+    const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : "";
+    const response = await fetch(`${BASE_API}/user/orders${query}`, {
+        method: "GET",
+        headers: authHeaders(),
+    });
+
+    const data = await response.json();
+    if (!response.ok) {
+        throw new Error(data.error_message || data.message || "Failed to fetch orders");
+    }
+    return data.data; // { items, next_cursor, has_more }
+};
+
+export const fetchOrderDetails = async (orderId) => {
+    const response = await fetch(`${BASE_API}/user/orders/${encodeURIComponent(orderId)}`, {
+        method: "GET",
+        headers: authHeaders(),
+    });
+
+    const data = await response.json();
+    if (!response.ok) {
+        throw new Error(data.error_message || data.message || "Failed to fetch order");
+    }
+    return data.data;
+};
@@ -1,4 +1,4 @@
-import { useEffect, useState } from "react";
+import { useEffect, useRef, useState } from "react";
 import { useParams, Link, useNavigate } from "react-router-dom";
 import { useDispatch, useSelector } from "react-redux";
 import {
@@ -46,6 +46,12 @@ function CheckoutPage() {
     const [paymentMethod, setPaymentMethod] = useState("COD");
     const [isProcessing, setIsProcessing] = useState(false);
 
+    // One key per checkout attempt, kept across retries of it so the server places the order once
+    const idempotencyKeyRef = useRef(null);
+    useEffect(() => {
+        idempotencyKeyRef.current = null;
+    }, [id, selectedAddressIndex, paymentMethod]);
+
     const [showAddressModal, setShowAddressModal] = useState(false);
     const [isAddingAddress, setIsAddingAddress] = useState(false);
     const [addressFormData, setAddressFormData] = useState({
@@ -110,6 +116,10 @@ function CheckoutPage() {
         try {
             if (paymentMethod === "COD") {
                 let resultAction;
+                if (!idempotencyKeyRef.current) {
+                    idempotencyKeyRef.current = crypto.randomUUID();
+                }
+                const idempotencyKey = idempotencyKeyRef.current;
                 
                 if (id) {
                      // Single Product Order
@@ -117,14 +127,15 @@ function CheckoutPage() {
                         createOrder({
                             id: product.id,
                             orderData: { ...baseOrderData, payment_status: "PENDING" },
+                            idempotencyKey,
                         })
                     ).unwrap();
                 } else {
                     // Cart Order
                      resultAction = await dispatch(
                         createOrderFromCart({
-                             ...baseOrderData, 
-                             payment_status: "PENDING" 
+                            orderData: { ...baseOrderData, payment_status: "PENDING" },
+                            idempotencyKey,
                         })
                     ).unwrap();
                 }
@@ -133,6 +144,7 @@ function CheckoutPage() {
                     resultAction.id || resultAction.order?.id || resultAction.data?.id;
 
                 if (newOrderId) {
+                    idempotencyKeyRef.current = null;
                     dispatch(resetOrderState());
                     navigate(`/product-checkout/success/${newOrderId}`);
                 } else {
@@ -1,3 +1,4 @@
+import { useEffect, useState } from "react";
 import { useParams, useNavigate } from "react-router-dom";
 import { useSelector } from "react-redux";
 import {
@@ -14,7 +15,9 @@ import {
     CreditCard,
     Tag,
     Phone,
+    Loader2,
 } from "lucide-react";
+import { fetchOrderDetails } from "../features/orders/orderService";
 
 export default function OrderProductDetailsPage() {
     const { orderId } = useParams();
@@ -23,7 +26,21 @@ export default function OrderProductDetailsPage() {
     const { user } = useSelector((state) => state.auth);
     const safeUser = user || JSON.parse(localStorage.getItem("user")) || {};
 
-    const order = safeUser.orders?.find((o) => o.id === orderId);
+    // Fetched by id, since the user details only embed the latest orders
+    const [order, setOrder] = useState(null);
+    const [isLoading, setIsLoading] = useState(true);
+
+    useEffect(() => {
+        let cancelled = false;
+        setIsLoading(true);
+        fetchOrderDetails(orderId)
+            .then((data) => !cancelled && setOrder(data))
+            .catch(() => !cancelled && setOrder(null))
+            .finally(() => !cancelled && setIsLoading(false));
+        return () => {
+            cancelled = true;
+        };
+    }, [orderId]);
 
     const shippingAddress =
         safeUser.address && safeUser.address.length > 0 ? safeUser.address[0] : null;
@@ -39,6 +56,14 @@ export default function OrderProductDetailsPage() {
         });
     };
 
+    if (isLoading) {
+        return (
+            <div className="min-h-screen flex items-center justify-center bg-gray-50">
+                <Loader2 className="h-10 w-10 animate-spin text-indigo-600" />
+            </div>
+        );
+    }
+
     if (!order) {
         return (
             <div className="min-h-screen flex flex-col items-center justify-center bg-gray-50">
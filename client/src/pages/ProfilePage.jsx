@@ -25,6 +25,7 @@ import {
 } from "lucide-react";
 
 import { logoutUser, getUserDetails } from "../features/appFeatures/authSlice";
+import { fetchOrderHistory } from "../features/orders/orderService";
 
 const Toast = ({ message, type, onClose }) => {
     useEffect(() => {
@@ -70,6 +71,11 @@ export default function ProfilePage() {
     const [isEditing, setIsEditing] = useState(false);
     const [toast, setToast] = useState(null);
 
+    // The user details only embed the latest orders, so the history is paged from its own endpoint
+    const [orderPages, setOrderPages] = useState({ items: [], nextCursor: null, hasMore: false });
+    const [ordersLoaded, setOrdersLoaded] = useState(false);
+    const [ordersLoading, setOrdersLoading] = useState(false);
+
     const [formData, setFormData] = useState({
         first_name: "",
         last_name: "",
@@ -81,6 +87,29 @@ export default function ProfilePage() {
         dispatch(getUserDetails());
     }, [dispatch]);
 
+    const loadOrders = async (cursor) => {
+        setOrdersLoading(true);
+        try {
+            const page = await fetchOrderHistory(cursor);
+            setOrderPages((prev) => ({
+                items: cursor ? [...prev.items, ...page.items] : page.items,
+                nextCursor: page.next_cursor,
+                hasMore: page.has_more,
+            }));
+        } catch (error) {
+            showToast(error.message, "error");
+        } finally {
+            setOrdersLoaded(true);
+            setOrdersLoading(false);
+        }
+    };
+
+    useEffect(() => {
+        if (activeTab === "orders" && !ordersLoaded) {
+            loadOrders(null);
+        }
+    }, [activeTab]);
+
     useEffect(() => {
         if (safeUser) {
             setFormData({
@@ -238,7 +267,15 @@ export default function ProfilePage() {
     );
 
     const OrderHistory = () => {
-        const userOrders = safeUser.orders || [];
+        const userOrders = orderPages.items;
+
+        if (!ordersLoaded) {
+            return (
+                <div className="flex justify-center py-16">
+                    <Loader2 className="h-8 w-8 animate-spin text-indigo-600" />
+                </div>
+            );
+        }
 
         return (
             <div className="space-y-6 animate-in fade-in slide-in-from-bottom-4 duration-500">
@@ -311,6 +348,18 @@ export default function ProfilePage() {
                             </p>
                         </div>
                     )}
+                    {orderPages.hasMore && (
+                        <div className="flex justify-center pt-2">
+                            <button
+                                onClick={() => loadOrders(orderPages.nextCursor)}
+                                disabled={ordersLoading}
+                                className="text-sm font-semibold text-indigo-600 hover:text-indigo-700 flex items-center gap-2 bg-indigo-50 px-4 py-2 rounded-lg hover:bg-indigo-100 transition-colors disabled:opacity-60"
+                            >
+                                {ordersLoading && <Loader2 size={16} className="animate-spin" />}
+                                Load more orders
+                            </button>
+                        </div>
+                    )}
                 </div>
             </div>
         );